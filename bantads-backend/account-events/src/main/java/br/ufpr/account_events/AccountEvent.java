@@ -0,0 +1,25 @@
+package br.ufpr.account_events;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Estado de uma conta depois de uma alteração ({@code account.created},
+ * {@code account.updated}, {@code account.deleted}).
+ *
+ * {@code sequence} é a versão da linha da conta no account-service: cresce a
+ * cada alteração da conta, então um evento com sequência menor ou igual à já
+ * aplicada está atrasado.
+ */
+public record AccountEvent(
+        int schemaVersion,
+        String eventId,
+        long sequence,
+        Long id,
+        String clientCpf,
+        String numero,
+        BigDecimal saldo,
+        BigDecimal limite,
+        String managerCpf,
+        LocalDateTime dataCriacao) implements CqrsEvent {
+}
@@ -0,0 +1,17 @@
+package br.ufpr.account_events;
+
+/**
+ * Evento publicado pelo account-service para a projeção de leitura.
+ *
+ * {@code eventId} também vai como messageId da mensagem. Quando o formato de
+ * um evento mudar de forma incompatível, {@link #CURRENT_SCHEMA_VERSION} sobe
+ * e o consumidor decide pelo {@code schemaVersion} recebido.
+ */
+public interface CqrsEvent {
+
+    int CURRENT_SCHEMA_VERSION = 1;
+
+    int schemaVersion();
+
+    String eventId();
+}
@@ -0,0 +1,74 @@
+package br.ufpr.account_events;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * Serializa e lê os eventos no formato indicado pelo content-type da mensagem:
+ * JSON ({@value #JSON}) ou Smile, o JSON binário do Jackson ({@value #SMILE}).
+ *
+ * Os dois mapeadores usam o Blackbird (acesso aos campos por lambdas geradas
+ * em vez de reflexão) e leem números direto para {@code BigDecimal}, então
+ * valores em dinheiro não passam por {@code double}.
+ */
+public class EventCodec {
+
+    public static final String JSON = "application/json";
+    public static final String SMILE = "application/x-jackson-smile";
+
+    private final ObjectMapper json;
+    private final ObjectMapper smile;
+
+    public EventCodec() {
+        this.json = configure(new ObjectMapper());
+        this.smile = configure(new ObjectMapper(new SmileFactory()));
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        return mapper
+                .registerModule(new JavaTimeModule())
+                .registerModule(new BlackbirdModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
+                .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                // Campos novos de versões futuras não quebram consumidores antigos.
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    public static boolean supports(String contentType) {
+        return contentType == null || contentType.startsWith(JSON) || contentType.startsWith(SMILE);
+    }
+
+    public byte[] encode(CqrsEvent event, String contentType) {
+        try {
+            return mapperFor(contentType).writeValueAsBytes(event);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Erro ao serializar evento " + event.eventId(), ex);
+        }
+    }
+
+    /** Lê o corpo direto para o tipo do evento, sem passar por {@code Map}. */
+    public <T> T decode(byte[] body, String contentType, Class<T> type) {
+        try {
+            return mapperFor(contentType).readValue(body, type);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Erro ao ler evento " + type.getSimpleName(), ex);
+        }
+    }
+
+    private ObjectMapper mapperFor(String contentType) {
+        if (contentType != null && contentType.startsWith(SMILE))
+            return smile;
+        if (contentType == null || contentType.startsWith(JSON))
+            return json;
+        throw new IllegalArgumentException("Content-type de evento não suportado: " + contentType);
+    }
+}
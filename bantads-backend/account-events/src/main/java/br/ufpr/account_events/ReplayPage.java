@@ -0,0 +1,18 @@
+package br.ufpr.account_events;
+
+import java.util.List;
+
+/**
+ * Página da reprodução do estado do account-service, usada para reconstruir
+ * a projeção de leitura sem depender da fila. A paginação é por chave:
+ * {@code proximo} é o cursor a repassar no pedido seguinte e vem nulo na
+ * última página.
+ */
+public record ReplayPage<T extends CqrsEvent>(
+        List<T> itens,
+        String proximo) {
+
+    public ReplayPage {
+        itens = itens == null ? List.of() : List.copyOf(itens);
+    }
+}
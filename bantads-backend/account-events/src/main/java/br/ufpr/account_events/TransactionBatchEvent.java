@@ -0,0 +1,20 @@
+package br.ufpr.account_events;
+
+import java.util.List;
+
+/**
+ * Lote de transferências gravado numa única transação
+ * ({@code transaction.batch-created}): o estado final das contas envolvidas e
+ * as movimentações, na ordem em que foram gravadas.
+ */
+public record TransactionBatchEvent(
+        int schemaVersion,
+        String eventId,
+        List<AccountEvent> contas,
+        List<TransactionEvent> transacoes) implements CqrsEvent {
+
+    public TransactionBatchEvent {
+        contas = contas == null ? List.of() : List.copyOf(contas);
+        transacoes = transacoes == null ? List.of() : List.copyOf(transacoes);
+    }
+}
@@ -0,0 +1,34 @@
+package br.ufpr.account_events;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Movimentação gravada numa conta ({@code transaction.created}).
+ *
+ * {@code contaCpf} é o dono da conta movimentada e {@code sequence} a versão
+ * dessa conta depois da movimentação. {@code valor} tem sinal: negativo para
+ * saques e transferências enviadas.
+ *
+ * O {@code eventId} de uma transação gravada é derivado do id dela
+ * ({@link #eventIdFor(long)}): o evento publicado e o devolvido pela
+ * reprodução têm o mesmo id, e a projeção grava a transação uma vez só.
+ */
+public record TransactionEvent(
+        int schemaVersion,
+        String eventId,
+        long sequence,
+        Long id,
+        String contaCpf,
+        String tipo,
+        BigDecimal valor,
+        LocalDateTime dataHora,
+        String origemCpf,
+        String destinoCpf) implements CqrsEvent {
+
+    public static String eventIdFor(long transactionId) {
+        return UUID.nameUUIDFromBytes(("transaction:" + transactionId).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
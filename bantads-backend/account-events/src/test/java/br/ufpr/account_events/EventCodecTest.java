@@ -0,0 +1,58 @@
+package br.ufpr.account_events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class EventCodecTest {
+
+    private final EventCodec codec = new EventCodec();
+
+    private final AccountEvent account = new AccountEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, "e-1", 7L, 42L,
+            "12345678900", "12345678", new BigDecimal("0.10"), new BigDecimal("1234567890123.45"),
+            "98574307084", LocalDateTime.of(2025, 3, 10, 9, 30));
+
+    private final TransactionEvent transaction = new TransactionEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, "e-2", 7L,
+            99L, "12345678900", "TRANSFERENCIA_ENVIADA", new BigDecimal("-0.30"), LocalDateTime.of(2025, 3, 10, 9, 30),
+            "12345678900", "00000000001");
+
+    @ParameterizedTest
+    @ValueSource(strings = { EventCodec.JSON, EventCodec.SMILE })
+    void roundTripsEveryEventExactly(String contentType) {
+        TransactionBatchEvent batch = new TransactionBatchEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, "e-3",
+                List.of(account), List.of(transaction));
+
+        assertEquals(account, codec.decode(codec.encode(account, contentType), contentType, AccountEvent.class));
+        assertEquals(transaction,
+                codec.decode(codec.encode(transaction, contentType), contentType, TransactionEvent.class));
+        assertEquals(batch,
+                codec.decode(codec.encode(batch, contentType), contentType, TransactionBatchEvent.class));
+    }
+
+    @Test
+    void writesMoneyAsPlainDecimalsAndReadsLegacyPayloads() {
+        String body = new String(codec.encode(account, EventCodec.JSON), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"limite\":1234567890123.45"), body);
+
+        // Formato anterior, montado com HashMap: sem versão, id de evento nem sequência.
+        String legacy = "{\"id\":5,\"dataHora\":\"2025-01-01T10:00\",\"tipo\":\"depósito\",\"valor\":0.1,"
+                + "\"origemCpf\":\"12345678900\",\"destinoCpf\":null}";
+        TransactionEvent decoded = codec.decode(legacy.getBytes(StandardCharsets.UTF_8), "application/json",
+                TransactionEvent.class);
+        assertEquals(0, decoded.schemaVersion());
+        assertEquals(new BigDecimal("0.1"), decoded.valor());
+    }
+
+    @Test
+    void smileIsSmallerThanJson() {
+        assertTrue(codec.encode(account, EventCodec.SMILE).length < codec.encode(account, EventCodec.JSON).length);
+    }
+}
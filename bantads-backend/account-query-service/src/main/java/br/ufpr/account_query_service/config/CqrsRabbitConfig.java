@@ -1,14 +1,20 @@
 package br.ufpr.account_query_service.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import br.ufpr.account_events.EventCodec;
+
 @Configuration
 public class CqrsRabbitConfig {
 
@@ -30,6 +36,65 @@ public class CqrsRabbitConfig {
     @Value("${rabbit.transaction.created.key:transaction.created}")
     private String transactionCreatedKey;
 
+    @Value("${rabbit.transaction.created.retry.queue:transaction-created-retry-queue}")
+    private String transactionRetryQueue;
+
+    @Value("${rabbit.transaction.created.dlq:transaction-created-dlq}")
+    private String transactionDeadLetterQueue;
+
+    @Value("${cqrs.transaction.retry-delay-millis:5000}")
+    private int transactionRetryDelay;
+
+    @Value("${rabbit.transaction.batch.queue:transaction-batch-queue}")
+    private String transactionBatchQueue;
+
+    @Value("${rabbit.transaction.batch.retry.queue:transaction-batch-retry-queue}")
+    private String transactionBatchRetryQueue;
+
+    @Value("${rabbit.transaction.batch.dlq:transaction-batch-dlq}")
+    private String transactionBatchDeadLetterQueue;
+
+    @Value("${rabbit.transaction.batch.key:transaction.batch-created}")
+    private String transactionBatchKey;
+
+    @Value("${cqrs.transaction.batch-size:500}")
+    private int transactionBatchSize;
+
+    @Value("${cqrs.transaction.batch-receive-timeout-millis:100}")
+    private long transactionBatchReceiveTimeout;
+
+    @Value("${cqrs.transaction.concurrency:1}")
+    private int transactionConcurrency;
+
+    /** Lê os eventos CQRS (contratos do módulo account-events) em JSON ou Smile. */
+    @Bean
+    public EventCodec eventCodec() {
+        return new EventCodec();
+    }
+
+    /**
+     * Container da fila de transações: entrega ao listener até
+     * {@code cqrs.transaction.batch-size} mensagens, ou o que chegou até a fila
+     * ficar {@code cqrs.transaction.batch-receive-timeout-millis} sem mensagem
+     * nova. O listener confirma ou rejeita cada mensagem ({@code MANUAL}). Como a
+     * projeção descarta repetidas e trava as contas, dá para subir
+     * {@code cqrs.transaction.concurrency}.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory transactionBatchContainerFactory(ConnectionFactory connectionFactory,
+            SimpleRabbitListenerContainerFactoryConfigurer configurer) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(transactionBatchSize);
+        factory.setPrefetchCount(transactionBatchSize);
+        factory.setReceiveTimeout(transactionBatchReceiveTimeout);
+        factory.setConcurrentConsumers(transactionConcurrency);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        return factory;
+    }
+
     @Bean
     public TopicExchange accountEventsExchange() {
         return new TopicExchange(accountEventsExchange, true, false);
@@ -45,9 +110,57 @@ public class CqrsRabbitConfig {
         return QueueBuilder.durable(accountUpdateQueue).build();
     }
 
+    /** Transações rejeitadas (conta ainda não projetada) vão para a fila de espera. */
     @Bean
     public Queue transactionCreatedQueue() {
-        return QueueBuilder.durable(transactionCreatedQueue).build();
+        return QueueBuilder.durable(transactionCreatedQueue)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(transactionRetryQueue)
+                .build();
+    }
+
+    /**
+     * Sem consumidor: cada mensagem expira depois de
+     * {@code cqrs.transaction.retry-delay-millis} e volta para a fila de transações.
+     */
+    @Bean
+    public Queue transactionRetryQueue() {
+        return QueueBuilder.durable(transactionRetryQueue)
+                .ttl(transactionRetryDelay)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(transactionCreatedQueue)
+                .build();
+    }
+
+    /** Transações ilegíveis ou que esgotaram {@code cqrs.transaction.max-retries}. */
+    @Bean
+    public Queue transactionDeadLetterQueue() {
+        return QueueBuilder.durable(transactionDeadLetterQueue).build();
+    }
+
+    /** Lotes rejeitados (conta ainda não projetada ou falha ao gravar) vão para a fila de espera. */
+    @Bean
+    public Queue transactionBatchQueue() {
+        return QueueBuilder.durable(transactionBatchQueue)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(transactionBatchRetryQueue)
+                .build();
+    }
+
+    /** Como {@link #transactionRetryQueue()}, para os lotes de transferências. */
+    @Bean
+    public Queue transactionBatchRetryQueue() {
+        return QueueBuilder.durable(transactionBatchRetryQueue)
+                .ttl(transactionRetryDelay)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(transactionBatchQueue)
+                .build();
+    }
+
+    /** Lotes ilegíveis ou que esgotaram {@code cqrs.transaction.max-retries}. */
+    @Bean
+    public Queue transactionBatchDeadLetterQueue() {
+        return QueueBuilder.durable(transactionBatchDeadLetterQueue).build();
     }
 
     @Bean
@@ -66,4 +179,9 @@ public class CqrsRabbitConfig {
         // CORREÇÃO: Fixar "transaction.created" para garantir match exato com o produtor
         return BindingBuilder.bind(transactionCreatedQueue).to(accountEventsExchange).with("transaction.created");
     }
+
+    @Bean
+    public Binding bindTransactionBatch(Queue transactionBatchQueue, TopicExchange accountEventsExchange) {
+        return BindingBuilder.bind(transactionBatchQueue).to(accountEventsExchange).with(transactionBatchKey);
+    }
 }
@@ -0,0 +1,47 @@
+package br.ufpr.account_query_service.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ufpr.account_query_service.repository.DailyBalanceRepository;
+import br.ufpr.account_query_service.repository.TransactionViewRepository;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Num banco que já tinha transações antes de daily_balance existir, preenche
+ * a tabela uma vez a partir de transaction_view. Depois disso ela é mantida
+ * pelo consumidor a cada transação recebida.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class DailyBalanceBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyBalanceBackfill.class);
+
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+    @Autowired
+    private TransactionViewRepository transactionViewRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            Integer rebuilt = transactionTemplate.execute(status -> {
+                if (dailyBalanceRepository.count() > 0 || transactionViewRepository.count() == 0)
+                    return 0;
+                return dailyBalanceRepository.rebuildFromTransactions();
+            });
+            if (rebuilt != null && rebuilt > 0) {
+                log.info("daily_balance preenchida com {} dias", rebuilt);
+            }
+        } catch (Exception ex) {
+            log.error("Falha ao preencher daily_balance", ex);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package br.ufpr.account_query_service.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * transaction_view usava IDENTITY. Num banco que já tem linhas, a sequence
+ * nova começaria em 1 e colidiria com os ids existentes; antes do primeiro
+ * INSERT, avança a sequence para depois do maior id da tabela. Só age no
+ * PostgreSQL.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenceAligner {
+
+    private static final String[][] SEQUENCES = {
+            { "account_query_schema.transaction_view_seq", "account_query_schema.transaction_view" } };
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PostConstruct
+    public void align() {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()))
+                return;
+            for (String[] sequence : SEQUENCES) {
+                // O otimizador pooled trata o valor da sequence como o topo do bloco
+                // reservado, então o próximo bloco precisa começar acima do maior id.
+                String sql = "SELECT setval('" + sequence[0] + "', GREATEST("
+                        + "(SELECT COALESCE(MAX(id), 0) FROM " + sequence[1] + ") + 50, "
+                        + "(SELECT last_value FROM " + sequence[0] + ")))";
+                try (ResultSet rs = statement.executeQuery(sql)) {
+                    rs.next();
+                }
+            }
+        } catch (Exception ex) {
+            System.err.println("Falha ao alinhar sequences com os ids existentes: " + ex.getMessage());
+        }
+    }
+}
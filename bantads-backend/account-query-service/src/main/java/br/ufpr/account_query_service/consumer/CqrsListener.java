@@ -1,158 +1,302 @@
 package br.ufpr.account_query_service.consumer;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
 
-import br.ufpr.account_query_service.dto.TransactionMessageDTO;
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_events.EventCodec;
+import br.ufpr.account_events.TransactionBatchEvent;
+import br.ufpr.account_events.TransactionEvent;
 import br.ufpr.account_query_service.model.AccountView;
 import br.ufpr.account_query_service.model.TransactionView;
-import br.ufpr.account_query_service.repository.AccountViewRepository;
-import br.ufpr.account_query_service.repository.TransactionViewRepository;
+import br.ufpr.account_query_service.service.AccountIdentityCache;
+import br.ufpr.account_query_service.service.AccountIdentityCache.Identity;
+import br.ufpr.account_query_service.service.AccountViewProjection;
+import br.ufpr.account_query_service.service.DailyBalanceProjection;
 
 @Component
 public class CqrsListener {
 
+    private static final Logger log = LoggerFactory.getLogger(CqrsListener.class);
+
+    @Autowired
+    private AccountViewProjection accountViewProjection;
+
     @Autowired
-    private AccountViewRepository accountViewRepository;
+    private DailyBalanceProjection dailyBalanceProjection;
 
     @Autowired
-    private TransactionViewRepository transactionViewRepository;
+    private AccountIdentityCache identityCache;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private EventCodec eventCodec;
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    @Value("${rabbit.transaction.created.dlq:transaction-created-dlq}")
+    private String transactionDeadLetterQueue;
+
+    @Value("${rabbit.transaction.batch.dlq:transaction-batch-dlq}")
+    private String transactionBatchDeadLetterQueue;
+
+    @Value("${cqrs.transaction.max-retries:10}")
+    private long maxRetries;
 
     @RabbitListener(queues = "account-update-queue")
     public void onAccountUpdate(Message message) {
         try {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> payload = objectMapper.readValue(message.getBody(), Map.class);
-
-            String clientCpf = (String) payload.get("clientCpf");
-            String numero = (String) payload.get("numero");
-            Object saldoObj = payload.get("saldo");
-            Object limiteObj = payload.get("limite");
-            String managerCpf = (String) payload.get("managerCpf");
-            Object dataCriacaoObj = payload.get("dataCriacao");
+            AccountEvent event = decode(message, AccountEvent.class);
+            applyAccountUpdate(event, message.getMessageProperties().getReceivedRoutingKey());
+        } catch (Exception e) {
+            log.error("Error processing account update {}", message.getMessageProperties().getMessageId(), e);
+        }
+    }
 
-            Optional<AccountView> existing = accountViewRepository.findByClientId(clientCpf);
-            AccountView view = existing.orElse(new AccountView());
+    private <T> T decode(Message message, Class<T> type) {
+        return eventCodec.decode(message.getBody(), message.getMessageProperties().getContentType(), type);
+    }
 
-            view.setClientId(clientCpf);
-            view.setAccountNumber(numero);
+    private void applyAccountUpdate(AccountEvent event, String routingKey) {
+        String clientCpf = event.clientCpf();
 
-            if (saldoObj != null) {
-                view.setBalance(
-                        saldoObj instanceof BigDecimal ? (BigDecimal) saldoObj : new BigDecimal(saldoObj.toString()));
+        // Conta removida pela compensação de uma aprovação que não terminou.
+        if ("account.deleted".equals(routingKey)) {
+            if (accountViewProjection.delete(event)) {
+                identityCache.evict(clientCpf);
+                log.info("Account view removed: {}", clientCpf);
+            } else {
+                log.debug("Stale account event skipped: {} seq {}", clientCpf, event.sequence());
             }
+            return;
+        }
+
+        AccountView view = accountViewProjection.apply(event);
+        if (view == null) {
+            log.debug("Stale account event skipped: {} seq {}", clientCpf, event.sequence());
+            return;
+        }
+        identityCache.put(view);
+        log.debug("Account view saved/updated: {}", view.getClientId());
+    }
 
-            if (limiteObj != null) {
-                view.setLimit(
-                        limiteObj instanceof BigDecimal ? (BigDecimal) limiteObj
-                                : new BigDecimal(limiteObj.toString()));
+    /**
+     * Consome a fila em lotes (até {@code cqrs.transaction.batch-size} mensagens
+     * ou o tempo de espera do container): as contas são lidas numa consulta só
+     * e as transações gravadas numa transação. A confirmação é por mensagem:
+     * uma transação cuja conta ainda não chegou é rejeitada sozinha e vai para
+     * a fila de espera, que a devolve depois de
+     * {@code cqrs.transaction.retry-delay-millis}; as demais são confirmadas.
+     * Passadas {@code cqrs.transaction.max-retries} rejeições, ou se o corpo não
+     * puder ser lido, a mensagem vai para a fila de mensagens mortas.
+     */
+    @RabbitListener(queues = "transaction-created-queue", containerFactory = "transactionBatchContainerFactory")
+    public void onTransactions(List<Message> messages, Channel channel) throws IOException {
+        List<TransactionEvent> events = new ArrayList<>(messages.size());
+        List<Message> decoded = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                events.add(decode(message, TransactionEvent.class));
+                decoded.add(message);
+            } catch (Exception e) {
+                log.error("Error decoding transaction event {}", message.getMessageProperties().getMessageId(), e);
+                deadLetter(message, channel);
             }
+        }
 
-            if (managerCpf != null) {
-                view.setManagerId(managerCpf);
+        Applied applied;
+        try {
+            applied = applyTransactions(events);
+        } catch (RuntimeException ex) {
+            // Falha ao gravar: nada do lote foi confirmado, tudo volta para a fila.
+            log.error("Error recording transaction batch", ex);
+            for (Message message : decoded) {
+                channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, true);
             }
+            return;
+        }
 
-            if (dataCriacaoObj != null) {
-                if (dataCriacaoObj instanceof String) {
-                    try {
-                        view.setCreationDate(LocalDateTime.parse((String) dataCriacaoObj));
-                    } catch (Exception e) {
-                        System.err.println("Erro parse data: " + e.getMessage());
-                    }
-                } else if (dataCriacaoObj instanceof Date) {
-                    view.setCreationDate(((Date) dataCriacaoObj).toInstant()
-                            .atZone(ZoneId.systemDefault()).toLocalDateTime());
-                }
+        for (int i = 0; i < decoded.size(); i++) {
+            Message message = decoded.get(i);
+            long tag = message.getMessageProperties().getDeliveryTag();
+            if (!applied.pending().contains(i)) {
+                channel.basicAck(tag, false);
+            } else if (rejections(message) >= maxRetries) {
+                log.error("CQRS: Giving up on transaction {} after {} retries", events.get(i).eventId(), maxRetries);
+                deadLetter(message, channel);
+            } else {
+                // Vai para a fila de espera pelo dead-letter exchange da fila.
+                channel.basicReject(tag, false);
             }
+        }
+        log.info("CQRS: {} of {} transactions applied, {} waiting for their account", applied.recorded(),
+                events.size(), applied.pending().size());
+    }
 
-            accountViewRepository.save(view);
-            System.out.println("Account view saved/updated: " + view.getClientId());
+    /** Rejeições desta mensagem na fila de onde veio, contadas pelo RabbitMQ no x-death. */
+    private long rejections(Message message) {
+        List<Map<String, ?>> deaths = message.getMessageProperties().getXDeathHeader();
+        if (deaths == null)
+            return 0;
+        String queue = message.getMessageProperties().getConsumerQueue();
+        return deaths.stream()
+                .filter(d -> "rejected".equals(d.get("reason")) && (queue == null || queue.equals(d.get("queue"))))
+                .mapToLong(d -> d.get("count") instanceof Number n ? n.longValue() : 0)
+                .sum();
+    }
+
+    private void deadLetter(Message message, Channel channel) throws IOException {
+        rabbitTemplate.send("", transactionDeadLetterQueue, message);
+        channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+    }
+
+    /**
+     * Lote de transferências gravado numa única transação do account-service:
+     * primeiro as contas envolvidas, depois as movimentações, na ordem.
+     *
+     * Um lote com transação sem conta, ou que falhou ao gravar, é rejeitado sem
+     * voltar para a fila: vai para a fila de espera e retorna depois de
+     * {@code cqrs.transaction.retry-delay-millis}, como as transações avulsas.
+     * Lotes ilegíveis ou que esgotaram {@code cqrs.transaction.max-retries} vão
+     * para a fila de mensagens mortas.
+     */
+    @RabbitListener(queues = "${rabbit.transaction.batch.queue:transaction-batch-queue}")
+    public void onTransactionBatch(Message message) {
+        TransactionBatchEvent batch;
+        try {
+            batch = decode(message, TransactionBatchEvent.class);
         } catch (Exception e) {
-            System.err.println("Error processing account update: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error decoding transaction batch {}", message.getMessageProperties().getMessageId(), e);
+            rabbitTemplate.send("", transactionBatchDeadLetterQueue, message);
+            return;
         }
-    }
 
-    @RabbitListener(queues = "transaction-created-queue")
-    public void onTransaction(Message message) {
+        Applied applied;
         try {
-            Map<String, Object> payload = objectMapper.readValue(message.getBody(), Map.class);
-            System.out.println(">>> DEBUG Payload JSON: " + payload.toString());
+            for (AccountEvent account : batch.contas()) {
+                applyAccountUpdate(account, "account.updated");
+            }
+            applied = applyTransactions(batch.transacoes());
+        } catch (RuntimeException ex) {
+            log.error("Error recording transaction batch {}", batch.eventId(), ex);
+            retryLater(message, batch, "batch could not be recorded");
+            return;
+        }
+        if (!applied.pending().isEmpty()) {
+            // As gravadas são descartadas como repetidas na reentrega.
+            retryLater(message, batch, applied.pending().size() + " batch transactions without account");
+            return;
+        }
+        log.info("CQRS: Batch applied with {} of {} transactions", applied.recorded(), batch.transacoes().size());
+    }
 
-            TransactionMessageDTO txDto = objectMapper.readValue(message.getBody(), TransactionMessageDTO.class);
-            
-            txDto.setCreationDate(payload.get("dataHora") != null
-                    ? LocalDateTime.parse(payload.get("dataHora").toString())
-                    : null);
+    private void retryLater(Message message, TransactionBatchEvent batch, String reason) {
+        if (rejections(message) >= maxRetries) {
+            log.error("CQRS: Giving up on transaction batch {} after {} retries: {}", batch.eventId(), maxRetries,
+                    reason);
+            rabbitTemplate.send("", transactionBatchDeadLetterQueue, message);
+            return;
+        }
+        // Vai para a fila de espera pelo dead-letter exchange da fila.
+        throw new AmqpRejectAndDontRequeueException("CQRS: " + reason + ". Retrying...");
+    }
 
-            txDto.setAccountId(payload.get("id") != null
-                    ? payload.get("id").toString()
-                    : null);
-            
-            TransactionView txView = new TransactionView();
+    /** Transações gravadas e posições das que ficaram esperando a conta. */
+    private record Applied(int recorded, Set<Integer> pending) {
+    }
 
-            System.out.println(">>> DEBUG TransactionMessageDTO JSON: " + objectMapper.writeValueAsString(txDto));
+    /**
+     * Grava as transações cuja conta já está na projeção; repetidas são
+     * ignoradas. As demais voltam em {@link Applied#pending()}.
+     */
+    private Applied applyTransactions(List<TransactionEvent> events) {
+        Set<String> cpfs = new HashSet<>();
+        for (TransactionEvent event : events) {
+            addIfPresent(cpfs, ownerCpf(event));
+            addIfPresent(cpfs, event.origemCpf());
+            addIfPresent(cpfs, event.destinoCpf());
+        }
+        Map<String, Identity> accounts = identityCache.getAll(cpfs);
 
-            if (txDto.getCreationDate() != null) {
-                txView.setTimestamp(txDto.getCreationDate().withNano(0));
-            } else {
-                txView.setTimestamp(LocalDateTime.now().withNano(0));
+        List<TransactionView> views = new ArrayList<>(events.size());
+        Set<Integer> pending = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            TransactionEvent event = events.get(i);
+            String cpfDaConta = ownerCpf(event);
+            if (cpfDaConta == null) {
+                log.warn("CQRS: Owner CPF is null for transaction type {}", event.tipo());
+                continue;
+            }
+            Identity owner = accounts.get(cpfDaConta);
+            if (owner == null) {
+                log.warn("CQRS: Account not found for CPF {}. Event might have arrived before Account creation. "
+                        + "Retrying...", cpfDaConta);
+                pending.add(i);
+                continue;
             }
+            views.add(toView(event, owner, accounts));
+        }
+        try {
+            return new Applied(dailyBalanceProjection.recordAll(views), pending);
+        } catch (RuntimeException ex) {
+            // Uma conta do cache pode ter sido removida ou recriada; a nova
+            // tentativa do lote volta a resolver os CPFs pelo banco.
+            identityCache.evictAll(cpfs);
+            throw ex;
+        }
+    }
 
-            txView.setType(txDto.getTipo());
-            txView.setAmount(BigDecimal.valueOf(txDto.getValor()));
+    private TransactionView toView(TransactionEvent event, Identity owner, Map<String, Identity> accounts) {
+        TransactionView txView = new TransactionView();
 
-            String accountNumberOrigin = accountViewRepository.findByClientId(txDto.getOrigemCpf())
-                    .map(AccountView::getAccountNumber)
-                    .orElse(null);
-            String accountNumberDestino = accountViewRepository.findByClientId(txDto.getDestinoCpf())
-                    .map(AccountView::getAccountNumber)
-                    .orElse(null);
+        if (event.dataHora() != null) {
+            txView.setTimestamp(event.dataHora().withNano(0));
+        } else {
+            txView.setTimestamp(LocalDateTime.now().withNano(0));
+        }
 
-            txView.setOriginClientId(accountNumberOrigin);
-            txView.setDestinationClientId(accountNumberDestino);
+        txView.setType(event.tipo());
+        txView.setAmount(event.valor());
+        txView.setOriginClientId(accountNumber(accounts, event.origemCpf()));
+        txView.setDestinationClientId(accountNumber(accounts, event.destinoCpf()));
+        txView.setAccountId(owner.accountId());
+        txView.setEventId(event.eventId());
+        return txView;
+    }
 
-            String cpfDaConta = txDto.getOrigemCpf();
+    /** Eventos anteriores ao contaCpf só dizem o dono pelo tipo da movimentação. */
+    private String ownerCpf(TransactionEvent event) {
+        if (event.contaCpf() != null)
+            return event.contaCpf();
+        if ("DEPOSITO".equals(event.tipo()) || "TRANSFERENCIA_RECEBIDA".equals(event.tipo()))
+            return event.destinoCpf();
+        return event.origemCpf();
+    }
 
-            if ("DEPOSITO".equals(txDto.getTipo()) || "TRANSFERENCIA_RECEBIDA".equals(txDto.getTipo())) {
-                cpfDaConta = txDto.getDestinoCpf();
-            }
+    private String accountNumber(Map<String, Identity> accounts, String cpf) {
+        Identity account = cpf != null ? accounts.get(cpf) : null;
+        return account != null ? account.accountNumber() : null;
+    }
 
-            if (cpfDaConta != null) {
-                Optional<AccountView> accountViewOpt = accountViewRepository.findByClientId(cpfDaConta);
-
-                if (accountViewOpt.isPresent()) {
-                    txView.setAccountId(accountViewOpt.get().getId());
-                    transactionViewRepository.save(txView);
-                    System.out.println("CQRS: Transaction saved for account CPF: " + cpfDaConta);
-                } else {
-                    String msg = "CQRS: Account not found for CPF " + cpfDaConta
-                            + ". Event might have arrived before Account creation. Retrying...";
-                    System.err.println(msg);
-                    throw new RuntimeException(msg);
-                }
-            } else {
-                System.err.println("CQRS: Owner CPF is null for transaction type " + txDto.getTipo());
-            }
-        } catch (RuntimeException re) {
-            throw re;
-        } catch (Exception e) {
-            System.err.println("Error saving transaction view: " + e.getMessage());
-            e.printStackTrace();
-        }
+    private void addIfPresent(Set<String> cpfs, String cpf) {
+        if (cpf != null)
+            cpfs.add(cpf);
     }
-}
\ No newline at end of file
+}
@@ -2,12 +2,16 @@ package br.ufpr.account_query_service.controller;
 
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import br.ufpr.account_query_service.dto.DailyBalanceDTO;
 import br.ufpr.account_query_service.dto.ManagerSummaryDTO;
+import br.ufpr.account_query_service.dto.RebuildStatusDTO;
 import br.ufpr.account_query_service.model.AccountView;
 import br.ufpr.account_query_service.service.AccountQueryService;
+import br.ufpr.account_query_service.service.ProjectionRebuild;
 import br.ufpr.account_query_service.repository.AccountViewRepository;
 
 import java.util.stream.Collectors;
@@ -20,6 +24,8 @@ public class AccountQueryController {
     private AccountQueryService accountQueryService;
     @Autowired
     private AccountViewRepository accountViewRepository;
+    @Autowired
+    private ProjectionRebuild projectionRebuild;
 
     @GetMapping("/contas/{numero}/extrato")
     public ResponseEntity<List<DailyBalanceDTO>> getExtrato(
@@ -77,4 +83,21 @@ public class AccountQueryController {
         accountQueryService.rebuildAccountViews();
         return ResponseEntity.ok("Account views rebuild initiated.");
     }
+
+    /**
+     * Reconstrói a projeção a partir do account-service, em segundo plano; as
+     * consultas seguem respondendo com a projeção atual até a troca.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<RebuildStatusDTO> rebuildProjection() {
+        if (!projectionRebuild.start()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Já existe uma reconstrução em andamento.");
+        }
+        return ResponseEntity.accepted().body(projectionRebuild.status());
+    }
+
+    @GetMapping("/rebuild")
+    public ResponseEntity<RebuildStatusDTO> getRebuildStatus() {
+        return ResponseEntity.ok(projectionRebuild.status());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package br.ufpr.account_query_service.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RebuildStatusDTO {
+    private String estado;
+    private long contas;
+    private long transacoes;
+    private LocalDateTime inicio;
+    private LocalDateTime fim;
+    private double segundos;
+    private double transacoesPorSegundo;
+    private String erro;
+}
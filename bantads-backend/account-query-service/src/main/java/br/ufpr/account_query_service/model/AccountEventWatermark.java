@@ -0,0 +1,21 @@
+package br.ufpr.account_query_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Maior sequência de evento já aplicada a cada conta, pelo id da conta no
+ * account-service. Fica numa tabela própria para sobreviver à remoção da
+ * {@link AccountView}: um evento atrasado de uma conta removida não a recria.
+ */
+@Entity
+@Table(name = "account_event_watermark", schema = "account_query_schema")
+@Data
+public class AccountEventWatermark {
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+}
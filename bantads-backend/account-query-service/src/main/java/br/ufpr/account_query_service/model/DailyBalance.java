@@ -0,0 +1,33 @@
+package br.ufpr.account_query_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Saldo de fechamento de uma conta num dia com movimentação. Dias sem linha
+ * mantêm o saldo do dia anterior com linha. Mantido por
+ * {@code DailyBalanceProjection} a cada transação recebida.
+ */
+@Entity
+@Table(name = "daily_balance", schema = "account_query_schema", uniqueConstraints = @UniqueConstraint(
+        name = "uk_daily_balance_account_date", columnNames = { "account_id", "balance_date" }))
+@Data
+public class DailyBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "balance_date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "closing_balance", nullable = false)
+    private BigDecimal closingBalance;
+
+    @Column(name = "tx_count", nullable = false)
+    private long txCount;
+}
@@ -6,11 +6,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transaction_view", schema = "account_query_schema")
+@Table(name = "transaction_view", schema = "account_query_schema", indexes = {
+        @Index(name = "idx_transaction_view_account_timestamp", columnList = "account_id, timestamp") })
 @Data
 public class TransactionView {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_view_seq")
+    @SequenceGenerator(name = "transaction_view_seq", sequenceName = "transaction_view_seq",
+            schema = "account_query_schema", allocationSize = 50)
     private Long id;
 
     @Column(name = "account_id")
@@ -21,4 +24,8 @@ public class TransactionView {
     private BigDecimal amount;
     private String originClientId;
     private String destinationClientId;
+
+    /** Id do evento que gerou a linha; reentregas do mesmo evento são ignoradas. */
+    @Column(name = "event_id", unique = true, length = 36)
+    private String eventId;
 }
\ No newline at end of file
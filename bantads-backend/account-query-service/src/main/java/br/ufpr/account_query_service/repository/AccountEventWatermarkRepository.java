@@ -0,0 +1,31 @@
+package br.ufpr.account_query_service.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ufpr.account_query_service.model.AccountEventWatermark;
+
+public interface AccountEventWatermarkRepository extends JpaRepository<AccountEventWatermark, Long> {
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO account_query_schema.account_event_watermark (account_id, last_sequence)
+        VALUES (:accountId, :sequence)
+        ON CONFLICT DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("accountId") Long accountId, @Param("sequence") long sequence);
+
+    /** Avança a marca só se a sequência for maior; a linha fica travada até o commit. */
+    @Modifying
+    @Query(value = """
+        UPDATE account_query_schema.account_event_watermark SET last_sequence = :sequence
+        WHERE account_id = :accountId AND last_sequence < :sequence
+    """, nativeQuery = true)
+    int advance(@Param("accountId") Long accountId, @Param("sequence") long sequence);
+
+    @Modifying
+    @Query(value = "DELETE FROM account_query_schema.account_event_watermark", nativeQuery = true)
+    int clear();
+}
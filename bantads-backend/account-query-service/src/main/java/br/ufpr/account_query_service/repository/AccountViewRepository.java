@@ -1,13 +1,16 @@
 package br.ufpr.account_query_service.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import br.ufpr.account_query_service.model.AccountView;
+import jakarta.persistence.LockModeType;
 
 public interface AccountViewRepository extends JpaRepository<AccountView, Long> {
 
@@ -15,6 +18,17 @@ public interface AccountViewRepository extends JpaRepository<AccountView, Long>
 
         Optional<AccountView> findByAccountNumber(String accountNumber);
 
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT a FROM AccountView a WHERE a.id = :id")
+        Optional<AccountView> findByIdForUpdate(@Param("id") Long id);
+
+        /** Trava as contas em ordem de id, para lotes concorrentes não se bloquearem em ciclo. */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT a FROM AccountView a WHERE a.id IN :ids ORDER BY a.id")
+        List<AccountView> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+        List<AccountView> findByClientIdIn(Collection<String> clientIds);
+
         @Query(value = "SELECT manager_id as managerId, COUNT(*) as qtd, "
                         + "SUM(CASE WHEN balance >= 0 THEN balance ELSE 0 END) as totalPositivo, "
                         + "SUM(CASE WHEN balance < 0 THEN balance ELSE 0 END) as totalNegativo "
@@ -0,0 +1,77 @@
+package br.ufpr.account_query_service.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import br.ufpr.account_query_service.model.DailyBalance;
+
+public interface DailyBalanceRepository extends JpaRepository<DailyBalance, Long> {
+
+    /** Último fechamento antes de {@code date}: o saldo de abertura do dia. */
+    Optional<DailyBalance> findFirstByAccountIdAndDateLessThanOrderByDateDesc(Long accountId, LocalDate date);
+
+    List<DailyBalance> findByAccountIdAndDateBetweenOrderByDateAsc(Long accountId, LocalDate start, LocalDate end);
+
+    /** Dias já existentes das contas no intervalo, como pares (conta, dia). */
+    @Query("""
+        SELECT d.accountId, d.date FROM DailyBalance d
+        WHERE d.accountId IN :accountIds AND d.date BETWEEN :start AND :end
+    """)
+    List<Object[]> findDays(@Param("accountIds") Collection<Long> accountIds, @Param("start") LocalDate start,
+            @Param("end") LocalDate end);
+
+    /** Cria o dia com o fechamento do dia anterior com linha, sem movimentações. */
+    @Modifying
+    @Query(value = """
+        INSERT INTO account_query_schema.daily_balance (account_id, balance_date, closing_balance, tx_count)
+        VALUES (:accountId, :date, COALESCE((
+            SELECT d.closing_balance FROM account_query_schema.daily_balance d
+            WHERE d.account_id = :accountId AND d.balance_date < :date
+            ORDER BY d.balance_date DESC LIMIT 1), 0), 0)
+        ON CONFLICT DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("accountId") Long accountId, @Param("date") LocalDate date);
+
+    /**
+     * Soma as {@code count} transações do dia ao fechamento do dia e de todos os
+     * dias seguintes; uma transação atrasada corrige os fechamentos já gravados
+     * depois dela.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE account_query_schema.daily_balance
+        SET closing_balance = closing_balance + :amount,
+            tx_count = tx_count + CASE WHEN balance_date = :date THEN :count ELSE 0 END
+        WHERE account_id = :accountId AND balance_date >= :date
+    """, nativeQuery = true)
+    int addFrom(@Param("accountId") Long accountId, @Param("date") LocalDate date,
+            @Param("amount") BigDecimal amount, @Param("count") long count);
+
+    @Modifying
+    @Query(value = "DELETE FROM account_query_schema.daily_balance", nativeQuery = true)
+    int clear();
+
+    /** Recalcula a tabela a partir das transações; usado na primeira subida. */
+    @Modifying
+    @Query(value = """
+        INSERT INTO account_query_schema.daily_balance (account_id, balance_date, closing_balance, tx_count)
+        SELECT account_id, tx_date,
+               SUM(day_total) OVER (PARTITION BY account_id ORDER BY tx_date),
+               day_count
+        FROM (
+            SELECT account_id, CAST(timestamp AS DATE) AS tx_date, SUM(amount) AS day_total, COUNT(*) AS day_count
+            FROM account_query_schema.transaction_view
+            WHERE account_id IS NOT NULL
+            GROUP BY account_id, CAST(timestamp AS DATE)
+        ) days
+    """, nativeQuery = true)
+    int rebuildFromTransactions();
+}
@@ -0,0 +1,199 @@
+package br.ufpr.account_query_service.repository;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Esquema paralelo onde a reconstrução grava a projeção inteira enquanto as
+ * consultas seguem lendo {@value #LIVE}.
+ *
+ * As tabelas nascem como cópias vazias das atuais, sem índices nem
+ * restrições, para a carga em lote ser só INSERT. Depois da carga,
+ * {@link #index(String)} recria NOT NULL, identidade, chave primária,
+ * restrições únicas e índices com os nomes lidos dos metadados das tabelas
+ * atuais, e {@link #swap()} troca os esquemas por renomeação.
+ */
+@Repository
+public class ShadowSchema {
+
+    public static final String LIVE = "account_query_schema";
+    public static final String SHADOW = "account_query_rebuild";
+    private static final String RETIRED = "account_query_retired";
+
+    /** Tabelas da projeção; a troca recusa um esquema atual com outras tabelas. */
+    public static final List<String> TABLES = List.of(
+            "account_view", "transaction_view", "daily_balance", "account_event_watermark");
+
+    /** Sequence pooled, tabela cujos ids ela gera e incremento (allocationSize). */
+    private static final String[][] SEQUENCES = { { "transaction_view_seq", "transaction_view", "50" } };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** Recria o esquema paralelo com as tabelas vazias. */
+    public void create() {
+        drop();
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + RETIRED + " CASCADE");
+        jdbcTemplate.execute("CREATE SCHEMA " + SHADOW);
+        for (String table : TABLES) {
+            jdbcTemplate.execute("CREATE TABLE " + SHADOW + "." + table
+                    + " AS SELECT * FROM " + LIVE + "." + table + " WITH NO DATA");
+        }
+    }
+
+    public void drop() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SHADOW + " CASCADE");
+    }
+
+    /**
+     * Próximo valor da sequence no esquema atual. Os valores que o Hibernate
+     * já reservou são todos menores, então ids a partir daqui não colidem com
+     * os que ele ainda vai usar depois da troca.
+     */
+    public long nextLiveValue(String sequence) {
+        return jdbcTemplate.queryForObject("SELECT nextval('" + LIVE + "." + sequence + "')", Long.class);
+    }
+
+    /** Recria na cópia de {@code table} as restrições e os índices da tabela atual. */
+    public void index(String table) {
+        List<String> statements = jdbcTemplate.execute((ConnectionCallback<List<String>>) c -> indexStatements(c, table));
+        for (String sql : statements) {
+            jdbcTemplate.execute(sql);
+        }
+    }
+
+    /**
+     * Cria as sequences do esquema paralelo acima do maior id carregado e do
+     * valor atual da sequence em uso.
+     */
+    public void createSequences() {
+        for (String[] sequence : SEQUENCES) {
+            long increment = Long.parseLong(sequence[2]);
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(id), 0) FROM " + SHADOW + "." + sequence[1], Long.class);
+            long start = Math.max(maxId, nextLiveValue(sequence[0])) + increment;
+            jdbcTemplate.execute("CREATE SEQUENCE " + SHADOW + "." + sequence[0]
+                    + " START WITH " + start + " INCREMENT BY " + increment);
+        }
+    }
+
+    /**
+     * Põe o esquema paralelo no lugar do atual. No PostgreSQL as duas
+     * renomeações são uma transação só: as consultas veem a projeção antiga
+     * ou a nova, nunca uma mistura.
+     */
+    public void swap() {
+        Set<String> unknown = jdbcTemplate.execute((ConnectionCallback<Set<String>>) this::unknownLiveTables);
+        if (!unknown.isEmpty()) {
+            throw new IllegalStateException("Tabelas fora da reconstrução em " + LIVE + ": " + unknown);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER SCHEMA " + LIVE + " RENAME TO " + RETIRED);
+            jdbcTemplate.execute("ALTER SCHEMA " + SHADOW + " RENAME TO " + LIVE);
+        });
+        jdbcTemplate.execute("DROP SCHEMA " + RETIRED + " CASCADE");
+    }
+
+    private List<String> indexStatements(Connection connection, String table) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        String schema = identifier(meta, LIVE);
+        String tableName = identifier(meta, table);
+        String target = SHADOW + "." + table;
+        boolean postgres = "PostgreSQL".equals(meta.getDatabaseProductName());
+        List<String> statements = new ArrayList<>();
+
+        try (ResultSet rs = meta.getColumns(null, schema, tableName, null)) {
+            while (rs.next()) {
+                String column = quote(rs.getString("COLUMN_NAME"));
+                if ("NO".equals(rs.getString("IS_NULLABLE"))) {
+                    statements.add("ALTER TABLE " + target + " ALTER COLUMN " + column + " SET NOT NULL");
+                }
+                if ("YES".equals(rs.getString("IS_AUTOINCREMENT"))) {
+                    Long next = jdbcTemplate.queryForObject(
+                            "SELECT COALESCE(MAX(" + column + "), 0) + 1 FROM " + target, Long.class);
+                    // O H2 não tem ADD GENERATED; redefine a coluna com a identidade.
+                    String identity = postgres ? "ADD" : rs.getString("TYPE_NAME");
+                    statements.add("ALTER TABLE " + target + " ALTER COLUMN " + column + " " + identity
+                            + " GENERATED BY DEFAULT AS IDENTITY (START WITH " + next + ")");
+                }
+            }
+        }
+
+        String primaryKeyName = null;
+        TreeMap<Short, String> primaryKey = new TreeMap<>();
+        try (ResultSet rs = meta.getPrimaryKeys(null, schema, tableName)) {
+            while (rs.next()) {
+                primaryKeyName = rs.getString("PK_NAME");
+                primaryKey.put(rs.getShort("KEY_SEQ"), quote(rs.getString("COLUMN_NAME")));
+            }
+        }
+        if (primaryKeyName != null) {
+            statements.add("ALTER TABLE " + target + " ADD CONSTRAINT " + quote(primaryKeyName)
+                    + " PRIMARY KEY (" + String.join(", ", primaryKey.values()) + ")");
+        }
+
+        Map<String, TreeMap<Short, String>> indexColumns = new LinkedHashMap<>();
+        Set<String> uniqueIndexes = new HashSet<>();
+        try (ResultSet rs = meta.getIndexInfo(null, schema, tableName, false, true)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                if (name == null || rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic)
+                    continue;
+                indexColumns.computeIfAbsent(name, n -> new TreeMap<>())
+                        .put(rs.getShort("ORDINAL_POSITION"), quote(rs.getString("COLUMN_NAME")));
+                if (!rs.getBoolean("NON_UNIQUE"))
+                    uniqueIndexes.add(name);
+            }
+        }
+        for (Map.Entry<String, TreeMap<Short, String>> index : indexColumns.entrySet()) {
+            boolean unique = uniqueIndexes.contains(index.getKey());
+            List<String> columns = new ArrayList<>(index.getValue().values());
+            if (unique && columns.equals(new ArrayList<>(primaryKey.values())))
+                continue;
+            String columnList = String.join(", ", columns);
+            statements.add(unique
+                    ? "ALTER TABLE " + target + " ADD CONSTRAINT " + quote(index.getKey()) + " UNIQUE (" + columnList + ")"
+                    : "CREATE INDEX " + quote(index.getKey()) + " ON " + target + " (" + columnList + ")");
+        }
+        return statements;
+    }
+
+    private Set<String> unknownLiveTables(Connection connection) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        Set<String> unknown = new HashSet<>();
+        try (ResultSet rs = meta.getTables(null, identifier(meta, LIVE), "%", new String[] { "TABLE" })) {
+            while (rs.next()) {
+                String table = rs.getString("TABLE_NAME");
+                if (!TABLES.contains(table.toLowerCase()))
+                    unknown.add(table);
+            }
+        }
+        return unknown;
+    }
+
+    private static String identifier(DatabaseMetaData meta, String name) throws SQLException {
+        return meta.storesUpperCaseIdentifiers() ? name.toUpperCase() : name;
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier + "\"";
+    }
+}
@@ -1,7 +1,7 @@
 package br.ufpr.account_query_service.repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -15,6 +15,6 @@ public interface TransactionViewRepository extends JpaRepository<TransactionView
     List<TransactionView> findByAccountIdAndTimestampBetweenOrderByTimestampAsc(
             Long accountId, LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM TransactionView t WHERE t.accountId = :accountId AND t.timestamp < :start")
-    BigDecimal getBalanceBefore(@Param("accountId") Long accountId, @Param("start") LocalDateTime start);
+    @Query("SELECT t.eventId FROM TransactionView t WHERE t.eventId IN :eventIds")
+    List<String> findRecordedEventIds(@Param("eventIds") Collection<String> eventIds);
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package br.ufpr.account_query_service.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.ufpr.account_query_service.model.AccountView;
+import br.ufpr.account_query_service.repository.AccountViewRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * CPF → identidade da conta (id, número e gerente), que quase nunca muda.
+ * Mantido pelo consumidor de {@code account.*}; as transações e a consulta por
+ * CPF só vão ao banco na primeira vez que veem um CPF.
+ *
+ * LRU limitado por {@code account.identity.cache-size}. Métricas em
+ * {@code /actuator/metrics}: {@code account.identity.cache.gets} (result =
+ * hit|miss), {@code account.identity.cache.hit-ratio} e
+ * {@code account.identity.cache.size}. CPFs sem conta não são guardados: a
+ * conta pode chegar depois.
+ */
+@Component
+public class AccountIdentityCache {
+
+    public record Identity(Long accountId, String accountNumber, String managerId) {
+    }
+
+    @Autowired
+    private AccountViewRepository accountViewRepository;
+
+    @Autowired
+    private MeterRegistry meters;
+
+    @Value("${account.identity.cache-size:100000}")
+    private int cacheSize;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private Map<String, Identity> identities;
+
+    @PostConstruct
+    public void init() {
+        identities = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Identity> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        FunctionCounter.builder("account.identity.cache.gets", hits, AtomicLong::get)
+                .description("Consultas ao cache de identidade de contas")
+                .tag("result", "hit")
+                .register(meters);
+        FunctionCounter.builder("account.identity.cache.gets", misses, AtomicLong::get)
+                .description("Consultas ao cache de identidade de contas")
+                .tag("result", "miss")
+                .register(meters);
+        Gauge.builder("account.identity.cache.hit-ratio", this, AccountIdentityCache::hitRatio)
+                .description("Fração das consultas respondidas pelo cache")
+                .register(meters);
+        Gauge.builder("account.identity.cache.size", this, AccountIdentityCache::size)
+                .description("CPFs no cache de identidade de contas")
+                .register(meters);
+    }
+
+    /** Identidade do CPF, ou {@code null} se não houver conta. */
+    public Identity get(String cpf) {
+        return getAll(List.of(cpf)).get(cpf);
+    }
+
+    /** Resolve vários CPFs; os que faltam no cache vêm numa única consulta. */
+    public Map<String, Identity> getAll(Collection<String> cpfs) {
+        Map<String, Identity> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        synchronized (this) {
+            for (String cpf : cpfs) {
+                Identity identity = identities.get(cpf);
+                if (identity != null) {
+                    found.put(cpf, identity);
+                } else {
+                    missing.add(cpf);
+                }
+            }
+        }
+        hits.addAndGet(found.size());
+        misses.addAndGet(missing.size());
+
+        if (!missing.isEmpty()) {
+            for (AccountView account : accountViewRepository.findByClientIdIn(missing)) {
+                found.put(account.getClientId(), put(account));
+            }
+        }
+        return found;
+    }
+
+    public Identity put(AccountView account) {
+        Identity identity = new Identity(account.getId(), account.getAccountNumber(), account.getManagerId());
+        synchronized (this) {
+            identities.put(account.getClientId(), identity);
+        }
+        return identity;
+    }
+
+    public synchronized void evict(String cpf) {
+        identities.remove(cpf);
+    }
+
+    public synchronized void evictAll(Collection<String> cpfs) {
+        identities.keySet().removeAll(cpfs);
+    }
+
+    public synchronized void clear() {
+        identities.clear();
+    }
+
+    public synchronized int size() {
+        return identities.size();
+    }
+
+    public double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -7,21 +7,28 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import br.ufpr.account_query_service.dto.DailyBalanceDTO;
 import br.ufpr.account_query_service.dto.StatementItemDTO;
 import br.ufpr.account_query_service.model.AccountView;
+import br.ufpr.account_query_service.model.DailyBalance;
 import br.ufpr.account_query_service.model.TransactionView;
+import br.ufpr.account_query_service.repository.AccountEventWatermarkRepository;
 import br.ufpr.account_query_service.repository.AccountViewRepository;
+import br.ufpr.account_query_service.repository.DailyBalanceRepository;
 import br.ufpr.account_query_service.repository.TransactionViewRepository;
+import br.ufpr.account_query_service.service.AccountIdentityCache.Identity;
 
 @Service
 public class AccountQueryService {
@@ -32,8 +39,20 @@ public class AccountQueryService {
     @Autowired
     private TransactionViewRepository transactionViewRepository;
 
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Autowired
+    private AccountIdentityCache identityCache;
+
+    @Autowired
+    private AccountEventWatermarkRepository watermarkRepository;
+
+    /** Com o CPF no cache de identidade, a conta é lida pela chave primária. */
     public AccountView getAccountByCpf(String authenticatedCpf) {
-        return accountViewRepository.findByClientId(authenticatedCpf)
+        Identity identity = identityCache.get(authenticatedCpf);
+        return Optional.ofNullable(identity)
+                .flatMap(i -> accountViewRepository.findById(i.accountId()))
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Conta não encontrada para o CPF " + authenticatedCpf));
@@ -58,7 +77,18 @@ public class AccountQueryService {
         LocalDateTime startDateTime = start.atStartOfDay();
         LocalDateTime endDateTime = end.atTime(LocalTime.MAX);
 
-        BigDecimal currentBalance = transactionViewRepository.getBalanceBefore(account.getId(), startDateTime);
+        // Abertura e fechamentos vêm de daily_balance: o custo depende só do
+        // intervalo pedido, não do tamanho do histórico da conta.
+        BigDecimal currentBalance = dailyBalanceRepository
+                .findFirstByAccountIdAndDateLessThanOrderByDateDesc(account.getId(), start)
+                .map(DailyBalance::getClosingBalance)
+                .orElse(BigDecimal.ZERO);
+
+        Map<LocalDate, BigDecimal> closingByDate = new HashMap<>();
+        for (DailyBalance day : dailyBalanceRepository.findByAccountIdAndDateBetweenOrderByDateAsc(
+                account.getId(), start, end)) {
+            closingByDate.put(day.getDate(), day.getClosingBalance());
+        }
 
         List<TransactionView> transactions = transactionViewRepository
                 .findByAccountIdAndTimestampBetweenOrderByTimestampAsc(account.getId(), startDateTime, endDateTime);
@@ -75,8 +105,6 @@ public class AccountQueryService {
             List<StatementItemDTO> items = new ArrayList<>();
 
             for (TransactionView tx : dailyTxs) {
-                currentBalance = currentBalance.add(tx.getAmount());
-
                 String tipoMovimento = tx.getType().equals("TRANSFERENCIA_ENVIADA") || tx.getType().equals("TRANSFERENCIA_RECEBIDA")
                         ? "transferência"
                         : (tx.getAmount().compareTo(BigDecimal.ZERO) >= 0 ? "depósito" : "saque");
@@ -92,6 +120,8 @@ public class AccountQueryService {
                 items.add(item);
             }
 
+            currentBalance = closingByDate.getOrDefault(date, currentBalance);
+
             DailyBalanceDTO daily = new DailyBalanceDTO();
             daily.setData(date);
             daily.setSaldoDoDia(currentBalance);
@@ -114,7 +144,11 @@ public class AccountQueryService {
         return accountViewRepository.findTopAccountsByManager(managerCpf, limit);
     }
 
+    @Transactional
     public void rebuildAccountViews() {
+        dailyBalanceRepository.clear();
         accountViewRepository.deleteAll();
+        watermarkRepository.clear();
+        identityCache.clear();
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package br.ufpr.account_query_service.service;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_events.ReplayPage;
+import br.ufpr.account_events.TransactionEvent;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Lê a reprodução do estado do account-service (/replay), página a página,
+ * para a reconstrução da projeção.
+ */
+@Component
+public class AccountReplayClient {
+
+    private static final ParameterizedTypeReference<ReplayPage<AccountEvent>> ACCOUNT_PAGE =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<ReplayPage<TransactionEvent>> TRANSACTION_PAGE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    @Autowired
+    private RestClient.Builder restClientBuilder;
+
+    @Value("${service.account.url:http://localhost:8082}")
+    private String accountServiceUrl;
+
+    @Value("${account.rebuild.http-timeout-millis:30000}")
+    private int timeoutMillis;
+
+    private RestClient restClient;
+
+    @PostConstruct
+    public void init() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        restClient = restClientBuilder.baseUrl(accountServiceUrl).requestFactory(requestFactory).build();
+    }
+
+    /** Contas com id maior que {@code after}, em ordem de id. */
+    public ReplayPage<AccountEvent> accounts(long after, int limit) {
+        return restClient.get()
+                .uri("/replay/contas?apos={apos}&limite={limite}", after, limit)
+                .retrieve()
+                .body(ACCOUNT_PAGE);
+    }
+
+    /** Transações das contas de {@code firstAccountId} a {@code lastAccountId}, a partir do cursor. */
+    public ReplayPage<TransactionEvent> transactions(long firstAccountId, long lastAccountId, String cursor,
+            int limit) {
+        return restClient.get()
+                .uri(uri -> uri.path("/replay/transacoes")
+                        .queryParam("contaInicial", firstAccountId)
+                        .queryParam("contaFinal", lastAccountId)
+                        .queryParam("limite", limit)
+                        .queryParamIfPresent("apos", Optional.ofNullable(cursor))
+                        .build())
+                .retrieve()
+                .body(TRANSACTION_PAGE);
+    }
+}
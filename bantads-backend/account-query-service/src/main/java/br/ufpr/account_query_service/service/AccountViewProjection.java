@@ -0,0 +1,82 @@
+package br.ufpr.account_query_service.service;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_query_service.model.AccountView;
+import br.ufpr.account_query_service.repository.AccountEventWatermarkRepository;
+import br.ufpr.account_query_service.repository.AccountViewRepository;
+
+/**
+ * Aplica os eventos de conta em ordem de sequência (a versão da linha no
+ * account-service). Cada evento traz o estado completo da conta, então basta
+ * descartar os que não são mais novos que o último aplicado: repetidos e
+ * atrasados são ignorados sem reler a view, e uma lacuna não precisa ser
+ * preenchida, porque o evento seguinte já a cobre.
+ *
+ * A marca é avançada com um UPDATE condicional, que trava a linha da conta até
+ * o commit; com consumidores concorrentes, dois eventos da mesma conta não se
+ * sobrepõem.
+ */
+@Service
+public class AccountViewProjection {
+
+    @Autowired
+    private AccountViewRepository accountViewRepository;
+
+    @Autowired
+    private AccountEventWatermarkRepository watermarkRepository;
+
+    /** Grava o estado da conta; devolve {@code null} se o evento estiver atrasado. */
+    @Transactional
+    public AccountView apply(AccountEvent event) {
+        if (!advance(event))
+            return null;
+
+        Optional<AccountView> existing = accountViewRepository.findByClientId(event.clientCpf());
+        AccountView view = existing.orElse(new AccountView());
+
+        view.setClientId(event.clientCpf());
+        view.setAccountNumber(event.numero());
+
+        if (event.saldo() != null) {
+            view.setBalance(event.saldo());
+        }
+
+        if (event.limite() != null) {
+            view.setLimit(event.limite());
+        }
+
+        if (event.managerCpf() != null) {
+            view.setManagerId(event.managerCpf());
+        }
+
+        if (event.dataCriacao() != null) {
+            view.setCreationDate(event.dataCriacao());
+        }
+
+        return accountViewRepository.save(view);
+    }
+
+    /** Remove a view; devolve {@code false} se o evento estiver atrasado. */
+    @Transactional
+    public boolean delete(AccountEvent event) {
+        if (!advance(event))
+            return false;
+        accountViewRepository.findByClientId(event.clientCpf()).ifPresent(accountViewRepository::delete);
+        return true;
+    }
+
+    private boolean advance(AccountEvent event) {
+        // Eventos gravados antes da sequência existir não têm o id da conta.
+        if (event.id() == null)
+            return true;
+        if (watermarkRepository.insertIfAbsent(event.id(), event.sequence()) == 1)
+            return true;
+        return watermarkRepository.advance(event.id(), event.sequence()) == 1;
+    }
+}
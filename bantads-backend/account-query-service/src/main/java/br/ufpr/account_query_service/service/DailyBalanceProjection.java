@@ -0,0 +1,135 @@
+package br.ufpr.account_query_service.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ufpr.account_query_service.model.TransactionView;
+import br.ufpr.account_query_service.repository.AccountViewRepository;
+import br.ufpr.account_query_service.repository.DailyBalanceRepository;
+import br.ufpr.account_query_service.repository.TransactionViewRepository;
+
+/**
+ * Grava as transações e atualiza daily_balance na mesma transação, para que o
+ * extrato leia o saldo de abertura numa consulta indexada em vez de somar
+ * todo o histórico da conta.
+ */
+@Service
+public class DailyBalanceProjection {
+
+    @Autowired
+    private AccountViewRepository accountViewRepository;
+
+    @Autowired
+    private TransactionViewRepository transactionViewRepository;
+
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Transactional
+    public TransactionView record(TransactionView tx) {
+        recordAll(List.of(tx));
+        return tx;
+    }
+
+    /**
+     * Grava um lote de transações: os INSERTs saem num lote JDBC e cada dia de
+     * cada conta recebe um único UPDATE com a soma das suas transações.
+     * Transações com event id já gravado (reentregas) são ignoradas; devolve
+     * quantas foram gravadas.
+     */
+    @Transactional
+    public int recordAll(List<TransactionView> txs) {
+        if (txs.isEmpty())
+            return 0;
+
+        // Serializa as transações de cada conta: o dia novo copia o fechamento
+        // do anterior, que não pode mudar entre a leitura e a soma. A trava
+        // também faz a checagem de repetidas valer entre consumidores
+        // concorrentes, já que um evento é sempre da mesma conta.
+        Set<Long> accountIds = new TreeSet<>();
+        for (TransactionView tx : txs) {
+            accountIds.add(tx.getAccountId());
+        }
+        int locked = accountViewRepository.findAllByIdForUpdate(accountIds).size();
+        if (locked < accountIds.size()) {
+            throw new IllegalStateException("Contas da projeção não encontradas: " + accountIds);
+        }
+
+        List<TransactionView> fresh = withoutRecorded(txs);
+        if (fresh.isEmpty())
+            return 0;
+
+        // conta -> dia -> [soma, quantidade], em ordem de id e de data.
+        Map<Long, TreeMap<LocalDate, DayTotal>> totals = new TreeMap<>();
+        for (TransactionView tx : fresh) {
+            totals.computeIfAbsent(tx.getAccountId(), id -> new TreeMap<>())
+                    .computeIfAbsent(tx.getTimestamp().toLocalDate(), date -> new DayTotal())
+                    .add(tx.getAmount());
+        }
+
+        transactionViewRepository.saveAll(fresh);
+        transactionViewRepository.flush();
+
+        // Só cria os dias que ainda não existem; os demais recebem apenas a soma.
+        LocalDate first = null;
+        LocalDate last = null;
+        for (TreeMap<LocalDate, DayTotal> days : totals.values()) {
+            first = first == null || days.firstKey().isBefore(first) ? days.firstKey() : first;
+            last = last == null || days.lastKey().isAfter(last) ? days.lastKey() : last;
+        }
+        Set<String> existing = new HashSet<>();
+        for (Object[] row : dailyBalanceRepository.findDays(totals.keySet(), first, last)) {
+            existing.add(row[0] + ":" + row[1]);
+        }
+
+        for (Map.Entry<Long, TreeMap<LocalDate, DayTotal>> account : totals.entrySet()) {
+            for (Map.Entry<LocalDate, DayTotal> day : account.getValue().entrySet()) {
+                if (!existing.contains(account.getKey() + ":" + day.getKey()))
+                    dailyBalanceRepository.insertIfAbsent(account.getKey(), day.getKey());
+                dailyBalanceRepository.addFrom(account.getKey(), day.getKey(), day.getValue().amount,
+                        day.getValue().count);
+            }
+        }
+        return fresh.size();
+    }
+
+    /** Tira as transações cujo event id já está gravado ou aparece antes no lote. */
+    private List<TransactionView> withoutRecorded(List<TransactionView> txs) {
+        Set<String> eventIds = new HashSet<>();
+        for (TransactionView tx : txs) {
+            if (tx.getEventId() != null)
+                eventIds.add(tx.getEventId());
+        }
+        Set<String> seen = eventIds.isEmpty() ? new HashSet<>()
+                : new HashSet<>(transactionViewRepository.findRecordedEventIds(eventIds));
+
+        List<TransactionView> fresh = new ArrayList<>(txs.size());
+        for (TransactionView tx : txs) {
+            // Eventos gravados antes do event id existir não têm como ser deduplicados.
+            if (tx.getEventId() == null || seen.add(tx.getEventId()))
+                fresh.add(tx);
+        }
+        return fresh;
+    }
+
+    private static final class DayTotal {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        void add(BigDecimal value) {
+            amount = amount.add(value);
+            count++;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package br.ufpr.account_query_service.service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_events.ReplayPage;
+import br.ufpr.account_events.TransactionEvent;
+import br.ufpr.account_query_service.dto.RebuildStatusDTO;
+import br.ufpr.account_query_service.repository.ShadowSchema;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reconstrói a projeção inteira a partir da reprodução do account-service,
+ * sem parar as consultas: tudo é gravado em {@link ShadowSchema#SHADOW} e só
+ * entra no lugar da projeção atual no fim, por renomeação de esquema.
+ *
+ * As contas chegam em páginas por id; cada página é uma partição processada
+ * por um worker. Primeiro todas as contas são gravadas; depois cada worker lê
+ * as transações das contas da sua partição, grava-as em lote e monta o
+ * daily_balance delas em memória, sem disputar contas com outro worker.
+ *
+ * Os consumidores da fila ficam parados durante a reconstrução; os eventos
+ * acumulados são aplicados depois da troca. O que a reprodução já trouxe é
+ * descartado pelas verificações de sequência (contas) e de eventId
+ * (transações). Métricas em {@code /actuator/metrics}:
+ * {@code account.rebuild.accounts}, {@code account.rebuild.transactions},
+ * {@code account.rebuild.throughput} (transações/s) e
+ * {@code account.rebuild.running}.
+ */
+@Service
+public class ProjectionRebuild {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionRebuild.class);
+
+    public enum State {
+        IDLE, LOADING_ACCOUNTS, LOADING_TRANSACTIONS, INDEXING, SWAPPING, DONE, FAILED
+    }
+
+    private static final String INSERT_ACCOUNT = "INSERT INTO " + ShadowSchema.SHADOW + ".account_view "
+            + "(id, client_id, account_number, balance, account_limit, manager_id, creation_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_WATERMARK = "INSERT INTO " + ShadowSchema.SHADOW + ".account_event_watermark "
+            + "(account_id, last_sequence) VALUES (?, ?)";
+    private static final String INSERT_TRANSACTION = "INSERT INTO " + ShadowSchema.SHADOW + ".transaction_view "
+            + "(id, account_id, timestamp, type, amount, origin_client_id, destination_client_id, event_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_DAY = "INSERT INTO " + ShadowSchema.SHADOW + ".daily_balance "
+            + "(id, account_id, balance_date, closing_balance, tx_count) VALUES (?, ?, ?, ?, ?)";
+    private static final int LOOKUP_CHUNK = 1000;
+
+    @Autowired
+    private AccountReplayClient replayClient;
+    @Autowired
+    private ShadowSchema shadowSchema;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private AccountIdentityCache identityCache;
+    @Autowired
+    private RabbitListenerEndpointRegistry listenerRegistry;
+    @Autowired
+    private MeterRegistry meters;
+
+    @Value("${account.rebuild.threads:8}")
+    private int threads;
+    @Value("${account.rebuild.account-page-size:1000}")
+    private int accountPageSize;
+    @Value("${account.rebuild.transaction-page-size:5000}")
+    private int transactionPageSize;
+
+    private ExecutorService runner;
+
+    private volatile State state = State.IDLE;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    private final AtomicLong accounts = new AtomicLong();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        runner = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "projection-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("account.rebuild.accounts", accounts, AtomicLong::get)
+                .description("Contas gravadas pela reconstrução atual ou pela última")
+                .register(meters);
+        Gauge.builder("account.rebuild.transactions", transactions, AtomicLong::get)
+                .description("Transações gravadas pela reconstrução atual ou pela última")
+                .register(meters);
+        Gauge.builder("account.rebuild.throughput", this, ProjectionRebuild::throughput)
+                .description("Transações gravadas por segundo na reconstrução")
+                .register(meters);
+        Gauge.builder("account.rebuild.running", this, r -> r.isRunning() ? 1 : 0)
+                .description("1 enquanto uma reconstrução está em andamento")
+                .register(meters);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /** Inicia a reconstrução em segundo plano; {@code false} se já houver uma em andamento. */
+    public synchronized boolean start() {
+        if (isRunning())
+            return false;
+        accounts.set(0);
+        transactions.set(0);
+        skipped.set(0);
+        error = null;
+        finishedAt = null;
+        startedAt = LocalDateTime.now();
+        state = State.LOADING_ACCOUNTS;
+        runner.submit(this::run);
+        return true;
+    }
+
+    public boolean isRunning() {
+        return state != State.IDLE && state != State.DONE && state != State.FAILED;
+    }
+
+    public RebuildStatusDTO status() {
+        return new RebuildStatusDTO(state.name(), accounts.get(), transactions.get(), startedAt, finishedAt,
+                elapsedSeconds(), throughput(), error);
+    }
+
+    private double elapsedSeconds() {
+        LocalDateTime start = startedAt;
+        if (start == null)
+            return 0;
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        return Duration.between(start, end).toMillis() / 1000.0;
+    }
+
+    private double throughput() {
+        double seconds = elapsedSeconds();
+        return seconds > 0 ? transactions.get() / seconds : 0;
+    }
+
+    private void run() {
+        List<MessageListenerContainer> paused = pauseListeners();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            shadowSchema.create();
+
+            List<long[]> partitions = loadAccounts(workers);
+            shadowSchema.index("account_view");
+
+            state = State.LOADING_TRANSACTIONS;
+            loadTransactions(workers, partitions);
+
+            state = State.INDEXING;
+            for (String table : ShadowSchema.TABLES) {
+                if (!"account_view".equals(table))
+                    shadowSchema.index(table);
+            }
+            shadowSchema.createSequences();
+
+            state = State.SWAPPING;
+            shadowSchema.swap();
+            // Os ids das contas mudaram: o cache aponta para a projeção antiga.
+            identityCache.clear();
+
+            finishedAt = LocalDateTime.now();
+            state = State.DONE;
+            log.info("Projeção reconstruída: {} contas, {} transações em {} s ({} transações/s, "
+                    + "{} de contas ausentes ficaram para a fila)", accounts.get(), transactions.get(),
+                    elapsedSeconds(), Math.round(throughput()), skipped.get());
+        } catch (Exception ex) {
+            Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+            error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+            finishedAt = LocalDateTime.now();
+            state = State.FAILED;
+            log.error("Falha na reconstrução da projeção", cause);
+            try {
+                shadowSchema.drop();
+            } catch (Exception dropEx) {
+                log.error("Falha ao remover o esquema da reconstrução", dropEx);
+            }
+        } finally {
+            workers.shutdownNow();
+            paused.forEach(MessageListenerContainer::start);
+        }
+    }
+
+    /**
+     * Lê as contas em páginas e grava cada página num worker; devolve o
+     * intervalo de ids [primeiro, último] de cada página, que são as partições
+     * da carga de transações.
+     */
+    private List<long[]> loadAccounts(ExecutorService workers) throws Exception {
+        List<long[]> partitions = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(threads * 2);
+        List<Future<?>> pending = new ArrayList<>();
+        long after = 0;
+        ReplayPage<AccountEvent> page;
+        do {
+            page = replayClient.accounts(after, accountPageSize);
+            List<AccountEvent> events = page.itens();
+            if (events.isEmpty())
+                break;
+            long first = events.get(0).id();
+            after = events.get(events.size() - 1).id();
+            partitions.add(new long[] { first, after });
+            inFlight.acquire();
+            pending.add(workers.submit(() -> {
+                try {
+                    insertAccounts(events);
+                } finally {
+                    inFlight.release();
+                }
+            }));
+        } while (page.proximo() != null);
+        awaitAll(pending);
+        return partitions;
+    }
+
+    private void insertAccounts(List<AccountEvent> events) {
+        List<Object[]> rows = new ArrayList<>(events.size());
+        List<Object[]> watermarks = new ArrayList<>(events.size());
+        for (AccountEvent event : events) {
+            rows.add(new Object[] { event.id(), event.clientCpf(), event.numero(), event.saldo(), event.limite(),
+                    event.managerCpf(), timestamp(event.dataCriacao()) });
+            watermarks.add(new Object[] { event.id(), event.sequence() });
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_ACCOUNT, rows);
+            jdbcTemplate.batchUpdate(INSERT_WATERMARK, watermarks);
+        });
+        accounts.addAndGet(events.size());
+    }
+
+    private void loadTransactions(ExecutorService workers, List<long[]> partitions) throws Exception {
+        // Ids das transações acima de tudo o que a sequence atual já entregou.
+        AtomicLong transactionIds = new AtomicLong(shadowSchema.nextLiveValue("transaction_view_seq") + 1);
+        AtomicLong dayIds = new AtomicLong(1);
+        List<Future<?>> pending = new ArrayList<>();
+        for (long[] partition : partitions) {
+            pending.add(workers.submit(() -> {
+                loadPartition(partition[0], partition[1], transactionIds, dayIds);
+                return null;
+            }));
+        }
+        awaitAll(pending);
+    }
+
+    private void loadPartition(long firstAccountId, long lastAccountId, AtomicLong transactionIds,
+            AtomicLong dayIds) {
+        Map<String, Long> accountIds = new HashMap<>();
+        Map<String, String> accountNumbers = new HashMap<>();
+        jdbcTemplate.query("SELECT id, client_id, account_number FROM " + ShadowSchema.SHADOW
+                + ".account_view WHERE id BETWEEN ? AND ?", rs -> {
+                    accountIds.put(rs.getString(2), rs.getLong(1));
+                    accountNumbers.put(rs.getString(2), rs.getString(3));
+                }, firstAccountId, lastAccountId);
+
+        Map<Long, TreeMap<LocalDate, DayTotal>> days = new HashMap<>();
+        String cursor = null;
+        do {
+            ReplayPage<TransactionEvent> page = replayClient.transactions(firstAccountId, lastAccountId, cursor,
+                    transactionPageSize);
+            resolveCounterparts(page.itens(), accountNumbers);
+
+            List<Object[]> rows = new ArrayList<>(page.itens().size());
+            long nextId = transactionIds.getAndAdd(page.itens().size());
+            for (TransactionEvent event : page.itens()) {
+                Long accountId = accountIds.get(event.contaCpf());
+                if (accountId == null) {
+                    // Conta criada depois da leitura das contas: o evento dela
+                    // está na fila e é aplicado depois da troca.
+                    skipped.incrementAndGet();
+                    continue;
+                }
+                LocalDateTime timestamp = event.dataHora().withNano(0);
+                rows.add(new Object[] { nextId++, accountId, Timestamp.valueOf(timestamp), event.tipo(),
+                        event.valor(), accountNumbers.get(event.origemCpf()),
+                        accountNumbers.get(event.destinoCpf()), event.eventId() });
+                days.computeIfAbsent(accountId, id -> new TreeMap<>())
+                        .computeIfAbsent(timestamp.toLocalDate(), d -> new DayTotal())
+                        .add(event.valor());
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_TRANSACTION, rows));
+            transactions.addAndGet(rows.size());
+            cursor = page.proximo();
+        } while (cursor != null);
+
+        List<Object[]> dayRows = new ArrayList<>();
+        for (Map.Entry<Long, TreeMap<LocalDate, DayTotal>> account : days.entrySet()) {
+            BigDecimal closing = BigDecimal.ZERO;
+            for (Map.Entry<LocalDate, DayTotal> day : account.getValue().entrySet()) {
+                closing = closing.add(day.getValue().amount);
+                dayRows.add(new Object[] { null, account.getKey(), Date.valueOf(day.getKey()), closing,
+                        day.getValue().count });
+            }
+        }
+        long nextDayId = dayIds.getAndAdd(dayRows.size());
+        for (Object[] row : dayRows) {
+            row[0] = nextDayId++;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_DAY, dayRows));
+    }
+
+    /**
+     * Origem e destino são gravados como número da conta. Contrapartes de
+     * outras partições são buscadas nas contas já gravadas no esquema
+     * paralelo.
+     */
+    private void resolveCounterparts(List<TransactionEvent> events, Map<String, String> accountNumbers) {
+        Set<String> missing = new HashSet<>();
+        for (TransactionEvent event : events) {
+            if (event.origemCpf() != null && !accountNumbers.containsKey(event.origemCpf()))
+                missing.add(event.origemCpf());
+            if (event.destinoCpf() != null && !accountNumbers.containsKey(event.destinoCpf()))
+                missing.add(event.destinoCpf());
+        }
+        List<String> cpfs = new ArrayList<>(missing);
+        for (int from = 0; from < cpfs.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = cpfs.subList(from, Math.min(from + LOOKUP_CHUNK, cpfs.size()));
+            String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            jdbcTemplate.query("SELECT client_id, account_number FROM " + ShadowSchema.SHADOW
+                    + ".account_view WHERE client_id IN (" + placeholders + ")",
+                    rs -> {
+                        accountNumbers.put(rs.getString(1), rs.getString(2));
+                    }, chunk.toArray());
+            // CPFs sem conta ficam nulos, como no consumidor.
+            for (String cpf : chunk) {
+                accountNumbers.putIfAbsent(cpf, null);
+            }
+        }
+    }
+
+    /**
+     * Para os consumidores em execução; a parada espera o lote em andamento
+     * terminar, então nada mais é gravado na projeção atual até a troca.
+     */
+    private List<MessageListenerContainer> pauseListeners() {
+        List<MessageListenerContainer> paused = new ArrayList<>();
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            if (container.isRunning()) {
+                container.stop();
+                paused.add(container);
+            }
+        }
+        return paused;
+    }
+
+    private static void awaitAll(List<Future<?>> pending) throws Exception {
+        for (Future<?> future : pending) {
+            future.get();
+        }
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static final class DayTotal {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        void add(BigDecimal value) {
+            amount = amount.add(value);
+            count++;
+        }
+    }
+}
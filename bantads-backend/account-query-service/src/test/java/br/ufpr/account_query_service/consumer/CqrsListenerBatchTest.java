@@ -0,0 +1,283 @@
+package br.ufpr.account_query_service.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.rabbitmq.client.Channel;
+
+import br.ufpr.account_events.CqrsEvent;
+import br.ufpr.account_events.EventCodec;
+import br.ufpr.account_events.TransactionBatchEvent;
+import br.ufpr.account_events.TransactionEvent;
+import br.ufpr.account_query_service.model.AccountView;
+import br.ufpr.account_query_service.model.DailyBalance;
+import br.ufpr.account_query_service.model.TransactionView;
+import br.ufpr.account_query_service.repository.AccountViewRepository;
+import br.ufpr.account_query_service.repository.DailyBalanceRepository;
+import br.ufpr.account_query_service.repository.TransactionViewRepository;
+import br.ufpr.account_query_service.service.AccountIdentityCache;
+import br.ufpr.account_query_service.service.DailyBalanceProjection;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:transaction_batch;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "INIT=CREATE SCHEMA IF NOT EXISTS account_query_schema")
+@ActiveProfiles("h2")
+class CqrsListenerBatchTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+    private static final int ACCOUNTS = 50;
+
+    private final Channel channel = mock(Channel.class);
+    private long deliveryTag;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @MockitoSpyBean
+    private DailyBalanceProjection dailyBalanceProjection;
+
+    @Autowired
+    private CqrsListener listener;
+
+    @Autowired
+    private EventCodec eventCodec;
+
+    @Autowired
+    private AccountViewRepository accountViewRepository;
+
+    @Autowired
+    private TransactionViewRepository transactionViewRepository;
+
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Autowired
+    private AccountIdentityCache identityCache;
+
+    @BeforeEach
+    void setUp() {
+        dailyBalanceRepository.deleteAll();
+        transactionViewRepository.deleteAll();
+        accountViewRepository.deleteAll();
+        identityCache.clear();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            AccountView account = new AccountView();
+            account.setClientId(cpf(i));
+            account.setAccountNumber(String.format("%04d", i));
+            account.setBalance(BigDecimal.ZERO);
+            account.setLimit(BigDecimal.ZERO);
+            accountViewRepository.save(account);
+        }
+    }
+
+    @Test
+    void appliesABatchOfTransfersAcrossAccountsAndDays() throws Exception {
+        List<Message> batch = new ArrayList<>();
+        batch.add(message(cpf(0), "DEPOSITO", "100.00", DAY, null, cpf(0)));
+        batch.add(message(cpf(0), "TRANSFERENCIA_ENVIADA", "-40.00", DAY.plusDays(1), cpf(0), cpf(1)));
+        batch.add(message(cpf(1), "TRANSFERENCIA_RECEBIDA", "40.00", DAY.plusDays(1), cpf(0), cpf(1)));
+        batch.add(message(cpf(0), "DEPOSITO", "5.00", DAY.plusDays(1), null, cpf(0)));
+
+        listener.onTransactions(batch, channel);
+
+        assertEquals(4, transactionViewRepository.count());
+        Long sender = accountViewRepository.findByClientId(cpf(0)).orElseThrow().getId();
+        List<DailyBalance> days = dailyBalanceRepository.findByAccountIdAndDateBetweenOrderByDateAsc(sender, DAY,
+                DAY.plusDays(1));
+        assertEquals(2, days.size());
+        assertEquals(0, new BigDecimal("100.00").compareTo(days.get(0).getClosingBalance()));
+        assertEquals(0, new BigDecimal("65.00").compareTo(days.get(1).getClosingBalance()));
+        assertEquals(2, days.get(1).getTxCount());
+
+        TransactionView received = transactionViewRepository.findAll().stream()
+                .filter(t -> "TRANSFERENCIA_RECEBIDA".equals(t.getType()))
+                .findFirst().orElseThrow();
+        assertEquals("0000", received.getOriginClientId());
+        assertEquals("0001", received.getDestinationClientId());
+    }
+
+    @Test
+    void rejectsOnlyTheTransactionWhoseAccountHasNotArrivedYet() throws Exception {
+        List<Message> batch = List.of(
+                message(cpf(0), "DEPOSITO", "100.00", DAY, null, cpf(0)),
+                message("99999999999", "DEPOSITO", "10.00", DAY, null, "99999999999"),
+                message(cpf(1), "DEPOSITO", "20.00", DAY, null, cpf(1)));
+
+        listener.onTransactions(batch, channel);
+
+        assertEquals(2, transactionViewRepository.count());
+        verify(channel).basicAck(tag(batch.get(0)), false);
+        verify(channel).basicReject(tag(batch.get(1)), false);
+        verify(channel).basicAck(tag(batch.get(2)), false);
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void parksTransactionsThatRanOutOfRetriesOrCannotBeRead() throws Exception {
+        Message orphan = message("99999999999", "DEPOSITO", "10.00", DAY, null, "99999999999");
+        orphan.getMessageProperties().setHeader("x-death", List.of(Map.of(
+                "queue", "transaction-created-queue", "reason", "rejected", "count", 10L)));
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventCodec.JSON);
+        properties.setDeliveryTag(++deliveryTag);
+        Message garbage = new Message("{\"tipo\":".getBytes(), properties);
+        List<Message> batch = List.of(orphan, garbage, message(cpf(0), "DEPOSITO", "1.00", DAY, null, cpf(0)));
+
+        listener.onTransactions(batch, channel);
+
+        assertEquals(1, transactionViewRepository.count());
+        verify(rabbitTemplate).send("", "transaction-created-dlq", orphan);
+        verify(rabbitTemplate).send("", "transaction-created-dlq", garbage);
+        for (Message message : batch) {
+            verify(channel).basicAck(tag(message), false);
+        }
+        verify(channel, never()).basicReject(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void aBatchIsRecordedInOneCallAndEveryMessageAcked() throws Exception {
+        int total = 200;
+        List<Message> batch = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            String owner = cpf(i % ACCOUNTS);
+            batch.add(message(owner, "DEPOSITO", "1.00", DAY.plusDays(i % 7), null, owner));
+        }
+
+        listener.onTransactions(batch, channel);
+
+        // Uma gravação para o lote inteiro, não uma por mensagem.
+        verify(dailyBalanceProjection).recordAll(anyList());
+        verify(dailyBalanceProjection).recordAll(argThat(views -> views.size() == total));
+        assertEquals(total, transactionViewRepository.count());
+        for (Message message : batch) {
+            verify(channel).basicAck(tag(message), false);
+        }
+        verify(channel, never()).basicReject(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void transferBatchWithAMissingAccountWaitsInTheRetryQueueInsteadOfLooping() {
+        Message batch = transferBatch("99999999999");
+
+        // Rejeitada sem requeue: o dead-letter exchange da fila leva à fila de espera.
+        assertThrows(AmqpRejectAndDontRequeueException.class, () -> listener.onTransactionBatch(batch));
+
+        assertEquals(1, transactionViewRepository.count());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void parksTransferBatchesThatRanOutOfRetriesOrCannotBeRead() {
+        Message exhausted = transferBatch("99999999999");
+        exhausted.getMessageProperties().setHeader("x-death", List.of(Map.of(
+                "queue", "transaction-batch-queue", "reason", "rejected", "count", 10L)));
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventCodec.JSON);
+        Message garbage = new Message("{\"contas\":".getBytes(), properties);
+
+        listener.onTransactionBatch(exhausted);
+        listener.onTransactionBatch(garbage);
+
+        verify(rabbitTemplate).send("", "transaction-batch-dlq", exhausted);
+        verify(rabbitTemplate).send("", "transaction-batch-dlq", garbage);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void batchesKeepUpWithABurst() throws Exception {
+        int total = 5000;
+        List<Message> burst = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            String owner = cpf(i % ACCOUNTS);
+            burst.add(message(owner, "DEPOSITO", "1.00", DAY.plusDays(i % 7), null, owner));
+        }
+
+        long start = System.nanoTime();
+        for (Message message : burst.subList(0, 1000)) {
+            listener.onTransactions(List.of(message), channel);
+        }
+        double singleRate = 1000 / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        List<Message> rest = burst.subList(1000, total);
+        for (int i = 0; i < rest.size(); i += 500) {
+            listener.onTransactions(rest.subList(i, Math.min(i + 500, rest.size())), channel);
+        }
+        double batchRate = (total - 1000) / ((System.nanoTime() - start) / 1e9);
+
+        System.out.printf("Projeção de transações: uma a uma %.0f/s, em lotes de 500 %.0f/s%n", singleRate, batchRate);
+        assertEquals(total, transactionViewRepository.count());
+        assertTrue(batchRate > singleRate, "lotes deveriam ser mais rápidos que mensagens avulsas");
+    }
+
+    private Message message(String owner, String type, String amount, LocalDate date, String origin,
+            String destination) {
+        TransactionEvent event = new TransactionEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, UUID.randomUUID().toString(),
+                1, null, owner, type, new BigDecimal(amount), LocalDateTime.of(date, LocalTime.NOON),
+                origin, destination);
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventCodec.JSON);
+        properties.setMessageId(event.eventId());
+        properties.setConsumerQueue("transaction-created-queue");
+        properties.setDeliveryTag(++deliveryTag);
+        return new Message(eventCodec.encode(event, EventCodec.JSON), properties);
+    }
+
+    /** Lote com um depósito numa conta projetada e outro em {@code missing}. */
+    private Message transferBatch(String missing) {
+        List<TransactionEvent> transactions = List.of(
+                transaction(cpf(0), "DEPOSITO", "5.00", null, cpf(0)),
+                transaction(missing, "DEPOSITO", "5.00", null, missing));
+        TransactionBatchEvent event = new TransactionBatchEvent(CqrsEvent.CURRENT_SCHEMA_VERSION,
+                UUID.randomUUID().toString(), List.of(), transactions);
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventCodec.JSON);
+        properties.setMessageId(event.eventId());
+        properties.setConsumerQueue("transaction-batch-queue");
+        return new Message(eventCodec.encode(event, EventCodec.JSON), properties);
+    }
+
+    private static TransactionEvent transaction(String owner, String type, String amount, String origin,
+            String destination) {
+        return new TransactionEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, UUID.randomUUID().toString(), 1, null, owner,
+                type, new BigDecimal(amount), LocalDateTime.of(DAY, LocalTime.NOON), origin, destination);
+    }
+
+    private static long tag(Message message) {
+        return message.getMessageProperties().getDeliveryTag();
+    }
+
+    private static String cpf(int i) {
+        return String.format("%011d", i);
+    }
+}
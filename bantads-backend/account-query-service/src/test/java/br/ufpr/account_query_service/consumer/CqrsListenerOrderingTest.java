@@ -0,0 +1,171 @@
+package br.ufpr.account_query_service.consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.rabbitmq.client.Channel;
+
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_events.CqrsEvent;
+import br.ufpr.account_events.EventCodec;
+import br.ufpr.account_events.TransactionEvent;
+import br.ufpr.account_query_service.model.AccountView;
+import br.ufpr.account_query_service.model.DailyBalance;
+import br.ufpr.account_query_service.repository.AccountEventWatermarkRepository;
+import br.ufpr.account_query_service.repository.AccountViewRepository;
+import br.ufpr.account_query_service.repository.DailyBalanceRepository;
+import br.ufpr.account_query_service.repository.TransactionViewRepository;
+import br.ufpr.account_query_service.service.AccountIdentityCache;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:projection_ordering;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "LOCK_TIMEOUT=30000;INIT=CREATE SCHEMA IF NOT EXISTS account_query_schema")
+@ActiveProfiles("h2")
+class CqrsListenerOrderingTest {
+
+    private static final String CPF = "12345678901";
+    private static final long ACCOUNT_ID = 42L;
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private final Channel channel = mock(Channel.class);
+
+    @Autowired
+    private CqrsListener listener;
+
+    @Autowired
+    private EventCodec eventCodec;
+
+    @Autowired
+    private AccountViewRepository accountViewRepository;
+
+    @Autowired
+    private TransactionViewRepository transactionViewRepository;
+
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Autowired
+    private AccountEventWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private AccountIdentityCache identityCache;
+
+    @BeforeEach
+    void setUp() {
+        dailyBalanceRepository.deleteAll();
+        transactionViewRepository.deleteAll();
+        accountViewRepository.deleteAll();
+        watermarkRepository.deleteAll();
+        identityCache.clear();
+    }
+
+    @Test
+    void skipsStaleAndRepeatedAccountEvents() {
+        listener.onAccountUpdate(account("account.created", 0, "0.00"));
+        listener.onAccountUpdate(account("account.updated", 3, "300.00"));
+        listener.onAccountUpdate(account("account.updated", 2, "200.00"));
+        listener.onAccountUpdate(account("account.updated", 3, "999.00"));
+
+        assertBalance("300.00");
+        assertEquals(3, watermarkRepository.findById(ACCOUNT_ID).orElseThrow().getLastSequence());
+    }
+
+    @Test
+    void lateUpdateDoesNotResurrectADeletedAccount() {
+        listener.onAccountUpdate(account("account.created", 0, "0.00"));
+        listener.onAccountUpdate(account("account.deleted", 2, "0.00"));
+        listener.onAccountUpdate(account("account.updated", 1, "50.00"));
+
+        assertTrue(accountViewRepository.findByClientId(CPF).isEmpty());
+    }
+
+    @Test
+    void redeliveredTransactionsAreRecordedOnce() throws Exception {
+        listener.onAccountUpdate(account("account.created", 0, "0.00"));
+        Message deposit = transaction("100.00");
+        Message withdrawal = transaction("-30.00");
+
+        listener.onTransactions(List.of(deposit, deposit), channel);
+        listener.onTransactions(List.of(withdrawal, deposit), channel);
+        listener.onTransactions(List.of(withdrawal), channel);
+
+        assertEquals(2, transactionViewRepository.count());
+        Long viewId = accountViewRepository.findByClientId(CPF).orElseThrow().getId();
+        DailyBalance day = dailyBalanceRepository.findByAccountIdAndDateBetweenOrderByDateAsc(viewId, DAY, DAY)
+                .get(0);
+        assertEquals(0, new BigDecimal("70.00").compareTo(day.getClosingBalance()));
+        assertEquals(2, day.getTxCount());
+    }
+
+    @Test
+    void concurrentConsumersConvergeOnTheNewestSnapshot() throws Exception {
+        listener.onAccountUpdate(account("account.created", 0, "0.00"));
+        List<Message> updates = new ArrayList<>();
+        for (int seq = 1; seq <= 200; seq++) {
+            updates.add(account("account.updated", seq, seq + ".00"));
+            updates.add(account("account.updated", seq, seq + ".00"));
+        }
+        Collections.shuffle(updates);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (Message update : updates) {
+                done.add(pool.submit(() -> listener.onAccountUpdate(update)));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertBalance("200.00");
+        assertEquals(1, accountViewRepository.count());
+    }
+
+    private void assertBalance(String expected) {
+        AccountView view = accountViewRepository.findByClientId(CPF).orElseThrow();
+        assertEquals(0, new BigDecimal(expected).compareTo(view.getBalance()), "saldo " + view.getBalance());
+    }
+
+    private Message account(String routingKey, long sequence, String balance) {
+        AccountEvent event = new AccountEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, UUID.randomUUID().toString(),
+                sequence, ACCOUNT_ID, CPF, "1234", new BigDecimal(balance), BigDecimal.ZERO, "98574307084",
+                DAY.atStartOfDay());
+        return message(eventCodec.encode(event, EventCodec.JSON), routingKey);
+    }
+
+    private Message transaction(String amount) {
+        TransactionEvent event = new TransactionEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, UUID.randomUUID().toString(),
+                1, null, CPF, "DEPOSITO", new BigDecimal(amount), LocalDateTime.of(DAY, LocalTime.NOON), null, CPF);
+        return message(eventCodec.encode(event, EventCodec.JSON), "transaction.created");
+    }
+
+    private Message message(byte[] body, String routingKey) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventCodec.JSON);
+        properties.setReceivedRoutingKey(routingKey);
+        return new Message(body, properties);
+    }
+}
@@ -0,0 +1,161 @@
+package br.ufpr.account_query_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import com.rabbitmq.client.Channel;
+
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_events.CqrsEvent;
+import br.ufpr.account_events.EventCodec;
+import br.ufpr.account_events.TransactionEvent;
+import br.ufpr.account_query_service.consumer.CqrsListener;
+import br.ufpr.account_query_service.model.AccountView;
+import br.ufpr.account_query_service.repository.AccountViewRepository;
+import br.ufpr.account_query_service.repository.DailyBalanceRepository;
+import br.ufpr.account_query_service.repository.TransactionViewRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:identity_cache;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "INIT=CREATE SCHEMA IF NOT EXISTS account_query_schema")
+@ActiveProfiles("h2")
+class AccountIdentityCacheTest {
+
+    private static final int ACCOUNTS = 10;
+
+    private final Channel channel = mock(Channel.class);
+
+    @MockitoSpyBean
+    private AccountViewRepository accountViewRepository;
+
+    @Autowired
+    private TransactionViewRepository transactionViewRepository;
+
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Autowired
+    private AccountIdentityCache identityCache;
+
+    @Autowired
+    private AccountQueryService accountQueryService;
+
+    @Autowired
+    private CqrsListener listener;
+
+    @Autowired
+    private EventCodec eventCodec;
+
+    @Autowired
+    private MeterRegistry meters;
+
+    @BeforeEach
+    void setUp() {
+        dailyBalanceRepository.deleteAll();
+        transactionViewRepository.deleteAll();
+        accountViewRepository.deleteAll();
+        identityCache.clear();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            AccountView account = new AccountView();
+            account.setClientId(cpf(i));
+            account.setAccountNumber(String.format("%04d", i));
+            account.setBalance(BigDecimal.ZERO);
+            account.setLimit(BigDecimal.ZERO);
+            account.setManagerId("98574307084");
+            accountViewRepository.save(account);
+        }
+        clearInvocations(accountViewRepository);
+    }
+
+    @Test
+    void steadyStateTransactionsDoNotLookUpAccounts() throws Exception {
+        listener.onTransactions(transfers(), channel);
+        verify(accountViewRepository, times(1)).findByClientIdIn(anyCollection());
+
+        clearInvocations(accountViewRepository);
+        double before = hits();
+        listener.onTransactions(transfers(), channel);
+        listener.onTransactions(transfers(), channel);
+
+        verify(accountViewRepository, never()).findByClientIdIn(anyCollection());
+        verify(accountViewRepository, never()).findByClientId(anyString());
+        assertEquals(2 * ACCOUNTS, hits() - before);
+        assertEquals(3 * ACCOUNTS, transactionViewRepository.count());
+    }
+
+    @Test
+    void accountEventsKeepTheCacheCurrent() {
+        listener.onAccountUpdate(accountMessage("account.created", "77777777777", "7777"));
+        clearInvocations(accountViewRepository);
+
+        AccountIdentityCache.Identity identity = identityCache.get("77777777777");
+        assertNotNull(identity);
+        assertEquals("7777", identity.accountNumber());
+        assertEquals("7777", accountQueryService.getAccountByCpf("77777777777").getAccountNumber());
+        verify(accountViewRepository, never()).findByClientIdIn(anyCollection());
+        verify(accountViewRepository, times(1)).findById(any());
+
+        listener.onAccountUpdate(accountMessage("account.deleted", "77777777777", "7777"));
+        assertNull(identityCache.get("77777777777"));
+    }
+
+    private List<Message> transfers() {
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i += 2) {
+            batch.add(transaction(cpf(i), "TRANSFERENCIA_ENVIADA", "-1.00", cpf(i), cpf(i + 1)));
+            batch.add(transaction(cpf(i + 1), "TRANSFERENCIA_RECEBIDA", "1.00", cpf(i), cpf(i + 1)));
+        }
+        return batch;
+    }
+
+    private Message transaction(String owner, String type, String amount, String origin, String destination) {
+        TransactionEvent event = new TransactionEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, UUID.randomUUID().toString(),
+                1, null, owner, type, new BigDecimal(amount), LocalDateTime.now(), origin, destination);
+        return message(eventCodec.encode(event, EventCodec.JSON), null);
+    }
+
+    private Message accountMessage(String routingKey, String cpf, String number) {
+        AccountEvent event = new AccountEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, UUID.randomUUID().toString(), 1,
+                null, cpf, number, BigDecimal.ZERO, BigDecimal.ZERO, "98574307084", LocalDateTime.now());
+        return message(eventCodec.encode(event, EventCodec.JSON), routingKey);
+    }
+
+    private Message message(byte[] body, String routingKey) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventCodec.JSON);
+        properties.setReceivedRoutingKey(routingKey);
+        return new Message(body, properties);
+    }
+
+    private double hits() {
+        return meters.get("account.identity.cache.gets").tag("result", "hit").functionCounter().count();
+    }
+
+    private static String cpf(int i) {
+        return String.format("%011d", i);
+    }
+}
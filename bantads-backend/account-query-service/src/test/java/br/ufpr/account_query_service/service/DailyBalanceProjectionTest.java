@@ -0,0 +1,142 @@
+package br.ufpr.account_query_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ufpr.account_query_service.dto.DailyBalanceDTO;
+import br.ufpr.account_query_service.model.AccountView;
+import br.ufpr.account_query_service.model.DailyBalance;
+import br.ufpr.account_query_service.model.TransactionView;
+import br.ufpr.account_query_service.repository.AccountViewRepository;
+import br.ufpr.account_query_service.repository.DailyBalanceRepository;
+import br.ufpr.account_query_service.repository.TransactionViewRepository;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:daily_balance;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "INIT=CREATE SCHEMA IF NOT EXISTS account_query_schema")
+@ActiveProfiles("h2")
+class DailyBalanceProjectionTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private DailyBalanceProjection projection;
+
+    @Autowired
+    private AccountQueryService accountQueryService;
+
+    @Autowired
+    private AccountViewRepository accountViewRepository;
+
+    @Autowired
+    private TransactionViewRepository transactionViewRepository;
+
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private AccountView account;
+
+    @BeforeEach
+    void setUp() {
+        dailyBalanceRepository.deleteAll();
+        transactionViewRepository.deleteAll();
+        accountViewRepository.deleteAll();
+
+        account = new AccountView();
+        account.setClientId("12345678901");
+        account.setAccountNumber("1234");
+        account.setBalance(BigDecimal.ZERO);
+        account.setLimit(BigDecimal.ZERO);
+        account.setCreationDate(DAY.minusDays(5).atStartOfDay());
+        account = accountViewRepository.save(account);
+    }
+
+    @Test
+    void lateTransactionRipplesIntoLaterClosings() {
+        record(DAY, "DEPOSITO", "100.00");
+        record(DAY.plusDays(2), "SAQUE", "-30.00");
+        // Chega depois do saque, mas aconteceu antes dele.
+        record(DAY.plusDays(1), "DEPOSITO", "50.00");
+
+        List<DailyBalanceDTO> statement = accountQueryService.getStatement("1234",
+                DAY.minusDays(1).toString(), DAY.plusDays(3).toString());
+
+        assertEquals(5, statement.size());
+        assertBalance("0", statement.get(0));
+        assertBalance("100.00", statement.get(1));
+        assertBalance("150.00", statement.get(2));
+        assertBalance("120.00", statement.get(3));
+        assertBalance("120.00", statement.get(4));
+        assertEquals(1, statement.get(3).getMovimentacoes().size());
+    }
+
+    @Test
+    void opensTheRangeWithTheLastClosingBeforeIt() {
+        record(DAY.minusDays(400), "DEPOSITO", "1000.00");
+        record(DAY.minusDays(3), "SAQUE", "-200.00");
+        record(DAY, "DEPOSITO", "10.00");
+        record(DAY, "DEPOSITO", "5.00");
+
+        List<DailyBalanceDTO> statement = accountQueryService.getStatement("1234",
+                DAY.minusDays(1).toString(), DAY.toString());
+
+        assertBalance("800.00", statement.get(0));
+        assertBalance("815.00", statement.get(1));
+        assertEquals(2, statement.get(1).getMovimentacoes().size());
+        DailyBalance day = dailyBalanceRepository
+                .findFirstByAccountIdAndDateLessThanOrderByDateDesc(account.getId(), DAY.plusDays(1))
+                .orElseThrow();
+        assertEquals(2, day.getTxCount());
+    }
+
+    @Test
+    void backfillMatchesTheIncrementalProjection() {
+        record(DAY, "DEPOSITO", "100.00");
+        record(DAY.plusDays(2), "SAQUE", "-30.00");
+        record(DAY.plusDays(1), "DEPOSITO", "50.00");
+        record(DAY.plusDays(1), "DEPOSITO", "7.50");
+        List<DailyBalance> incremental = dailyBalanceRepository
+                .findByAccountIdAndDateBetweenOrderByDateAsc(account.getId(), DAY, DAY.plusDays(2));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyBalanceRepository.clear();
+            dailyBalanceRepository.rebuildFromTransactions();
+        });
+        List<DailyBalance> rebuilt = dailyBalanceRepository
+                .findByAccountIdAndDateBetweenOrderByDateAsc(account.getId(), DAY, DAY.plusDays(2));
+
+        assertEquals(3, rebuilt.size());
+        for (int i = 0; i < rebuilt.size(); i++) {
+            assertEquals(incremental.get(i).getDate(), rebuilt.get(i).getDate());
+            assertEquals(0, incremental.get(i).getClosingBalance().compareTo(rebuilt.get(i).getClosingBalance()));
+            assertEquals(incremental.get(i).getTxCount(), rebuilt.get(i).getTxCount());
+        }
+    }
+
+    private void record(LocalDate date, String type, String amount) {
+        TransactionView tx = new TransactionView();
+        tx.setAccountId(account.getId());
+        tx.setTimestamp(date.atTime(12, 0));
+        tx.setType(type);
+        tx.setAmount(new BigDecimal(amount));
+        projection.record(tx);
+    }
+
+    private void assertBalance(String expected, DailyBalanceDTO day) {
+        assertEquals(0, new BigDecimal(expected).compareTo(day.getSaldoDoDia()),
+                day.getData() + ": " + day.getSaldoDoDia());
+    }
+}
@@ -0,0 +1,276 @@
+package br.ufpr.account_query_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.rabbitmq.client.Channel;
+
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_events.CqrsEvent;
+import br.ufpr.account_events.EventCodec;
+import br.ufpr.account_events.ReplayPage;
+import br.ufpr.account_events.TransactionEvent;
+import br.ufpr.account_query_service.consumer.CqrsListener;
+import br.ufpr.account_query_service.dto.RebuildStatusDTO;
+import br.ufpr.account_query_service.model.AccountView;
+import br.ufpr.account_query_service.model.DailyBalance;
+import br.ufpr.account_query_service.model.TransactionView;
+import br.ufpr.account_query_service.repository.AccountEventWatermarkRepository;
+import br.ufpr.account_query_service.repository.AccountViewRepository;
+import br.ufpr.account_query_service.repository.DailyBalanceRepository;
+import br.ufpr.account_query_service.repository.TransactionViewRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:projection_rebuild;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS account_query_schema",
+        "account.rebuild.threads=4",
+        "account.rebuild.account-page-size=16",
+        "account.rebuild.transaction-page-size=7" })
+@ActiveProfiles("h2")
+class ProjectionRebuildTest {
+
+    private static final int ACCOUNTS = 120;
+    private static final long FIRST_ACCOUNT_ID = 1001;
+    private static final LocalDate DAY = LocalDate.of(2025, 4, 1);
+
+    private final Channel channel = mock(Channel.class);
+
+    @MockitoBean
+    private AccountReplayClient replayClient;
+
+    @Autowired
+    private ProjectionRebuild projectionRebuild;
+
+    @Autowired
+    private AccountQueryService accountQueryService;
+
+    @Autowired
+    private CqrsListener listener;
+
+    @Autowired
+    private EventCodec eventCodec;
+
+    @Autowired
+    private AccountViewRepository accountViewRepository;
+
+    @Autowired
+    private TransactionViewRepository transactionViewRepository;
+
+    @Autowired
+    private DailyBalanceRepository dailyBalanceRepository;
+
+    @Autowired
+    private AccountEventWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private AccountIdentityCache identityCache;
+
+    private final List<AccountEvent> accounts = new ArrayList<>();
+    private final List<TransactionEvent> transactions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        dailyBalanceRepository.deleteAll();
+        transactionViewRepository.deleteAll();
+        accountViewRepository.deleteAll();
+        watermarkRepository.deleteAll();
+        identityCache.clear();
+
+        // Projeção atual com uma conta que não existe mais no account-service.
+        listener.onAccountUpdate(message(account(1, "99999999999", "9999", 1, "5.00"), "account.created"));
+        accountQueryService.getAccountByCpf("99999999999");
+
+        accounts.clear();
+        transactions.clear();
+        long txId = 1;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            long id = FIRST_ACCOUNT_ID + i;
+            String cpf = cpf(i);
+            BigDecimal total = BigDecimal.ZERO;
+            for (int d = 0; d < i % 4; d++) {
+                transactions.add(tx(txId++, cpf, "DEPOSITO", "100.00", d, null, cpf));
+                transactions.add(tx(txId++, cpf, "SAQUE", "-30.00", d, cpf, null));
+                total = total.add(new BigDecimal("70.00"));
+            }
+            if (i % 10 == 0) {
+                // Transferência para uma conta de outra partição.
+                String other = cpf((i + 60) % ACCOUNTS);
+                transactions.add(tx(txId++, cpf, "TRANSFERENCIA_ENVIADA", "-10.00", 3, cpf, other));
+                total = total.subtract(new BigDecimal("10.00"));
+            }
+            accounts.add(account(id, cpf, String.format("%04d", i), 3 + i % 4, total.toPlainString()));
+        }
+        transactions.sort(Comparator.comparing((TransactionEvent t) -> accountId(t.contaCpf()))
+                .thenComparing(TransactionEvent::id));
+
+        when(replayClient.accounts(anyLong(), anyInt())).thenAnswer(inv -> accountPage(inv.getArgument(0),
+                inv.getArgument(1)));
+        when(replayClient.transactions(anyLong(), anyLong(), any(), anyInt())).thenAnswer(inv -> transactionPage(
+                inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+    }
+
+    @Test
+    void rebuildsTheWholeProjectionAndSwapsItIn() throws Exception {
+        assertTrue(projectionRebuild.start());
+        RebuildStatusDTO status = awaitFinished();
+
+        assertEquals("DONE", status.getEstado(), status.getErro());
+        assertEquals(ACCOUNTS, status.getContas());
+        assertEquals(transactions.size(), status.getTransacoes());
+        assertEquals(ACCOUNTS, accountViewRepository.count());
+        assertEquals(transactions.size(), transactionViewRepository.count());
+        assertTrue(accountViewRepository.findByClientId("99999999999").isEmpty());
+
+        // Conta 7: 3 dias com depósito e saque (70 por dia).
+        AccountView seventh = accountQueryService.getAccountByCpf(cpf(7));
+        assertEquals(FIRST_ACCOUNT_ID + 7, seventh.getId());
+        List<DailyBalance> days = dailyBalanceRepository.findByAccountIdAndDateBetweenOrderByDateAsc(
+                seventh.getId(), DAY, DAY.plusDays(5));
+        assertEquals(3, days.size());
+        assertEquals(0, new BigDecimal("210.00").compareTo(days.get(2).getClosingBalance()));
+        assertEquals(2, days.get(2).getTxCount());
+        assertEquals(6, watermarkRepository.findById(seventh.getId()).orElseThrow().getLastSequence());
+
+        // Conta 10 transferiu para a conta 70, de outra partição.
+        TransactionView transfer = transactionViewRepository.findByAccountIdAndTimestampBetweenOrderByTimestampAsc(
+                FIRST_ACCOUNT_ID + 10, DAY.atStartOfDay(), DAY.plusDays(5).atStartOfDay()).stream()
+                .filter(t -> "TRANSFERENCIA_ENVIADA".equals(t.getType())).findFirst().orElseThrow();
+        assertEquals("0010", transfer.getOriginClientId());
+        assertEquals("0070", transfer.getDestinationClientId());
+    }
+
+    @Test
+    void queuedEventsAreAppliedOnTopOfTheRebuiltProjection() throws Exception {
+        assertTrue(projectionRebuild.start());
+        assertEquals("DONE", awaitFinished().getEstado());
+
+        // Reentrega de uma transação já trazida pela reprodução e atualização
+        // mais antiga que o estado reproduzido: ambas descartadas.
+        TransactionEvent replayed = transactions.get(0);
+        listener.onTransactions(List.of(message(replayed, "transaction.created")), channel);
+        AccountEvent owner = accounts.get(1);
+        listener.onAccountUpdate(message(account(owner.id(), owner.clientCpf(), owner.numero(), 1, "0.00"),
+                "account.updated"));
+        assertEquals(transactions.size(), transactionViewRepository.count());
+        assertEquals(0, owner.saldo().compareTo(accountViewRepository.findById(owner.id()).orElseThrow().getBalance()));
+
+        // Conta e transação novas: ids gerados pela identidade e pela sequence
+        // recriadas no esquema novo.
+        listener.onAccountUpdate(message(account(5000, "55555555555", "5555", 0, "0.00"), "account.created"));
+        listener.onTransactions(List.of(message(tx(9000, "55555555555", "DEPOSITO", "40.00", 0, null, "55555555555"),
+                "transaction.created")), channel);
+        AccountView created = accountQueryService.getAccountByCpf("55555555555");
+        assertTrue(created.getId() > accounts.get(accounts.size() - 1).id());
+        assertEquals(transactions.size() + 1, transactionViewRepository.count());
+        assertEquals(1, accountQueryService.getStatement("5555", DAY.toString(), DAY.toString())
+                .get(0).getMovimentacoes().size());
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentProjection() throws Exception {
+        doThrow(new IllegalStateException("account-service indisponível"))
+                .when(replayClient).transactions(anyLong(), anyLong(), any(), anyInt());
+
+        assertTrue(projectionRebuild.start());
+        RebuildStatusDTO status = awaitFinished();
+
+        assertEquals("FAILED", status.getEstado());
+        assertEquals("account-service indisponível", status.getErro());
+        assertFalse(accountViewRepository.findByClientId("99999999999").isEmpty());
+        assertEquals(1, accountViewRepository.count());
+    }
+
+    @Test
+    void failureWithoutAMessageStillReportsWhatWentWrong() throws Exception {
+        doThrow(new NullPointerException())
+                .when(replayClient).transactions(anyLong(), anyLong(), any(), anyInt());
+
+        assertTrue(projectionRebuild.start());
+        RebuildStatusDTO status = awaitFinished();
+
+        assertEquals("FAILED", status.getEstado());
+        assertEquals(NullPointerException.class.getName(), status.getErro());
+    }
+
+    private RebuildStatusDTO awaitFinished() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (projectionRebuild.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertFalse(projectionRebuild.isRunning(), "reconstrução não terminou");
+        return projectionRebuild.status();
+    }
+
+    private ReplayPage<AccountEvent> accountPage(long after, int limit) {
+        List<AccountEvent> page = accounts.stream().filter(a -> a.id() > after).limit(limit).toList();
+        return new ReplayPage<>(page, page.size() < limit ? null : String.valueOf(page.get(page.size() - 1).id()));
+    }
+
+    private ReplayPage<TransactionEvent> transactionPage(long first, long last, String cursor, int limit) {
+        long afterAccount = cursor == null ? first : Long.parseLong(cursor.split(":")[0]);
+        long afterId = cursor == null ? Long.MIN_VALUE : Long.parseLong(cursor.split(":")[1]);
+        List<TransactionEvent> page = transactions.stream()
+                .filter(t -> {
+                    long account = accountId(t.contaCpf());
+                    return account >= afterAccount && account <= last && (account > afterAccount || t.id() > afterId);
+                })
+                .limit(limit).toList();
+        String next = null;
+        if (page.size() == limit) {
+            TransactionEvent tail = page.get(page.size() - 1);
+            next = accountId(tail.contaCpf()) + ":" + tail.id();
+        }
+        return new ReplayPage<>(page, next);
+    }
+
+    private static String cpf(int index) {
+        return String.format("%011d", index + 1);
+    }
+
+    private static long accountId(String cpf) {
+        return FIRST_ACCOUNT_ID + Long.parseLong(cpf) - 1;
+    }
+
+    private static AccountEvent account(long id, String cpf, String number, long sequence, String balance) {
+        return new AccountEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, UUID.randomUUID().toString(), sequence, id, cpf,
+                number, new BigDecimal(balance), BigDecimal.ZERO, "98574307084", DAY.atStartOfDay());
+    }
+
+    private static TransactionEvent tx(long id, String owner, String type, String amount, int day, String origin,
+            String destination) {
+        return new TransactionEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, TransactionEvent.eventIdFor(id), 0, id, owner,
+                type, new BigDecimal(amount), LocalDateTime.of(DAY.plusDays(day), java.time.LocalTime.NOON),
+                origin, destination);
+    }
+
+    private Message message(CqrsEvent event, String routingKey) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(EventCodec.JSON);
+        properties.setReceivedRoutingKey(routingKey);
+        return new Message(eventCodec.encode(event, EventCodec.JSON), properties);
+    }
+}
@@ -0,0 +1,43 @@
+package br.ufpr.account_service.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.ManagerLoadRepository;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Num banco que já tinha contas antes de manager_load existir, preenche a
+ * tabela uma vez a partir das contas. Depois disso ela é mantida pelas
+ * operações que criam, movem e removem contas.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class ManagerLoadBackfill {
+
+    @Autowired
+    private ManagerLoadRepository managerLoadRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            Integer rebuilt = transactionTemplate.execute(status -> {
+                if (managerLoadRepository.count() > 0 || accountRepository.count() == 0)
+                    return 0;
+                return managerLoadRepository.rebuildFromAccounts();
+            });
+            if (rebuilt != null && rebuilt > 0) {
+                System.out.println("manager_load preenchida com " + rebuilt + " gerentes");
+            }
+        } catch (Exception ex) {
+            System.err.println("Falha ao preencher manager_load: " + ex.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package br.ufpr.account_service.config;
 
+import br.ufpr.account_events.EventCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
@@ -25,6 +26,11 @@ public class RabbitConfig {
     @Value("${rabbit.account.updatelimit.key:saga.account.updatelimit}")
     private String updateLimitKey;
 
+    @Value("${rabbit.account.delete.queue:account.delete.queue}")
+    private String deleteAccountQueue;
+    @Value("${rabbit.account.delete.key:saga.account.delete}")
+    private String deleteAccountKey;
+
     @Value("${rabbit.account.created.key:saga.account.created}")
     private String accountCreatedKey;
     @Value("${rabbit.account.create-failed.key:saga.account.create-failed}")
@@ -72,11 +78,27 @@ public class RabbitConfig {
         return BindingBuilder.bind(updateLimitQueue).to(sagaExchange).with(updateLimitKey);
     }
 
+    @Bean
+    public Queue deleteAccountQueue() {
+        return QueueBuilder.durable(deleteAccountQueue).build();
+    }
+
+    @Bean
+    public Binding bindDeleteAccount(Queue deleteAccountQueue, TopicExchange sagaExchange) {
+        return BindingBuilder.bind(deleteAccountQueue).to(sagaExchange).with(deleteAccountKey);
+    }
+
     @Bean
     public Jackson2JsonMessageConverter jsonConverter(ObjectMapper mapper) {
         return new Jackson2JsonMessageConverter(mapper);
     }
 
+    /** Serializador dos eventos CQRS (contratos do módulo account-events). */
+    @Bean
+    public EventCodec eventCodec() {
+        return new EventCodec();
+    }
+
     @Bean
     public Queue accountManagerCreatedQueue() {
         return QueueBuilder.durable(accountManagerCreatedQueueName).build();
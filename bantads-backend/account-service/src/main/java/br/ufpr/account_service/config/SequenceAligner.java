@@ -0,0 +1,53 @@
+package br.ufpr.account_service.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * As tabelas account, transactions, outbox_event e record usavam IDENTITY.
+ * Num banco que já tem linhas, as sequences novas começariam em 1 e
+ * colidiriam com os ids existentes; antes do primeiro INSERT, avança cada
+ * sequence para depois do maior id da tabela. Só age no PostgreSQL.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenceAligner {
+
+    private static final String[][] SEQUENCES = {
+            { "account_schema.account_seq", "account_schema.account" },
+            { "account_schema.transactions_seq", "account_schema.transactions" },
+            { "account_schema.outbox_event_seq", "account_schema.outbox_event" },
+            { "account_schema.record_seq", "account_schema.record" } };
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PostConstruct
+    public void align() {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()))
+                return;
+            for (String[] sequence : SEQUENCES) {
+                // O otimizador pooled trata o valor da sequence como o topo do bloco
+                // reservado, então o próximo bloco precisa começar acima do maior id.
+                String sql = "SELECT setval('" + sequence[0] + "', GREATEST("
+                        + "(SELECT COALESCE(MAX(id), 0) FROM " + sequence[1] + ") + 50, "
+                        + "(SELECT last_value FROM " + sequence[0] + ")))";
+                try (ResultSet rs = statement.executeQuery(sql)) {
+                    rs.next();
+                }
+            }
+        } catch (Exception ex) {
+            System.err.println("Falha ao alinhar sequences com os ids existentes: " + ex.getMessage());
+        }
+    }
+}
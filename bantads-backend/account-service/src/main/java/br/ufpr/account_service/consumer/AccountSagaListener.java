@@ -4,7 +4,6 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
 
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -18,6 +17,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import br.ufpr.account_service.config.RabbitConfig;
 import br.ufpr.account_service.model.Account;
 import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.service.AccountNumberAllocator;
 import br.ufpr.account_service.service.AccountService;
 
 @Component
@@ -33,6 +33,8 @@ public class AccountSagaListener {
     private ObjectMapper mapper;
     @Autowired
     private RabbitConfig rabbitConfig;
+    @Autowired
+    private AccountNumberAllocator accountNumberAllocator;
 
     @Value("${rabbit.saga.exchange:saga.exchange}")
     private String sagaExchange;
@@ -62,7 +64,7 @@ public class AccountSagaListener {
                 limit = salary.divide(new BigDecimal("2"), 2, java.math.RoundingMode.HALF_UP);
             }
 
-            String accountNumber = String.format("%04d", new Random().nextInt(10000));
+            String accountNumber = accountNumberAllocator.next();
 
             Account account = new Account();
             account.setClientId(clientId);
@@ -72,7 +74,7 @@ public class AccountSagaListener {
             account.setAccountLimit(limit);
             account.setManager(managerId);
 
-            Account savedAccount = accountRepository.save(account);
+            Account savedAccount = accountService.openAccount(account);
 
             Map<String, Object> accountData = Map.of(
                     "accountNumber", savedAccount.getAccountNumber(),
@@ -88,14 +90,6 @@ public class AccountSagaListener {
                 m.getMessageProperties().setCorrelationId(correlationId);
                 return m;
             });
-            Map<String, Object> cqrsEvent = Map.of(
-                    "clientCpf", savedAccount.getClientId(),
-                    "numero", savedAccount.getAccountNumber(),
-                    "saldo", savedAccount.getBalance(),
-                    "limite", savedAccount.getAccountLimit(),
-                    "managerCpf", savedAccount.getManager(),
-                    "dataCriacao", savedAccount.getCreationDate());
-            accountService.publishCqrsEvent("account.created", cqrsEvent);
 
         } catch (Exception ex) {
             rabbitTemplate.convertAndSend(sagaExchange, rabbitConfig.getAccountCreateFailedKey(),
@@ -134,7 +128,6 @@ public class AccountSagaListener {
                 m.getMessageProperties().setCorrelationId(correlationId);
                 return m;
             });
-            accountService.publishCqrsEvent("account.updated", updatedAccount);
 
         } catch (Exception ex) {
             System.err.println("Erro ao atualizar limite: " + ex.getMessage());
@@ -146,6 +139,25 @@ public class AccountSagaListener {
         }
     }
 
+    /**
+     * Compensação enviada pelo orquestrador quando a aprovação falha ou expira
+     * depois que a conta foi criada. Não há resposta: o orquestrador já marcou a
+     * saga como falha.
+     */
+    @RabbitListener(queues = "${rabbit.account.delete.queue:account.delete.queue}")
+    public void handleDeleteAccount(Message message) throws Exception {
+        String correlationId = message.getMessageProperties().getCorrelationId();
+        Map<String, Object> payload = mapper.readValue(message.getBody(), Map.class);
+
+        try {
+            String clientId = (String) payload.get("clientId");
+            System.out.println("Compensação de conta correlationId=" + correlationId + " clientId=" + clientId);
+            accountService.deleteAccountForCompensation(clientId);
+        } catch (Exception ex) {
+            System.err.println("Erro ao compensar criação de conta: " + ex.getMessage());
+        }
+    }
+
     @RabbitListener(queues = "${rabbit.account.manager.created.queue}")
     public void handleManagerCreated(Message message) throws Exception {
         String correlationId = message.getMessageProperties().getCorrelationId();
@@ -166,16 +178,6 @@ public class AccountSagaListener {
             if (updatedAccount != null) {
                 System.out.println("Conta " + updatedAccount.getAccountNumber() + " transferida.");
 
-                // Atualiza CQRS
-                Map<String, Object> cqrsEvent = Map.of(
-                        "clientCpf", updatedAccount.getClientId(),
-                        "numero", updatedAccount.getAccountNumber(),
-                        "saldo", updatedAccount.getBalance(),
-                        "limite", updatedAccount.getAccountLimit(),
-                        "managerCpf", updatedAccount.getManager(),
-                        "dataCriacao", updatedAccount.getCreationDate().toString());
-                accountService.publishCqrsEvent("account.updated", cqrsEvent);
-
                 // Adiciona info da conta transferida para o Saga saber
                 responsePayload.put("transferredAccount", updatedAccount.getAccountNumber());
                 responsePayload.put("message", "Gerente assumiu conta existente com sucesso.");
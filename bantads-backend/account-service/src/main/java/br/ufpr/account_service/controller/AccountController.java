@@ -1,10 +1,13 @@
 package br.ufpr.account_service.controller;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,51 +17,76 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import br.ufpr.account_service.dto.BalanceAsOfDTO;
 import br.ufpr.account_service.dto.BalanceDTO;
+import br.ufpr.account_service.dto.BatchTransferRequestDTO;
 import br.ufpr.account_service.dto.TransactionRequestDTO;
 import br.ufpr.account_service.dto.TransferRequestDTO;
 import br.ufpr.account_service.model.Account;
 import br.ufpr.account_service.service.AccountService;
+import br.ufpr.account_service.service.IdempotencyService;
 import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/contas")
 public class AccountController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @GetMapping("/{id}/saldo")
     public ResponseEntity<BalanceDTO> getBalance(@PathVariable("id") String accountNumber) {
         BalanceDTO balanceDTO = accountService.getBalance(accountNumber);
         return ResponseEntity.ok(balanceDTO);
     }
 
+    @GetMapping("/{conta}/saldo/{data}")
+    public ResponseEntity<BalanceAsOfDTO> getBalanceAsOf(
+            @PathVariable("conta") String accountNumber,
+            @PathVariable("data") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(accountService.getBalanceAsOf(accountNumber, date));
+    }
+
     @PostMapping("/{id}/depositar")
-    public ResponseEntity<Account> deposit(
+    public ResponseEntity<?> deposit(
             @PathVariable("id") String id,
             @RequestHeader("X-User-CPF") String authenticatedCpf,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody TransactionRequestDTO request) {
 
-        Account updatedAccount = accountService.deposit(authenticatedCpf, request.getValor());
-        return ResponseEntity.ok(updatedAccount);
+        return idempotencyService.execute(authenticatedCpf, idempotencyKey,
+                "depositar:" + amount(request.getValor()),
+                () -> ResponseEntity.ok(accountService.deposit(authenticatedCpf, request.getValor())));
     }
 
     @PostMapping("/{conta}/sacar")
-    public ResponseEntity<Account> withdraw(
+    public ResponseEntity<?> withdraw(
             @RequestHeader("X-User-CPF") String authenticatedCpf,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody TransactionRequestDTO request) {
 
-        Account updatedAccount = accountService.withdraw(authenticatedCpf, request.getValor());
-
-        return ResponseEntity.ok(updatedAccount);
+        return idempotencyService.execute(authenticatedCpf, idempotencyKey,
+                "sacar:" + amount(request.getValor()),
+                () -> ResponseEntity.ok(accountService.withdraw(authenticatedCpf, request.getValor())));
     }
 
     @PostMapping("/{conta}/transferir")
-    public ResponseEntity<Map<String, Object>> transfer(
+    public ResponseEntity<?> transfer(
             @RequestHeader("X-User-CPF") String authenticatedCpf,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             @Valid @RequestBody TransferRequestDTO request) {
 
+        return idempotencyService.execute(authenticatedCpf, idempotencyKey,
+                "transferir:" + request.getDestinationAccountNumber() + ":" + amount(request.getValor()),
+                () -> ResponseEntity.ok(transfer(authenticatedCpf, request)));
+    }
+
+    private Map<String, Object> transfer(String authenticatedCpf, TransferRequestDTO request) {
         Account updatedAccount = accountService.transfer(
                 authenticatedCpf,
                 request.getDestinationAccountNumber(),
@@ -70,8 +98,25 @@ public class AccountController {
         response.put("destino", request.getDestinationAccountNumber());
         response.put("valor", request.getValor());
         response.put("data", LocalDateTime.now().withNano(0).toString());
+        return response;
+    }
+
+    @PostMapping("/{conta}/transferir-lote")
+    public ResponseEntity<?> transferBatch(
+            @RequestHeader("X-User-CPF") String authenticatedCpf,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @Valid @RequestBody BatchTransferRequestDTO request) {
+
+        StringBuilder fingerprint = new StringBuilder("transferir-lote");
+        for (TransferRequestDTO item : request.getTransferencias()) {
+            fingerprint.append(':').append(item.getDestinationAccountNumber()).append('=').append(amount(item.getValor()));
+        }
+        return idempotencyService.execute(authenticatedCpf, idempotencyKey, fingerprint.toString(),
+                () -> ResponseEntity.ok(accountService.transferBatch(authenticatedCpf, request.getTransferencias())));
+    }
 
-        return ResponseEntity.ok(response);
+    private static String amount(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
     }
 
     @PostMapping("/reboot")
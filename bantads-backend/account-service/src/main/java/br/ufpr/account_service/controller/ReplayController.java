@@ -0,0 +1,47 @@
+package br.ufpr.account_service.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_events.ReplayPage;
+import br.ufpr.account_events.TransactionEvent;
+import br.ufpr.account_service.service.AccountService;
+
+/**
+ * Fonte de reprodução usada pelo account-query-service para reconstruir a
+ * projeção. Uso interno: o gateway não encaminha /replay.
+ */
+@RestController
+@RequestMapping("/replay")
+public class ReplayController {
+
+    private static final int MAX_PAGE_SIZE = 10000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @GetMapping("/contas")
+    public ResponseEntity<ReplayPage<AccountEvent>> replayAccounts(
+            @RequestParam(defaultValue = "0") long apos,
+            @RequestParam(defaultValue = "1000") int limite) {
+        return ResponseEntity.ok(accountService.replayAccounts(apos, pageSize(limite)));
+    }
+
+    @GetMapping("/transacoes")
+    public ResponseEntity<ReplayPage<TransactionEvent>> replayTransactions(
+            @RequestParam long contaInicial,
+            @RequestParam long contaFinal,
+            @RequestParam(required = false) String apos,
+            @RequestParam(defaultValue = "5000") int limite) {
+        return ResponseEntity.ok(accountService.replayTransactions(contaInicial, contaFinal, apos, pageSize(limite)));
+    }
+
+    private static int pageSize(int limite) {
+        return Math.max(1, Math.min(limite, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,26 @@
+package br.ufpr.account_service.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Saldo ao fim de {@code data}. {@code fechamento} é o dia do fechamento usado
+ * como base (nulo quando ainda não havia fechamento e o cálculo partiu do saldo
+ * atual); {@code movimentacao} é o que foi somado a ele.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceAsOfDTO {
+
+    private String cliente;
+    private String conta;
+    private LocalDate data;
+    private BigDecimal saldo;
+    private LocalDate fechamento;
+    private BigDecimal movimentacao;
+}
@@ -0,0 +1,24 @@
+package br.ufpr.account_service.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+public class BatchTransferRequestDTO {
+
+    @NotEmpty(message = "O lote deve ter ao menos uma transferência")
+    @Valid
+    @JsonProperty("transferencias")
+    private List<TransferRequestDTO> transferencias;
+
+    public List<TransferRequestDTO> getTransferencias() {
+        return transferencias;
+    }
+
+    public void setTransferencias(List<TransferRequestDTO> transferencias) {
+        this.transferencias = transferencias;
+    }
+}
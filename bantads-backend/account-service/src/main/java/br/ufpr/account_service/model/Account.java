@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.CascadeType;
@@ -14,21 +15,28 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "account", schema = "account_schema")
+@Table(name = "account", schema = "account_schema", indexes = {
+        @Index(name = "idx_account_manager_balance", columnList = "manager, balance") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", schema = "account_schema",
+            allocationSize = 50)
     private Long id;
 
     @Column(name = "client_id", nullable = false, length = 11, unique = true)
@@ -42,6 +50,15 @@ public class Account {
     @JsonProperty("data")
     private LocalDateTime creationDate;
 
+    /**
+     * Abertura da conta. {@link #creationDate} acompanha a última movimentação;
+     * esta data nunca muda depois do INSERT. Nula em contas gravadas antes da
+     * coluna existir.
+     */
+    @Column(name = "opened_at", updatable = false)
+    @JsonIgnore
+    private LocalDateTime openedAt;
+
     @Column(name = "balance", nullable = false)
     @JsonProperty("saldo")
     private BigDecimal balance;
@@ -52,6 +69,22 @@ public class Account {
     @Column(name = "manager", nullable = false, length = 100)
     private String manager;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private long version;
+
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<Transaction> transactions = new ArrayList<>();
+
+    @PrePersist
+    void defaultOpenedAt() {
+        if (openedAt == null)
+            openedAt = creationDate;
+    }
+
+    /** Se a conta já existia antes de {@code instant}; sem data de abertura, assume que sim. */
+    public boolean openedBefore(LocalDateTime instant) {
+        return openedAt == null || openedAt.isBefore(instant);
+    }
 }
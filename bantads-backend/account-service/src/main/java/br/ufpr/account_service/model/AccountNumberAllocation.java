@@ -0,0 +1,30 @@
+package br.ufpr.account_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Próximo número de conta ainda não reservado. Cada instância reserva um bloco
+ * avançando {@code nextValue} com a linha travada e distribui o bloco da
+ * memória.
+ */
+@Entity
+@Table(name = "account_number_allocation", schema = "account_schema")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountNumberAllocation {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
@@ -0,0 +1,46 @@
+package br.ufpr.account_service.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resposta de uma operação feita com {@code Idempotency-Key}. Enquanto a
+ * operação está em andamento o registro existe sem {@code statusCode}.
+ */
+@Entity
+@Table(name = "idempotency_record", schema = "account_schema", indexes = {
+        @Index(name = "idx_idempotency_record_expires_at", columnList = "expires_at") })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    /** CPF do cliente + ":" + chave enviada, para que clientes não colidam. */
+    @Id
+    @Column(name = "id", length = 255)
+    private String id;
+
+    /** SHA-256 da operação e dos valores enviados. */
+    @Column(name = "fingerprint", nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,28 @@
+package br.ufpr.account_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Quantidade de contas de cada gerente, mantida na mesma transação que cria,
+ * move ou remove a conta.
+ */
+@Entity
+@Table(name = "manager_load", schema = "account_schema")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ManagerLoad {
+
+    @Id
+    @Column(name = "manager", length = 100)
+    private String manager;
+
+    @Column(name = "account_count", nullable = false)
+    private long accountCount;
+}
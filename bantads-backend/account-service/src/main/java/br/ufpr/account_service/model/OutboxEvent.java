@@ -0,0 +1,70 @@
+package br.ufpr.account_service.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento CQRS gravado na mesma transação da operação que o gerou. O
+ * {@code OutboxRelay} publica os pendentes e preenche {@code publishedAt}, ou
+ * {@code failedAt} quando desiste do evento.
+ */
+@Entity
+@Table(name = "outbox_event", schema = "account_schema", indexes = {
+        @Index(name = "idx_outbox_event_pending", columnList = "published_at, id") })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", schema = "account_schema",
+            allocationSize = 50)
+    private Long id;
+
+    /** Vai como messageId da mensagem, para o consumidor descartar reentregas. */
+    @Column(name = "event_id", nullable = false, length = 36, unique = true)
+    private String eventId;
+
+    @Column(name = "exchange", nullable = false, length = 100)
+    private String exchange;
+
+    @Column(name = "routing_key", nullable = false, length = 100)
+    private String routingKey;
+
+    /** Corpo em JSON; vazio quando o evento foi gravado num formato binário. */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /** Content-type do corpo; nulo nos eventos gravados antes dele existir (JSON). */
+    @Column(name = "content_type", length = 60)
+    private String contentType;
+
+    /** Corpo em formato binário (Smile); nulo quando o corpo está em {@code payload}. */
+    @Column(name = "body", length = 1048576)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /** Quando o relay desistiu do evento; estacionado, não volta à fila. */
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+}
@@ -1,38 +1,52 @@
 package br.ufpr.account_service.model;
 
 import java.math.BigDecimal;
-import java.util.Date;
+import java.time.LocalDate;
 import java.util.List;
 
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
-import jakarta.persistence.Transient;
-import jakarta.persistence.*;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-import java.util.Date;
-
+/**
+ * Fechamento diário de uma conta: saldo ao fim de {@code date} e as
+ * transações do dia. O saldo em uma data passada parte do fechamento mais
+ * próximo em vez de somar todo o histórico.
+ */
 @Entity
-@Table(name = "record", schema = "account_schema")
+@Table(name = "record", schema = "account_schema", uniqueConstraints = @UniqueConstraint(
+        name = "uk_record_account_date", columnNames = { "account_id", "record_date" }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Record {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "record_seq")
+    @SequenceGenerator(name = "record_seq", sequenceName = "record_seq", schema = "account_schema",
+            allocationSize = 50)
     private Long id;
 
-    private Date date;
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "record_date")
+    private LocalDate date;
 
     private BigDecimal consolidatedBalance;
 
-    @Transient
-    private List<Transaction> transactions;
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "transaction_ids")
+    private List<Long> transactionIds;
 }
@@ -0,0 +1,20 @@
+package br.ufpr.account_service.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.ufpr.account_service.model.AccountNumberAllocation;
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface AccountNumberAllocationRepository extends JpaRepository<AccountNumberAllocation, Integer> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AccountNumberAllocation a WHERE a.id = :id")
+    Optional<AccountNumberAllocation> findByIdForUpdate(@Param("id") Integer id);
+}
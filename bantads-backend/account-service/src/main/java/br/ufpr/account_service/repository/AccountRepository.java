@@ -1,9 +1,14 @@
 package br.ufpr.account_service.repository;
 
 import br.ufpr.account_service.model.Account;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -14,37 +19,45 @@ public interface AccountRepository extends JpaRepository<Account, Long> {
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    @Query("SELECT a.accountNumber FROM Account a WHERE a.accountNumber IN :accountNumbers")
+    List<String> findExistingAccountNumbers(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    /** Página de contas depois de {@code id}, em ordem de id (paginação por chave). */
+    List<Account> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT a.id FROM Account a ORDER BY a.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT a.id FROM Account a WHERE a.clientId = :clientId")
+    Optional<Long> findIdByClientId(@Param("clientId") String clientId);
+
+    @Query("SELECT a.id FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * SELECT ... FOR UPDATE da conta. Quem trava mais de uma conta deve fazê-lo
+     * em ordem crescente de id, para que duas transferências opostas nunca
+     * esperem uma pela outra.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Trava várias contas de uma vez, na mesma ordem (id crescente) usada por
+     * {@link #findByIdForUpdate(Long)}.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id IN :ids ORDER BY a.id")
+    List<Account> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.accountNumber, a.id FROM Account a WHERE a.accountNumber IN :accountNumbers")
+    List<Object[]> findIdsByAccountNumbers(@Param("accountNumbers") Collection<String> accountNumbers);
+
     /**
-     * Esta query faz a mágica:
-     * 1. Calcula quantos clientes cada gerente tem.
-     * 2. Filtra apenas os gerentes que têm a contagem MÁXIMA de clientes.
-     * 3. Busca as contas desses gerentes que tenham saldo > 0.
-     * 4. Ordena pelo menor saldo.
+     * [id, balance] da conta de menor saldo positivo do gerente (no máximo uma
+     * linha); com o índice (manager, balance) é uma busca direta no índice.
      */
-    @Query(value = """
-        SELECT * FROM account_schema.account a
-        WHERE a.manager IN (
-            SELECT manager_counts.manager 
-            FROM (
-                SELECT manager, COUNT(*) as cnt 
-                FROM account_schema.account 
-                GROUP BY manager
-            ) manager_counts
-            WHERE manager_counts.cnt = (
-                SELECT MAX(cnt_inner) 
-                FROM (
-                    SELECT COUNT(*) as cnt_inner 
-                    FROM account_schema.account 
-                    GROUP BY manager
-                ) max_counts
-            )
-        )
-        AND a.balance > 0
-        ORDER BY a.balance ASC
-        LIMIT 1
-    """, nativeQuery = true)
-    Optional<Account> findAccountToReassign();
-
-    @Query("SELECT COUNT(DISTINCT a.manager) FROM Account a")
-    long countDistinctManagers();
-}
\ No newline at end of file
+    @Query("SELECT a.id, a.balance FROM Account a WHERE a.manager = :manager AND a.balance > 0 ORDER BY a.balance ASC LIMIT 1")
+    List<Object[]> findSmallestPositiveBalance(@Param("manager") String manager);
+}
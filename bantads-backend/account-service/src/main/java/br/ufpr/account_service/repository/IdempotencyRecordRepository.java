@@ -0,0 +1,53 @@
+package br.ufpr.account_service.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.ufpr.account_service.model.IdempotencyRecord;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Reserva a chave; devolve 0 se ela já existir. Só uma de duas requisições
+     * simultâneas com a mesma chave consegue a reserva. {@code expiresAt} é o
+     * fim da concessão; {@link #complete} o estende até o fim do TTL.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO account_schema.idempotency_record (id, fingerprint, created_at, expires_at)
+        VALUES (:id, :fingerprint, :createdAt, :expiresAt)
+        ON CONFLICT DO NOTHING
+    """, nativeQuery = true)
+    int claim(@Param("id") String id, @Param("fingerprint") String fingerprint,
+            @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.responseBody = :responseBody, "
+            + "r.expiresAt = :expiresAt WHERE r.id = :id")
+    int complete(@Param("id") String id, @Param("statusCode") int statusCode,
+            @Param("responseBody") String responseBody, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.statusCode IS NULL")
+    int release(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("id") String id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,54 @@
+package br.ufpr.account_service.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.ufpr.account_service.model.ManagerLoad;
+
+@Repository
+public interface ManagerLoadRepository extends JpaRepository<ManagerLoad, String> {
+
+    @Modifying
+    @Query(value = "UPDATE account_schema.manager_load SET account_count = account_count + :delta WHERE manager = :manager",
+            nativeQuery = true)
+    int adjust(@Param("manager") String manager, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO account_schema.manager_load (manager, account_count)
+        VALUES (:manager, :accountCount)
+        ON CONFLICT DO NOTHING
+    """, nativeQuery = true)
+    int insertIfAbsent(@Param("manager") String manager, @Param("accountCount") long accountCount);
+
+    /** Gerentes empatados com a maior carteira (vazio se ninguém tem conta). */
+    @Query("""
+        SELECT m.manager FROM ManagerLoad m
+        WHERE m.accountCount > 0
+          AND m.accountCount = (SELECT MAX(x.accountCount) FROM ManagerLoad x)
+    """)
+    List<String> findMostLoadedManagers();
+
+    @Query("SELECT COUNT(m) FROM ManagerLoad m WHERE m.accountCount > 0")
+    long countManagersWithAccounts();
+
+    @Query("SELECT COALESCE(SUM(m.accountCount), 0) FROM ManagerLoad m")
+    long countAccounts();
+
+    @Modifying
+    @Query(value = "DELETE FROM account_schema.manager_load", nativeQuery = true)
+    int clear();
+
+    /** Recalcula a tabela a partir das contas; usado no reboot e na primeira subida. */
+    @Modifying
+    @Query(value = """
+        INSERT INTO account_schema.manager_load (manager, account_count)
+        SELECT manager, COUNT(*) FROM account_schema.account GROUP BY manager
+    """, nativeQuery = true)
+    int rebuildFromAccounts();
+}
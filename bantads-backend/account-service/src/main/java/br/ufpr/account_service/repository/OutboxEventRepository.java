@@ -0,0 +1,46 @@
+package br.ufpr.account_service.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.ufpr.account_service.model.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Próximo lote pendente, na ordem de gravação. SKIP LOCKED deixa várias
+     * instâncias drenarem a tabela sem publicar o mesmo evento em paralelo.
+     */
+    @Query(value = """
+        SELECT * FROM account_schema.outbox_event
+        WHERE published_at IS NULL AND failed_at IS NULL
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+    """, nativeQuery = true)
+    List<OutboxEvent> lockPending(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.failedAt = :failedAt WHERE e.id IN :ids")
+    int markFailed(@Param("ids") Collection<Long> ids, @Param("failedAt") LocalDateTime failedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
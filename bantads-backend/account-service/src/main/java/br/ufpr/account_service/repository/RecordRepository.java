@@ -0,0 +1,24 @@
+package br.ufpr.account_service.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import br.ufpr.account_service.model.Record;
+
+@Repository
+public interface RecordRepository extends JpaRepository<Record, Long> {
+
+    /** Fechamento mais recente da conta até {@code date}, inclusive. */
+    Optional<Record> findFirstByAccountIdAndDateLessThanEqualOrderByDateDesc(Long accountId, LocalDate date);
+
+    @Query("SELECT r.accountId FROM Record r WHERE r.date = :date AND r.accountId IN :accountIds")
+    List<Long> findAccountIdsConsolidatedOn(@Param("date") LocalDate date,
+            @Param("accountIds") Collection<Long> accountIds);
+}
@@ -1,9 +1,64 @@
 package br.ufpr.account_service.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import br.ufpr.account_service.model.Account;
 import br.ufpr.account_service.model.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-}
\ No newline at end of file
+
+    boolean existsByAccount(Account account);
+
+    @Query("""
+        SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t
+        WHERE t.account.id = :accountId AND t.timestamp >= :from AND t.timestamp < :to
+    """)
+    BigDecimal sumAmountBetween(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM Transaction t WHERE t.account.id = :accountId AND t.timestamp >= :from")
+    BigDecimal sumAmountSince(@Param("accountId") Long accountId, @Param("from") LocalDateTime from);
+
+    /** [accountId, SUM(amount)] das contas com movimentação a partir de {@code from}. */
+    @Query("""
+        SELECT t.account.id, SUM(t.amount) FROM Transaction t
+        WHERE t.account.id IN :accountIds AND t.timestamp >= :from
+        GROUP BY t.account.id
+    """)
+    List<Object[]> sumAmountsSince(@Param("accountIds") Collection<Long> accountIds,
+            @Param("from") LocalDateTime from);
+
+    /** [accountId, id] das transações das contas no intervalo, em ordem de id. */
+    @Query("""
+        SELECT t.account.id, t.id FROM Transaction t
+        WHERE t.account.id IN :accountIds AND t.timestamp >= :from AND t.timestamp < :to
+        ORDER BY t.id
+    """)
+    List<Object[]> findIdsBetween(@Param("accountIds") Collection<Long> accountIds,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Página das transações das contas de {@code afterAccountId} até
+     * {@code lastAccountId}, em ordem de (conta, id), começando depois do
+     * cursor (afterAccountId, afterId). O limite inferior explícito em
+     * a.id deixa o banco percorrer o índice (account_id, timestamp) só no
+     * intervalo pedido.
+     */
+    @Query("""
+        SELECT t FROM Transaction t JOIN FETCH t.account a
+        WHERE a.id >= :afterAccountId AND a.id <= :lastAccountId
+          AND (a.id > :afterAccountId OR t.id > :afterId)
+        ORDER BY a.id, t.id
+    """)
+    List<Transaction> findReplayPage(@Param("afterAccountId") Long afterAccountId, @Param("afterId") Long afterId,
+            @Param("lastAccountId") Long lastAccountId, Limit limit);
+}
@@ -0,0 +1,127 @@
+package br.ufpr.account_service.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ufpr.account_service.model.AccountNumberAllocation;
+import br.ufpr.account_service.repository.AccountNumberAllocationRepository;
+import br.ufpr.account_service.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Distribui números de conta únicos sem consultar a tabela de contas a cada
+ * criação.
+ *
+ * Os números saem de um contador em {@code account_number_allocation}: cada
+ * instância reserva {@code account.number.block-size} valores de uma vez e os
+ * entrega da memória. O número tem {@code account.number.width} dígitos, o
+ * último sendo o dígito verificador (Luhn). Números de um bloco que já
+ * existam (contas antigas, de largura igual) são descartados na reserva.
+ */
+@Component
+public class AccountNumberAllocator {
+
+    @Autowired
+    private AccountNumberAllocationRepository allocationRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${account.number.width:8}")
+    private int width;
+
+    @Value("${account.number.block-size:100}")
+    private int blockSize;
+
+    private TransactionTemplate reserveTransaction;
+    private long maxBase;
+    private final Deque<String> available = new ArrayDeque<>();
+
+    @PostConstruct
+    public void init() {
+        if (width < 2 || width > 19) {
+            throw new IllegalStateException("account.number.width deve estar entre 2 e 19: " + width);
+        }
+        maxBase = (long) Math.pow(10, width - 1) - 1;
+        reserveTransaction = new TransactionTemplate(transactionManager);
+        reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public synchronized String next() {
+        while (available.isEmpty()) {
+            available.addAll(reserveBlock());
+        }
+        return available.poll();
+    }
+
+    private List<String> reserveBlock() {
+        long first;
+        try {
+            first = reserveTransaction.execute(status -> advance());
+        } catch (DataIntegrityViolationException ex) {
+            // Outra instância criou o contador ao mesmo tempo; agora ele existe.
+            first = reserveTransaction.execute(status -> advance());
+        }
+        if (first > maxBase) {
+            throw new IllegalStateException(
+                    "Números de conta com " + width + " dígitos esgotados; aumente account.number.width.");
+        }
+
+        List<String> block = new ArrayList<>(blockSize);
+        for (long base = first; base < first + blockSize && base <= maxBase; base++) {
+            block.add(format(base));
+        }
+        Set<String> taken = new HashSet<>(accountRepository.findExistingAccountNumbers(block));
+        block.removeIf(taken::contains);
+        return block;
+    }
+
+    private long advance() {
+        AccountNumberAllocation allocation = allocationRepository
+                .findByIdForUpdate(AccountNumberAllocation.SINGLETON_ID)
+                .orElse(null);
+        if (allocation == null) {
+            allocationRepository.saveAndFlush(
+                    new AccountNumberAllocation(AccountNumberAllocation.SINGLETON_ID, 1L + blockSize));
+            return 1L;
+        }
+        long first = allocation.getNextValue();
+        allocation.setNextValue(first + blockSize);
+        return first;
+    }
+
+    String format(long base) {
+        String digits = String.format("%0" + (width - 1) + "d", base);
+        return digits + checkDigit(digits);
+    }
+
+    /** Dígito verificador de Luhn: detecta um dígito errado e a troca de dois vizinhos. */
+    static int checkDigit(String digits) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int d = digits.charAt(i) - '0';
+            if (doubled) {
+                d *= 2;
+                if (d > 9)
+                    d -= 9;
+            }
+            sum += d;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
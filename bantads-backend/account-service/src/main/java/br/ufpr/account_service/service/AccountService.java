@@ -1,23 +1,50 @@
 package br.ufpr.account_service.service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_events.CqrsEvent;
+import br.ufpr.account_events.ReplayPage;
+import br.ufpr.account_events.TransactionBatchEvent;
+import br.ufpr.account_events.TransactionEvent;
+import br.ufpr.account_service.dto.BalanceAsOfDTO;
 import br.ufpr.account_service.dto.BalanceDTO;
+import br.ufpr.account_service.dto.TransferRequestDTO;
 import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.model.Record;
 import br.ufpr.account_service.model.Transaction;
 import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.ManagerLoadRepository;
+import br.ufpr.account_service.repository.RecordRepository;
 import br.ufpr.account_service.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.util.Optional;
 
 @Service
@@ -28,21 +55,134 @@ public class AccountService {
     @Autowired
     private TransactionRepository transactionRepository;
     @Autowired
-    private RabbitTemplate rabbitTemplate;
+    private RecordRepository recordRepository;
+    @Autowired
+    private ManagerLoadRepository managerLoadRepository;
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Value("${rabbit.account.events.exchange:account.events.exchange}")
     private String accountEventsExchange;
 
+    @Value("${account.optimistic.max-attempts:5}")
+    private int maxOptimisticAttempts;
+
+    @Value("${account.batch-transfer.max-items:1000}")
+    private int maxBatchTransferItems;
+
+    @Value("${account.deposit.combine.enabled:false}")
+    private boolean combineDeposits;
+
+    @Value("${account.deposit.combine.stripes:64}")
+    private int combineStripes;
+
+    @Value("${account.deposit.combine.threads:8}")
+    private int combineThreads;
+
+    @Value("${account.deposit.combine.max-batch:500}")
+    private int combineMaxBatch;
+
+    private ExecutorService combineExecutor;
+    private WriteCombiner<String, BigDecimal, Account> depositCombiner;
+
+    @PostConstruct
+    public void initDepositCombiner() {
+        if (!combineDeposits)
+            return;
+        AtomicInteger counter = new AtomicInteger();
+        combineExecutor = Executors.newFixedThreadPool(combineThreads, r -> {
+            Thread t = new Thread(r, "deposit-combiner-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        depositCombiner = new WriteCombiner<>(combineStripes, combineMaxBatch, combineExecutor, this::applyDeposits);
+        System.out.println("Depósitos agrupados por conta habilitados (" + combineStripes + " faixas, "
+                + combineThreads + " threads)");
+    }
+
+    @PreDestroy
+    public void shutdownDepositCombiner() {
+        if (combineExecutor != null)
+            combineExecutor.shutdown();
+    }
+
     private Account findAccountByClientCpf(String clientCpf) {
         return accountRepository.findByClientId(clientCpf)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
                         "Conta não encontrada para o cliente CPF: " + clientCpf));
     }
 
-    @Transactional
+    /**
+     * Depósito com controle otimista: se outra operação alterou a conta entre a
+     * leitura e o commit, a transação inteira é refeita (até
+     * {@code account.optimistic.max-attempts} vezes).
+     */
     public Account deposit(String clientCpf, BigDecimal amount) {
-        System.out.println(">>> DEBUG DEPOSIT: Iniciando deposito para CPF: " + clientCpf);
+        if (depositCombiner != null)
+            return awaitCombined(depositCombiner.submit(clientCpf, amount));
+        return withOptimisticRetry(() -> doDeposit(clientCpf, amount));
+    }
 
+    /**
+     * Depósitos agrupados ({@code account.deposit.combine.enabled}): aplica de
+     * uma vez os depósitos que se acumularam para a conta, com a linha travada,
+     * um único UPDATE de saldo e as transações em lote. Cada depósito recebe a
+     * conta com o saldo logo depois dele.
+     */
+    private List<Account> applyDeposits(String clientCpf, List<BigDecimal> amounts) {
+        return transactionTemplate.execute(status -> {
+            Long accountId = accountRepository.findIdByClientId(clientCpf)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                            "Conta não encontrada para o cliente CPF: " + clientCpf));
+            Account account = lockAccount(accountId);
+            LocalDateTime now = LocalDateTime.now().withNano(0);
+
+            BigDecimal balance = account.getBalance();
+            List<Transaction> transactions = new ArrayList<>(amounts.size());
+            List<Account> results = new ArrayList<>(amounts.size());
+            for (BigDecimal amount : amounts) {
+                balance = balance.add(amount);
+
+                Transaction tx = new Transaction();
+                tx.setAccount(account);
+                tx.setType("depósito");
+                tx.setAmount(amount);
+                tx.setTimestamp(now);
+                tx.setOriginClientId(account.getClientId());
+                transactions.add(tx);
+
+                results.add(new Account(account.getId(), account.getClientId(), account.getAccountNumber(), now,
+                        account.getOpenedAt(), balance, account.getAccountLimit(), account.getManager(),
+                        account.getVersion() + 1, new ArrayList<>()));
+            }
+
+            account.setBalance(balance);
+            account.setCreationDate(now);
+            transactionRepository.saveAll(transactions);
+            Account savedAccount = accountRepository.save(account);
+
+            publishCqrsEvent("account.updated", savedAccount);
+            for (Transaction tx : transactions) {
+                publishCqrsEvent("transaction.created", tx);
+            }
+            return results;
+        });
+    }
+
+    private Account awaitCombined(CompletableFuture<Account> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw ex;
+        }
+    }
+
+    private Account doDeposit(String clientCpf, BigDecimal amount) {
         Account account = findAccountByClientCpf(clientCpf);
         account.setBalance(account.getBalance().add(amount));
 
@@ -63,8 +203,11 @@ public class AccountService {
         return savedAccount;
     }
 
-    @Transactional
     public Account withdraw(String clientCpf, BigDecimal amount) {
+        return withOptimisticRetry(() -> doWithdraw(clientCpf, amount));
+    }
+
+    private Account doWithdraw(String clientCpf, BigDecimal amount) {
         Account account = findAccountByClientCpf(clientCpf);
 
         BigDecimal availableBalance = account.getBalance().add(account.getAccountLimit());
@@ -91,19 +234,34 @@ public class AccountService {
         return savedAccount;
     }
 
+    /**
+     * Transferência com as duas contas travadas (SELECT ... FOR UPDATE) sempre
+     * na ordem crescente de id: A→B e B→A simultâneas esperam uma pela outra
+     * em vez de entrar em deadlock, e o saldo é validado já com a linha travada.
+     */
     @Transactional
     public Account transfer(String clientCpf, String destinationAccountNumber, BigDecimal amount) {
-        Account originAccount = findAccountByClientCpf(clientCpf);
+        Long originId = accountRepository.findIdByClientId(clientCpf)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Conta não encontrada para o cliente CPF: " + clientCpf));
+        Long destId = accountRepository.findIdByAccountNumber(destinationAccountNumber)
+                .orElseThrow(
+                        () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conta de destino não encontrada."));
+        if (originId.equals(destId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Conta de destino deve ser diferente da conta de origem.");
+        }
+
+        Account first = lockAccount(Math.min(originId, destId));
+        Account second = lockAccount(Math.max(originId, destId));
+        Account originAccount = first.getId().equals(originId) ? first : second;
+        Account destAccount = first.getId().equals(destId) ? first : second;
 
         BigDecimal availableBalance = originAccount.getBalance().add(originAccount.getAccountLimit());
         if (availableBalance.compareTo(amount) < 0) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Saldo insuficiente para transferência.");
         }
         originAccount.setBalance(originAccount.getBalance().subtract(amount));
-
-        Account destAccount = accountRepository.findByAccountNumber(destinationAccountNumber)
-                .orElseThrow(
-                        () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conta de destino não encontrada."));
         destAccount.setBalance(destAccount.getBalance().add(amount));
 
         Transaction originTx = new Transaction();
@@ -135,6 +293,141 @@ public class AccountService {
         return savedOriginAccount;
     }
 
+    /**
+     * Várias transferências da mesma conta numa única transação: o total é
+     * conferido uma vez contra saldo + limite, todas as contas envolvidas são
+     * travadas juntas em ordem de id, as movimentações são gravadas em lote e
+     * os eventos CQRS saem numa única mensagem {@code transaction.batch-created}.
+     * Se qualquer item for inválido, nada é transferido.
+     */
+    @Transactional
+    public Map<String, Object> transferBatch(String clientCpf, List<TransferRequestDTO> items) {
+        if (items.size() > maxBatchTransferItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Lote acima do máximo de " + maxBatchTransferItems + " transferências.");
+        }
+        Long originId = accountRepository.findIdByClientId(clientCpf)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Conta não encontrada para o cliente CPF: " + clientCpf));
+
+        Set<String> destinationNumbers = new HashSet<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (TransferRequestDTO item : items) {
+            destinationNumbers.add(item.getDestinationAccountNumber());
+            total = total.add(item.getValor());
+        }
+
+        Map<String, Long> destinationIds = new HashMap<>();
+        for (Object[] row : accountRepository.findIdsByAccountNumbers(destinationNumbers)) {
+            destinationIds.put((String) row[0], (Long) row[1]);
+        }
+        if (destinationIds.size() < destinationNumbers.size()) {
+            destinationNumbers.removeAll(destinationIds.keySet());
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Conta de destino não encontrada: " + String.join(", ", destinationNumbers));
+        }
+        if (destinationIds.containsValue(originId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Conta de destino deve ser diferente da conta de origem.");
+        }
+
+        Set<Long> ids = new HashSet<>(destinationIds.values());
+        ids.add(originId);
+        Map<Long, Account> locked = new HashMap<>();
+        for (Account account : accountRepository.findAllByIdForUpdate(ids)) {
+            locked.put(account.getId(), account);
+        }
+        Account originAccount = locked.get(originId);
+
+        BigDecimal availableBalance = originAccount.getBalance().add(originAccount.getAccountLimit());
+        if (availableBalance.compareTo(total) < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Saldo insuficiente para o lote de transferências.");
+        }
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<Transaction> transactions = new ArrayList<>(items.size() * 2);
+        for (TransferRequestDTO item : items) {
+            Account destAccount = locked.get(destinationIds.get(item.getDestinationAccountNumber()));
+            BigDecimal amount = item.getValor();
+            originAccount.setBalance(originAccount.getBalance().subtract(amount));
+            destAccount.setBalance(destAccount.getBalance().add(amount));
+
+            Transaction originTx = new Transaction();
+            originTx.setAccount(originAccount);
+            originTx.setType("TRANSFERENCIA_ENVIADA");
+            originTx.setAmount(amount.negate());
+            originTx.setOriginClientId(originAccount.getClientId());
+            originTx.setDestinationClientId(destAccount.getClientId());
+            originTx.setTimestamp(now);
+            transactions.add(originTx);
+
+            Transaction destTx = new Transaction();
+            destTx.setAccount(destAccount);
+            destTx.setType("TRANSFERENCIA_RECEBIDA");
+            destTx.setAmount(amount);
+            destTx.setOriginClientId(originAccount.getClientId());
+            destTx.setDestinationClientId(destAccount.getClientId());
+            destTx.setTimestamp(now);
+            transactions.add(destTx);
+        }
+        transactionRepository.saveAll(transactions);
+
+        accountRepository.flush();
+        List<AccountEvent> accountEvents = new ArrayList<>();
+        for (Account account : locked.values()) {
+            accountEvents.add(toAccountEvent(account, account.getVersion()));
+        }
+        List<TransactionEvent> transactionEvents = new ArrayList<>();
+        for (Transaction tx : transactions) {
+            transactionEvents.add(toTransactionEvent(tx));
+        }
+        outboxRelay.enqueue(accountEventsExchange, "transaction.batch-created",
+                new TransactionBatchEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, UUID.randomUUID().toString(),
+                        accountEvents, transactionEvents));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("conta", originAccount.getAccountNumber());
+        result.put("saldo", originAccount.getBalance());
+        result.put("quantidade", items.size());
+        result.put("total", total);
+        result.put("data", now.toString());
+        return result;
+    }
+
+    private Account lockAccount(Long id) {
+        return accountRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Conta não encontrada."));
+    }
+
+    /**
+     * Executa {@code operation} numa transação e a refaz quando o commit falha
+     * por conflito de versão, com uma espera curta e aleatória entre as
+     * tentativas. Esgotadas as tentativas, responde 409.
+     */
+    private <T> T withOptimisticRetry(Supplier<T> operation) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> operation.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxOptimisticAttempts) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Conta com muitas operações simultâneas, tente novamente.");
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 2L << Math.min(attempt, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Operação interrompida.");
+        }
+    }
+
     @Transactional
     public Account updateLimitByClientId(String clientId, BigDecimal newSalary) {
         Account account = findAccountByClientCpf(clientId);
@@ -159,8 +452,9 @@ public class AccountService {
 
     @Transactional
     public Account reassignAccountToNewManager(String newManagerCpf) {
-        long totalManagers = accountRepository.countDistinctManagers();
-        long totalAccounts = accountRepository.count();
+        // As contagens vêm de manager_load, sem agregar a tabela de contas.
+        long totalManagers = managerLoadRepository.countManagersWithAccounts();
+        long totalAccounts = managerLoadRepository.countAccounts();
 
         // Regra: "Se for o primeiro gerente a ser cadastrado" (totalManagers == 0)
         // Regra: "ou se só houver somente mais um gerente e ele tiver somente uma conta"
@@ -173,15 +467,19 @@ public class AccountService {
         }
 
         // Busca a conta candidata (Gerente com mais contas -> Menor saldo positivo)
-        Optional<Account> candidateOpt = accountRepository.findAccountToReassign();
+        Optional<Long> candidateOpt = findAccountToReassign();
 
         if (candidateOpt.isPresent()) {
-            Account account = candidateOpt.get();
+            // Trava a conta para que a carteira debitada seja a do gerente atual dela.
+            Account account = lockAccount(candidateOpt.get());
             String oldManager = account.getManager();
             
             // Atualiza o gerente
             account.setManager(newManagerCpf);
             Account updated = accountRepository.save(account);
+            adjustManagerLoad(oldManager, -1);
+            adjustManagerLoad(newManagerCpf, 1);
+            publishCqrsEvent("account.updated", updated);
             
             System.out.println("Conta " + updated.getAccountNumber() + " movida do gerente " + oldManager + " para " + newManagerCpf);
             return updated;
@@ -189,35 +487,195 @@ public class AccountService {
         
         return null;
     }
+
+    /**
+     * Entre os gerentes com mais contas, a conta de menor saldo positivo. Cada
+     * gerente empatado custa uma busca no índice (manager, balance).
+     */
+    private Optional<Long> findAccountToReassign() {
+        Long candidateId = null;
+        BigDecimal candidateBalance = null;
+        for (String manager : managerLoadRepository.findMostLoadedManagers()) {
+            for (Object[] row : accountRepository.findSmallestPositiveBalance(manager)) {
+                BigDecimal balance = (BigDecimal) row[1];
+                if (candidateBalance == null || balance.compareTo(candidateBalance) < 0) {
+                    candidateId = (Long) row[0];
+                    candidateBalance = balance;
+                }
+            }
+        }
+        return Optional.ofNullable(candidateId);
+    }
+
+    /**
+     * Grava uma conta nova, soma ela à carteira do gerente e põe o
+     * {@code account.created} no outbox, tudo na mesma transação.
+     */
+    @Transactional
+    public Account openAccount(Account account) {
+        Account saved = accountRepository.save(account);
+        adjustManagerLoad(saved.getManager(), 1);
+        publishCqrsEvent("account.created", saved);
+        return saved;
+    }
+
+    private void adjustManagerLoad(String manager, long delta) {
+        if (managerLoadRepository.adjust(manager, delta) == 0
+                && managerLoadRepository.insertIfAbsent(manager, delta) == 0) {
+            // Outra transação criou a linha do gerente entre o UPDATE e o INSERT.
+            managerLoadRepository.adjust(manager, delta);
+        }
+    }
     
-    public void publishCqrsEvent(String routingKey, Object event) {
-        Object payload = event;
-
-        if (event instanceof Account) {
-            Account a = (Account) event;
-            Map<String, Object> map = new HashMap<>();
-            map.put("id", a.getId());
-            map.put("clientCpf", a.getClientId());
-            map.put("numero", a.getAccountNumber());
-            map.put("saldo", a.getBalance());
-            map.put("limite", a.getAccountLimit());
-            map.put("managerCpf", a.getManager());
-            map.put("dataCriacao", a.getCreationDate() != null ? a.getCreationDate().toString() : null);
-            payload = map;
-        } else if (event instanceof Transaction) {
-            Transaction t = (Transaction) event;
-            Map<String, Object> map = new HashMap<>();
-            map.put("id", t.getId());
-            map.put("dataHora",
-                    t.getTimestamp() != null ? t.getTimestamp().withNano(0).toString() : LocalDateTime.now().withNano(0).toString());
-            map.put("tipo", t.getType());
-            map.put("valor", t.getAmount());
-            map.put("origemCpf", t.getOriginClientId());
-            map.put("destinoCpf", t.getDestinationClientId());
-            payload = map;
-        }
-
-        rabbitTemplate.convertAndSend(accountEventsExchange, routingKey, payload);
+    /**
+     * Compensação da saga de aprovação: remove a conta recém-criada de um
+     * cliente cuja aprovação não terminou. Contas que já movimentaram dinheiro
+     * nunca são apagadas por aqui.
+     */
+    @Transactional
+    public boolean deleteAccountForCompensation(String clientCpf) {
+        Optional<Account> existing = accountRepository.findByClientId(clientCpf);
+        if (existing.isEmpty()) {
+            System.out.println("Compensação: nenhuma conta para o CPF " + clientCpf);
+            return false;
+        }
+
+        Account account = existing.get();
+        if (transactionRepository.existsByAccount(account)) {
+            System.err.println("Compensação recusada: conta " + account.getAccountNumber() + " já possui movimentações");
+            return false;
+        }
+
+        accountRepository.delete(account);
+        adjustManagerLoad(account.getManager(), -1);
+        // A remoção não incrementa a versão; a sequência seguinte marca o evento
+        // como posterior a qualquer atualização já publicada.
+        outboxRelay.enqueue(accountEventsExchange, "account.deleted",
+                toAccountEvent(account, account.getVersion() + 1));
+        System.out.println("Compensação: conta " + account.getAccountNumber() + " removida");
+        return true;
+    }
+
+    /**
+     * Grava o evento CQRS no outbox, na transação corrente; o
+     * {@link OutboxRelay} publica depois do commit. Um rollback descarta o evento
+     * junto com a operação.
+     */
+    public void publishCqrsEvent(String routingKey, Account account) {
+        accountRepository.flush();
+        outboxRelay.enqueue(accountEventsExchange, routingKey, toAccountEvent(account, account.getVersion()));
+    }
+
+    /**
+     * Usa a versão da conta já descarregada pelo evento da conta, que os
+     * chamadores publicam antes; sem flush aqui, os INSERTs do outbox seguem
+     * no mesmo lote JDBC.
+     */
+    public void publishCqrsEvent(String routingKey, Transaction tx) {
+        outboxRelay.enqueue(accountEventsExchange, routingKey, toTransactionEvent(tx));
+    }
+
+    /**
+     * A sequência do evento é a versão da conta, que o Hibernate só incrementa
+     * no flush; por isso o evento da conta descarrega a sessão antes de ser
+     * montado.
+     */
+    private AccountEvent toAccountEvent(Account a, long sequence) {
+        return new AccountEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, UUID.randomUUID().toString(), sequence,
+                a.getId(), a.getClientId(), a.getAccountNumber(), a.getBalance(), a.getAccountLimit(),
+                a.getManager(), a.getCreationDate());
+    }
+
+    private TransactionEvent toTransactionEvent(Transaction t) {
+        Account account = t.getAccount();
+        LocalDateTime timestamp = t.getTimestamp() != null ? t.getTimestamp() : LocalDateTime.now();
+        String eventId = t.getId() != null ? TransactionEvent.eventIdFor(t.getId()) : UUID.randomUUID().toString();
+        return new TransactionEvent(CqrsEvent.CURRENT_SCHEMA_VERSION, eventId,
+                account.getVersion(), t.getId(), account.getClientId(), t.getType(), t.getAmount(),
+                timestamp.withNano(0), t.getOriginClientId(), t.getDestinationClientId());
+    }
+
+    /**
+     * Reprodução das contas para reconstruir a projeção de leitura: uma página
+     * de contas depois do id {@code after}, com a versão atual como sequência.
+     */
+    @Transactional(readOnly = true)
+    public ReplayPage<AccountEvent> replayAccounts(long after, int limit) {
+        List<Account> accounts = accountRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit));
+        List<AccountEvent> events = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            events.add(toAccountEvent(account, account.getVersion()));
+        }
+        String next = accounts.size() < limit ? null : String.valueOf(accounts.get(accounts.size() - 1).getId());
+        return new ReplayPage<>(events, next);
+    }
+
+    /**
+     * Reprodução das transações das contas de {@code firstAccountId} a
+     * {@code lastAccountId}. O cursor é "idDaConta:idDaTransacao" da última
+     * transação devolvida; sem cursor, começa na primeira conta do intervalo.
+     */
+    @Transactional(readOnly = true)
+    public ReplayPage<TransactionEvent> replayTransactions(long firstAccountId, long lastAccountId, String cursor,
+            int limit) {
+        long afterAccountId = firstAccountId;
+        long afterId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split(":");
+            try {
+                afterAccountId = Long.parseLong(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (RuntimeException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido: " + cursor);
+            }
+        }
+        List<Transaction> transactions = transactionRepository.findReplayPage(afterAccountId, afterId, lastAccountId,
+                Limit.of(limit));
+        List<TransactionEvent> events = new ArrayList<>(transactions.size());
+        for (Transaction tx : transactions) {
+            events.add(toTransactionEvent(tx));
+        }
+        String next = null;
+        if (transactions.size() == limit) {
+            Transaction last = transactions.get(transactions.size() - 1);
+            next = last.getAccount().getId() + ":" + last.getId();
+        }
+        return new ReplayPage<>(events, next);
+    }
+
+    /**
+     * Saldo ao fim de {@code date}: parte do fechamento diário mais recente até
+     * a data e soma só as transações depois dele. Sem fechamento anterior, parte
+     * do saldo atual e desfaz o que veio depois da data.
+     */
+    public BalanceAsOfDTO getBalanceAsOf(String accountNumber, LocalDate date) {
+        Account account = accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Conta não encontrada: " + accountNumber));
+
+        LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
+        if (!account.openedBefore(endOfDay)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Conta " + accountNumber + " não existia em " + date);
+        }
+
+        Optional<Record> snapshot = recordRepository
+                .findFirstByAccountIdAndDateLessThanEqualOrderByDateDesc(account.getId(), date);
+        BigDecimal delta;
+        BigDecimal balance;
+        if (snapshot.isPresent()) {
+            Record record = snapshot.get();
+            delta = record.getDate().equals(date) ? BigDecimal.ZERO
+                    : transactionRepository.sumAmountBetween(account.getId(),
+                            record.getDate().plusDays(1).atStartOfDay(), endOfDay);
+            balance = record.getConsolidatedBalance().add(delta);
+        } else {
+            delta = transactionRepository.sumAmountSince(account.getId(), endOfDay).negate();
+            balance = account.getBalance().add(delta);
+        }
+
+        return new BalanceAsOfDTO(account.getClientId(), account.getAccountNumber(), date, balance,
+                snapshot.map(Record::getDate).orElse(null), delta);
     }
 
     public BalanceDTO getBalance(String accountNumber) {
@@ -233,9 +691,12 @@ public class AccountService {
 
     @Transactional
     public void rebootAccounts() {
+        recordRepository.deleteAll();
         transactionRepository.deleteAll();
         accountRepository.deleteAll();
         insertInitialData();
+        managerLoadRepository.clear();
+        managerLoadRepository.rebuildFromAccounts();
     }
 
     private void insertInitialData() {
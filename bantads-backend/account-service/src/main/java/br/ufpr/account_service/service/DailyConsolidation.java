@@ -0,0 +1,143 @@
+package br.ufpr.account_service.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.model.Record;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.RecordRepository;
+import br.ufpr.account_service.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fechamento diário: grava um {@link Record} por conta com o saldo ao fim do
+ * dia e os ids das transações do dia.
+ *
+ * As contas são divididas em lotes de {@code account.consolidation.chunk-size}
+ * processados em paralelo, cada um na sua transação. Rodar de novo para o
+ * mesmo dia só grava as contas que ainda não tinham fechamento.
+ */
+@Component
+public class DailyConsolidation {
+
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private RecordRepository recordRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${account.consolidation.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${account.consolidation.threads:4}")
+    private int threads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "consolidation-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Fecha o dia anterior logo depois da meia-noite. */
+    @Scheduled(cron = "${account.consolidation.cron:0 5 0 * * *}")
+    public void closePreviousDay() {
+        try {
+            consolidate(LocalDate.now().minusDays(1));
+        } catch (Exception ex) {
+            System.err.println("Fechamento diário falhou: " + ex.getMessage());
+        }
+    }
+
+    /** Grava o fechamento de {@code day}; devolve quantas contas foram consolidadas. */
+    public int consolidate(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = day.plusDays(1).atStartOfDay();
+        List<Long> ids = accountRepository.findAllIds();
+
+        List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            chunks.add(CompletableFuture.supplyAsync(
+                    () -> transactionTemplate.execute(status -> consolidateChunk(chunk, day, start, end)), executor));
+        }
+
+        int written = 0;
+        int failed = 0;
+        for (CompletableFuture<Integer> chunk : chunks) {
+            try {
+                written += chunk.join();
+            } catch (Exception ex) {
+                failed++;
+                System.err.println("Fechamento de " + day + ": lote falhou: " + ex.getMessage());
+            }
+        }
+        System.out.println("Fechamento de " + day + ": " + written + " contas consolidadas em " + chunks.size()
+                + " lotes (" + failed + " com falha)");
+        return written;
+    }
+
+    private int consolidateChunk(List<Long> chunk, LocalDate day, LocalDateTime start, LocalDateTime end) {
+        Set<Long> done = new HashSet<>(recordRepository.findAccountIdsConsolidatedOn(day, chunk));
+        List<Long> pending = chunk.stream().filter(id -> !done.contains(id)).toList();
+        if (pending.isEmpty())
+            return 0;
+
+        // Com as contas do lote travadas, toda movimentação já confirmada aparece
+        // nas somas abaixo e nenhuma nova altera o saldo até o fim do lote.
+        List<Account> accounts = accountRepository.findAllByIdForUpdate(pending);
+
+        Map<Long, BigDecimal> sinceClose = new HashMap<>();
+        for (Object[] row : transactionRepository.sumAmountsSince(pending, end)) {
+            sinceClose.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        Map<Long, List<Long>> dayTransactions = new HashMap<>();
+        for (Object[] row : transactionRepository.findIdsBetween(pending, start, end)) {
+            dayTransactions.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((Long) row[1]);
+        }
+
+        List<Record> records = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            if (!account.openedBefore(end))
+                continue;
+            BigDecimal closing = account.getBalance()
+                    .subtract(sinceClose.getOrDefault(account.getId(), BigDecimal.ZERO));
+            records.add(new Record(null, account.getId(), day, closing,
+                    dayTransactions.getOrDefault(account.getId(), List.of())));
+        }
+        recordRepository.saveAll(records);
+        return records.size();
+    }
+}
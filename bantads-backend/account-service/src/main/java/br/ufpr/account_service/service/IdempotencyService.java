@@ -0,0 +1,198 @@
+package br.ufpr.account_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.ufpr.account_service.model.IdempotencyRecord;
+import br.ufpr.account_service.repository.IdempotencyRecordRepository;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Trata o header {@code Idempotency-Key} das operações de dinheiro.
+ *
+ * A primeira requisição com uma chave reserva o registro em
+ * {@code account_schema.idempotency_record}, executa a operação e grava a
+ * resposta; repetições dentro do TTL recebem a mesma resposta sem tocar nas
+ * contas. Um LRU em memória responde as repetições mais recentes sem ir ao
+ * banco. Se a operação falhar, a reserva é liberada e a requisição pode ser
+ * refeita.
+ *
+ * A reserva vale por {@code account.idempotency.lease-millis}, não pelo TTL:
+ * se a instância cair entre reservar e gravar a resposta, a chave volta a
+ * aceitar a requisição depois desse prazo em vez de responder 409 por um dia.
+ * Só a resposta gravada fica pelo TTL inteiro.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 200;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Value("${account.idempotency.ttl-millis:86400000}")
+    private long ttlMillis;
+
+    @Value("${account.idempotency.lease-millis:60000}")
+    private long leaseMillis;
+
+    @Value("${account.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    private Map<String, IdempotencyRecord> recent;
+
+    @PostConstruct
+    public void init() {
+        recent = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Executa {@code operation} uma única vez por chave. {@code fingerprint}
+     * identifica a requisição (operação e valores); a mesma chave com outra
+     * requisição é recusada com 422.
+     */
+    public ResponseEntity<?> execute(String clientCpf, String key, String fingerprint,
+            Supplier<ResponseEntity<?>> operation) {
+        if (key == null || key.isBlank())
+            return operation.get();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key deve ter no máximo " + MAX_KEY_LENGTH + " caracteres.");
+        }
+
+        String id = clientCpf + ":" + key;
+        fingerprint = digest(fingerprint);
+        LocalDateTime now = LocalDateTime.now();
+
+        IdempotencyRecord cached = cachedRecord(id, now);
+        if (cached != null)
+            return replay(cached, fingerprint);
+
+        if (!claim(id, fingerprint, now)) {
+            Optional<IdempotencyRecord> existing = repository.findById(id);
+            if (existing.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Requisição com esta Idempotency-Key ainda em processamento.");
+            }
+            IdempotencyRecord record = existing.get();
+            if (record.getStatusCode() == null) {
+                if (!Objects.equals(record.getFingerprint(), fingerprint))
+                    throw keyReused();
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Requisição com esta Idempotency-Key ainda em processamento.");
+            }
+            remember(record);
+            return replay(record, fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException ex) {
+            repository.release(id);
+            throw ex;
+        }
+
+        IdempotencyRecord record = new IdempotencyRecord(id, fingerprint, response.getStatusCode().value(),
+                toJson(response.getBody()), now, LocalDateTime.now().plus(Duration.ofMillis(ttlMillis)));
+        repository.complete(id, record.getStatusCode(), record.getResponseBody(), record.getExpiresAt());
+        remember(record);
+        return response;
+    }
+
+    private boolean claim(String id, String fingerprint, LocalDateTime now) {
+        LocalDateTime expiresAt = now.plus(Duration.ofMillis(leaseMillis));
+        if (repository.claim(id, fingerprint, now, expiresAt) == 1)
+            return true;
+        // Chave vencida ainda não removida pela limpeza, ou reserva abandonada
+        // com a concessão vencida: vale como nova.
+        return repository.deleteIfExpired(id, now) == 1 && repository.claim(id, fingerprint, now, expiresAt) == 1;
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record, String fingerprint) {
+        if (!Objects.equals(record.getFingerprint(), fingerprint))
+            throw keyReused();
+        return ResponseEntity.status(record.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", "true")
+                .body(record.getResponseBody());
+    }
+
+    private ResponseStatusException keyReused() {
+        return new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key já usada com outra requisição.");
+    }
+
+    private IdempotencyRecord cachedRecord(String id, LocalDateTime now) {
+        synchronized (recent) {
+            IdempotencyRecord record = recent.get(id);
+            if (record != null && record.getExpiresAt().isBefore(now)) {
+                recent.remove(id);
+                return null;
+            }
+            return record;
+        }
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (recent) {
+            recent.put(record.getId(), record);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${account.idempotency.purge-millis:600000}")
+    public void purgeExpired() {
+        try {
+            int removed = repository.deleteExpired(LocalDateTime.now());
+            if (removed > 0) {
+                System.out.println("Idempotência: " + removed + " chaves vencidas removidas");
+            }
+        } catch (Exception ex) {
+            System.err.println("Idempotência: falha ao remover chaves vencidas: " + ex.getMessage());
+        }
+    }
+
+    private String digest(String fingerprint) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return mapper.writeValueAsString(body);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Erro ao serializar resposta idempotente", ex);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package br.ufpr.account_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ufpr.account_events.CqrsEvent;
+import br.ufpr.account_events.EventCodec;
+import br.ufpr.account_service.model.OutboxEvent;
+import br.ufpr.account_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publica os eventos CQRS gravados no outbox.
+ *
+ * Cada rodada trava um lote de pendentes, publica todos e espera as
+ * confirmações do broker (publisher confirms) de uma vez; só os confirmados
+ * são marcados como publicados. Os demais ficam para a próxima rodada, então
+ * um evento pode ser entregue mais de uma vez, mas nunca perdido; o consumidor
+ * descarta repetidos pelo messageId.
+ *
+ * Um evento que passa {@code outbox.relay.max-attempts} rodadas sem
+ * confirmação é estacionado ({@code failedAt}) e contado em
+ * {@code outbox.events.parked}: sai da fila para não ser reenviado para sempre
+ * e fica na tabela para inspeção.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EventCodec eventCodec;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cqrs.events.content-type:application/json}")
+    private String contentType;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.confirm-timeout-millis:5000}")
+    private long confirmTimeoutMillis;
+
+    @Value("${outbox.relay.max-attempts:20}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention-millis:86400000}")
+    private long retentionMillis;
+
+    /**
+     * Grava um evento no outbox, já serializado no formato de
+     * {@code cqrs.events.content-type}. Deve ser chamado dentro da transação da
+     * operação, para que o evento só exista se ela for confirmada.
+     */
+    public OutboxEvent enqueue(String exchange, String routingKey, CqrsEvent cqrsEvent) {
+        byte[] encoded = eventCodec.encode(cqrsEvent, contentType);
+        OutboxEvent event = new OutboxEvent();
+        event.setEventId(cqrsEvent.eventId());
+        event.setExchange(exchange);
+        event.setRoutingKey(routingKey);
+        event.setContentType(contentType);
+        if (contentType.startsWith(EventCodec.JSON)) {
+            event.setPayload(new String(encoded, StandardCharsets.UTF_8));
+        } else {
+            event.setPayload("");
+            event.setBody(encoded);
+        }
+        event.setCreatedAt(LocalDateTime.now());
+        return outboxRepository.save(event);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-millis:200}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published != null && published >= batchSize);
+        } catch (Exception ex) {
+            log.error("Outbox: falha ao publicar eventos", ex);
+        }
+    }
+
+    /**
+     * Publica um lote e devolve quantos eventos foram confirmados.
+     */
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxRepository.lockPending(batchSize);
+        if (batch.isEmpty())
+            return 0;
+
+        Map<Long, CorrelationData> pending = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            CorrelationData correlation = new CorrelationData(event.getEventId());
+            rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlation);
+            pending.put(event.getId(), correlation);
+        }
+
+        List<Long> confirmed = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        List<OutboxEvent> exhausted = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMillis);
+        for (OutboxEvent event : batch) {
+            if (isAcked(pending.get(event.getId()), deadline)) {
+                confirmed.add(event.getId());
+            } else {
+                failed.add(event.getId());
+                if (event.getAttempts() + 1 >= maxAttempts) {
+                    exhausted.add(event);
+                }
+            }
+        }
+
+        if (!confirmed.isEmpty()) {
+            outboxRepository.markPublished(confirmed, LocalDateTime.now());
+        }
+        if (!failed.isEmpty()) {
+            outboxRepository.incrementAttempts(failed);
+            log.warn("Outbox: {} eventos sem confirmação do broker, nova tentativa depois",
+                    failed.size() - exhausted.size());
+        }
+        if (!exhausted.isEmpty()) {
+            outboxRepository.markFailed(exhausted.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+            meterRegistry.counter("outbox.events.parked").increment(exhausted.size());
+            for (OutboxEvent event : exhausted) {
+                log.error("Outbox: evento {} ({}) estacionado após {} tentativas sem confirmação",
+                        event.getEventId(), event.getRoutingKey(), maxAttempts);
+            }
+        }
+        return confirmed.size();
+    }
+
+    private boolean isAcked(CorrelationData correlation, long deadline) {
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            return correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-millis:3600000}")
+    public void purgePublished() {
+        try {
+            Integer removed = transactionTemplate.execute(status -> outboxRepository
+                    .deletePublishedBefore(LocalDateTime.now().minus(Duration.ofMillis(retentionMillis))));
+            if (removed != null && removed > 0) {
+                log.info("Outbox: {} eventos publicados removidos", removed);
+            }
+        } catch (Exception ex) {
+            log.error("Outbox: falha ao limpar eventos publicados", ex);
+        }
+    }
+
+    private Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId(event.getEventId());
+        if (event.getBody() != null) {
+            properties.setContentType(event.getContentType());
+            return new Message(event.getBody(), properties);
+        }
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding("UTF-8");
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
@@ -0,0 +1,119 @@
+package br.ufpr.account_service.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Agrupa escritas concorrentes para a mesma chave.
+ *
+ * Quem chama enfileira o valor e espera o resultado. Cada faixa (escolhida
+ * pelo hash da chave) tem no máximo uma tarefa de descarga no executor: ela
+ * tira da fila o que chegou enquanto a descarga anterior rodava (até
+ * {@code maxBatch}), agrupa por chave e chama {@code flush} uma vez por chave
+ * com os valores na ordem de chegada. {@code flush} devolve um resultado por valor, na mesma ordem; se
+ * falhar, todos os valores daquela chave recebem a exceção.
+ */
+class WriteCombiner<K, V, R> {
+
+    private final List<Stripe> stripes;
+    private final Executor executor;
+    private final int maxBatch;
+    private final BiFunction<K, List<V>, List<R>> flush;
+
+    WriteCombiner(int stripeCount, int maxBatch, Executor executor, BiFunction<K, List<V>, List<R>> flush) {
+        this.stripes = new ArrayList<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new Stripe());
+        }
+        this.maxBatch = maxBatch;
+        this.executor = executor;
+        this.flush = flush;
+    }
+
+    CompletableFuture<R> submit(K key, V value) {
+        Pending pending = new Pending(key, value);
+        Stripe stripe = stripes.get(Math.floorMod(key.hashCode(), stripes.size()));
+        stripe.queue.add(pending);
+        stripe.schedule();
+        return pending.result;
+    }
+
+    private final class Stripe {
+
+        private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RuntimeException ex) {
+                    scheduled.set(false);
+                    failAll(ex);
+                }
+            }
+        }
+
+        /** Descarrega até {@code maxBatch} valores e devolve a thread às outras faixas. */
+        private void drain() {
+            try {
+                List<Pending> batch = new ArrayList<>();
+                Pending next;
+                while (batch.size() < maxBatch && (next = queue.poll()) != null) {
+                    batch.add(next);
+                }
+                if (!batch.isEmpty())
+                    flushBatch(batch);
+            } finally {
+                scheduled.set(false);
+            }
+            // O que chegou durante a descarga (ou depois do último poll) vai na próxima.
+            if (!queue.isEmpty())
+                schedule();
+        }
+
+        private void failAll(Throwable ex) {
+            Pending next;
+            while ((next = queue.poll()) != null) {
+                next.result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private void flushBatch(List<Pending> batch) {
+        Map<K, List<Pending>> byKey = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            byKey.computeIfAbsent(pending.key, k -> new ArrayList<>()).add(pending);
+        }
+        for (Map.Entry<K, List<Pending>> entry : byKey.entrySet()) {
+            List<Pending> group = entry.getValue();
+            try {
+                List<R> results = flush.apply(entry.getKey(), group.stream().map(p -> p.value).toList());
+                for (int i = 0; i < group.size(); i++) {
+                    group.get(i).result.complete(results.get(i));
+                }
+            } catch (Throwable ex) {
+                group.forEach(p -> p.result.completeExceptionally(ex));
+            }
+        }
+    }
+
+    private final class Pending {
+
+        private final K key;
+        private final V value;
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+
+        Pending(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
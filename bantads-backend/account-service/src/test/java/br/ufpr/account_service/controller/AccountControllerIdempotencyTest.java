@@ -0,0 +1,202 @@
+package br.ufpr.account_service.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.IdempotencyRecordRepository;
+import br.ufpr.account_service.repository.OutboxEventRepository;
+import br.ufpr.account_service.repository.TransactionRepository;
+import br.ufpr.account_service.service.IdempotencyService;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "LOCK_TIMEOUT=30000;INIT=CREATE SCHEMA IF NOT EXISTS account_schema")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class AccountControllerIdempotencyTest {
+
+    private static final String CPF = "12345678900";
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyRepository.deleteAll();
+        forgetRecentKeys();
+        outboxRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+
+        Account account = new Account();
+        account.setClientId(CPF);
+        account.setAccountNumber("1234");
+        account.setBalance(new BigDecimal("100.00"));
+        account.setAccountLimit(BigDecimal.ZERO);
+        account.setManager("98574307084");
+        account.setCreationDate(LocalDateTime.now());
+        accountRepository.save(account);
+    }
+
+    @Test
+    void repeatedDepositIsAppliedOnceAndReplaysTheFirstResponse() throws Exception {
+        String first = mvc.perform(deposit("dep-1", "50.00"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String repeated = mvc.perform(deposit("dep-1", "50.00"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        // Sem o LRU a resposta vem do registro no banco.
+        forgetRecentKeys();
+        String fromDatabase = mvc.perform(deposit("dep-1", "50.00"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, repeated);
+        assertEquals(first, fromDatabase);
+        assertBalance("150.00");
+        assertEquals(1, transactionRepository.count());
+    }
+
+    @Test
+    void rejectsAKeyReusedWithADifferentRequest() throws Exception {
+        mvc.perform(deposit("dep-2", "50.00")).andExpect(status().isOk());
+
+        mvc.perform(deposit("dep-2", "70.00")).andExpect(status().isUnprocessableEntity());
+
+        assertBalance("150.00");
+    }
+
+    @Test
+    void failedOperationReleasesTheKey() throws Exception {
+        mvc.perform(withdraw("saq-1", "300.00")).andExpect(status().isBadRequest());
+        mvc.perform(deposit("dep-3", "200.00")).andExpect(status().isOk());
+
+        mvc.perform(withdraw("saq-1", "300.00")).andExpect(status().isOk());
+
+        assertBalance("0.00");
+    }
+
+    @Test
+    void concurrentRetriesMoveMoneyOnce() throws Exception {
+        int retries = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(retries);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < retries; i++) {
+                statuses.add(pool.submit(() -> {
+                    start.await();
+                    return mvc.perform(deposit("dep-4", "10.00")).andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            int applied = 0;
+            for (Future<Integer> status : statuses) {
+                int code = status.get();
+                assertTrue(code == 200 || code == 409, "status inesperado " + code);
+                applied += code == 200 ? 1 : 0;
+            }
+            assertTrue(applied >= 1);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertBalance("110.00");
+        assertEquals(1, transactionRepository.count());
+    }
+
+    @Test
+    void abandonedClaimIsTakenOverOnlyAfterItsLease() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        // Reserva de uma instância que ainda pode estar processando: continua valendo.
+        idempotencyRepository.claim(CPF + ":dep-5", "outra-requisicao", now, now.plusMinutes(1));
+        mvc.perform(deposit("dep-5", "50.00")).andExpect(status().isUnprocessableEntity());
+
+        // Reserva de uma instância que caiu antes de gravar a resposta.
+        idempotencyRepository.claim(CPF + ":dep-6", "outra-requisicao", now.minusMinutes(2), now.minusMinutes(1));
+        mvc.perform(deposit("dep-6", "50.00")).andExpect(status().isOk());
+
+        assertBalance("150.00");
+        // A resposta gravada vale pelo TTL, não pela concessão.
+        assertTrue(idempotencyRepository.findById(CPF + ":dep-6").orElseThrow().getExpiresAt()
+                .isAfter(now.plusHours(23)));
+    }
+
+    private MockHttpServletRequestBuilder deposit(String key, String amount) {
+        return post("/contas/1234/depositar")
+                .header("X-User-CPF", CPF)
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"valor\": " + amount + "}");
+    }
+
+    private MockHttpServletRequestBuilder withdraw(String key, String amount) {
+        return post("/contas/1234/sacar")
+                .header("X-User-CPF", CPF)
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"valor\": " + amount + "}");
+    }
+
+    private void assertBalance(String expected) {
+        assertEquals(0, new BigDecimal(expected)
+                .compareTo(accountRepository.findByAccountNumber("1234").orElseThrow().getBalance()));
+    }
+
+    private void forgetRecentKeys() {
+        Map<?, ?> recent = (Map<?, ?>) ReflectionTestUtils.getField(idempotencyService, "recent");
+        synchronized (recent) {
+            recent.clear();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.model.ManagerLoad;
+import br.ufpr.account_service.model.OutboxEvent;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.ManagerLoadRepository;
+import br.ufpr.account_service.repository.OutboxEventRepository;
+import br.ufpr.account_service.repository.RecordRepository;
+import br.ufpr.account_service.repository.TransactionRepository;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:account_lifecycle;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema")
+@ActiveProfiles("h2")
+class AccountLifecycleTest {
+
+    private static final String MANAGER = "98574307084";
+    private static final String NEW_MANAGER = "64065268052";
+    private static final String OTHER_MANAGER = "23862179060";
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    @Autowired
+    private ManagerLoadRepository managerLoadRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        recordRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        managerLoadRepository.deleteAll();
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void openAccountWritesTheCreatedEventInItsOwnTransaction() {
+        Account saved = accountService.openAccount(account("11111111111", "1111", MANAGER, "0.00"));
+
+        List<OutboxEvent> events = outboxRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals("account.created", events.get(0).getRoutingKey());
+        assertEquals(1, accountRepository.count());
+
+        // CPF repetido: a conta e o evento voltam juntos no rollback.
+        assertThrows(DataIntegrityViolationException.class,
+                () -> accountService.openAccount(account(saved.getClientId(), "2222", MANAGER, "0.00")));
+        assertEquals(1, outboxRepository.count());
+        assertEquals(1, accountRepository.count());
+    }
+
+    @Test
+    void reassignmentWritesTheUpdatedEvent() {
+        accountService.openAccount(account("11111111111", "1111", MANAGER, "300.00"));
+        accountService.openAccount(account("22222222222", "2222", MANAGER, "80.00"));
+        outboxRepository.deleteAll();
+
+        Account moved = accountService.reassignAccountToNewManager(NEW_MANAGER);
+
+        List<OutboxEvent> events = outboxRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals("account.updated", events.get(0).getRoutingKey());
+        assertEquals("2222", moved.getAccountNumber());
+        assertEquals(NEW_MANAGER, accountRepository.findById(moved.getId()).orElseThrow().getManager());
+    }
+
+    @Test
+    void managerLoadFollowsCreationReassignmentAndCompensation() {
+        // Um gerente com uma conta só: o novo gerente começa sem contas.
+        accountService.openAccount(account("11111111111", "1111", MANAGER, "300.00"));
+        assertNull(accountService.reassignAccountToNewManager(NEW_MANAGER));
+        assertEquals(Map.of(MANAGER, 1L), loads());
+
+        accountService.openAccount(account("22222222222", "2222", MANAGER, "80.00"));
+        accountService.openAccount(account("33333333333", "3333", MANAGER, "-10.00"));
+        accountService.openAccount(account("44444444444", "4444", OTHER_MANAGER, "5.00"));
+        assertEquals(Map.of(MANAGER, 3L, OTHER_MANAGER, 1L), loads());
+
+        // Maior carteira, menor saldo positivo: a conta 2222, não a negativa nem a 4444.
+        Account moved = accountService.reassignAccountToNewManager(NEW_MANAGER);
+        assertEquals("2222", moved.getAccountNumber());
+        assertEquals(Map.of(MANAGER, 2L, OTHER_MANAGER, 1L, NEW_MANAGER, 1L), loads());
+
+        assertTrue(accountService.deleteAccountForCompensation("33333333333"));
+        assertEquals(Map.of(MANAGER, 1L, OTHER_MANAGER, 1L, NEW_MANAGER, 1L), loads());
+
+        // Conta com movimentação não é apagada e a carteira não muda.
+        accountService.deposit("11111111111", new BigDecimal("10.00"));
+        assertFalse(accountService.deleteAccountForCompensation("11111111111"));
+        assertFalse(accountService.deleteAccountForCompensation("99999999999"));
+        assertEquals(Map.of(MANAGER, 1L, OTHER_MANAGER, 1L, NEW_MANAGER, 1L), loads());
+    }
+
+    private Map<String, Long> loads() {
+        return managerLoadRepository.findAll().stream()
+                .filter(load -> load.getAccountCount() != 0)
+                .collect(Collectors.toMap(ManagerLoad::getManager, ManagerLoad::getAccountCount));
+    }
+
+    static Account account(String cpf, String number, String manager, String balance) {
+        Account account = new Account();
+        account.setClientId(cpf);
+        account.setAccountNumber(number);
+        account.setCreationDate(LocalDateTime.now().withNano(0));
+        account.setBalance(new BigDecimal(balance));
+        account.setAccountLimit(BigDecimal.ZERO);
+        account.setManager(manager);
+        return account;
+    }
+}
@@ -0,0 +1,112 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.repository.AccountNumberAllocationRepository;
+import br.ufpr.account_service.repository.AccountRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:account_numbers;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+                + "LOCK_TIMEOUT=30000;INIT=CREATE SCHEMA IF NOT EXISTS account_schema",
+        "account.number.block-size=50" })
+@ActiveProfiles("h2")
+class AccountNumberAllocatorTest {
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AccountNumberAllocator allocator;
+
+    @Autowired
+    private AccountNumberAllocationRepository allocationRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository.deleteAll();
+        allocationRepository.deleteAll();
+        ((Collection<?>) ReflectionTestUtils.getField(allocator, "available")).clear();
+    }
+
+    @Test
+    void handsOutUniqueCheckedNumbersUnderConcurrency() throws Exception {
+        int threads = 16;
+        int perThread = 500;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        numbers.add(allocator.next());
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, numbers.size());
+        for (String number : numbers) {
+            assertEquals(8, number.length());
+            assertEquals(number.charAt(7) - '0', AccountNumberAllocator.checkDigit(number.substring(0, 7)));
+        }
+    }
+
+    @Test
+    void skipsNumbersAlreadyTakenByExistingAccounts() {
+        String taken = allocator.format(1);
+        seed(taken);
+
+        String first = allocator.next();
+
+        assertFalse(first.equals(taken));
+        assertEquals(allocator.format(2), first);
+    }
+
+    @Test
+    void computesTheLuhnCheckDigit() {
+        assertEquals(3, AccountNumberAllocator.checkDigit("7992739871"));
+        assertEquals(0, AccountNumberAllocator.checkDigit("0000000"));
+    }
+
+    private void seed(String number) {
+        Account account = new Account();
+        account.setClientId("12345678900");
+        account.setAccountNumber(number);
+        account.setBalance(BigDecimal.ZERO);
+        account.setAccountLimit(BigDecimal.ZERO);
+        account.setManager("98574307084");
+        account.setCreationDate(LocalDateTime.now());
+        accountRepository.save(account);
+    }
+}
@@ -0,0 +1,124 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.ufpr.account_service.dto.TransferRequestDTO;
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.model.OutboxEvent;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.OutboxEventRepository;
+import br.ufpr.account_service.repository.TransactionRepository;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:batch_transfer;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema")
+@ActiveProfiles("h2")
+class AccountServiceBatchTransferTest {
+
+    private static final int RECIPIENTS = 50;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        seed("00000000000", "9000", new BigDecimal("10000.00"), new BigDecimal("500.00"));
+        for (int i = 1; i <= RECIPIENTS; i++) {
+            seed(String.format("%011d", i), String.format("%04d", i), BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+    }
+
+    @Test
+    void paysEveryRecipientInOneTransactionAndOneEvent() {
+        // 300 pagamentos de 10 entre 50 destinatários: cada um recebe 6 vezes.
+        List<TransferRequestDTO> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            items.add(item(String.format("%04d", i % RECIPIENTS + 1), "10.00"));
+        }
+
+        Map<String, Object> result = accountService.transferBatch("00000000000", items);
+
+        assertEquals(0, new BigDecimal("7000.00").compareTo((BigDecimal) result.get("saldo")));
+        assertEquals(300, result.get("quantidade"));
+        assertEquals(0, new BigDecimal("60.00")
+                .compareTo(accountRepository.findByAccountNumber("0007").orElseThrow().getBalance()));
+        assertEquals(600, transactionRepository.count());
+
+        List<OutboxEvent> events = outboxRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals("transaction.batch-created", events.get(0).getRoutingKey());
+    }
+
+    @Test
+    void rejectsTheWholeBatchWhenTheTotalExceedsBalanceAndLimit() {
+        List<TransferRequestDTO> items = List.of(item("0001", "6000.00"), item("0002", "4600.00"));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> accountService.transferBatch("00000000000", items));
+
+        assertEquals(400, ex.getStatusCode().value());
+        assertEquals(0, new BigDecimal("10000.00")
+                .compareTo(accountRepository.findByAccountNumber("9000").orElseThrow().getBalance()));
+        assertEquals(0, transactionRepository.count());
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void rejectsTheWholeBatchWhenADestinationDoesNotExist() {
+        List<TransferRequestDTO> items = List.of(item("0001", "10.00"), item("7777", "10.00"));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> accountService.transferBatch("00000000000", items));
+
+        assertEquals(404, ex.getStatusCode().value());
+        assertEquals(0, transactionRepository.count());
+    }
+
+    private TransferRequestDTO item(String destination, String amount) {
+        TransferRequestDTO item = new TransferRequestDTO();
+        item.setDestinationAccountNumber(destination);
+        item.setValor(new BigDecimal(amount));
+        return item;
+    }
+
+    private void seed(String cpf, String number, BigDecimal balance, BigDecimal limit) {
+        Account account = new Account();
+        account.setClientId(cpf);
+        account.setAccountNumber(number);
+        account.setBalance(balance);
+        account.setAccountLimit(limit);
+        account.setManager("98574307084");
+        account.setCreationDate(LocalDateTime.now());
+        accountRepository.save(account);
+    }
+}
@@ -0,0 +1,163 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.OutboxEventRepository;
+import br.ufpr.account_service.repository.TransactionRepository;
+
+/**
+ * Dispara centenas de transferências e depósitos simultâneos entre poucas
+ * contas (H2 em modo PostgreSQL) e confere que nenhum valor se perdeu.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concurrency;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema",
+        "account.optimistic.max-attempts=50" })
+@ActiveProfiles("h2")
+class AccountServiceConcurrencyTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int PARALLEL = 200;
+    private static final int TRANSFERS = 1000;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = new Account();
+            account.setClientId(cpf(i));
+            account.setAccountNumber(number(i));
+            account.setBalance(INITIAL_BALANCE);
+            account.setAccountLimit(BigDecimal.ZERO);
+            account.setManager("98574307084");
+            account.setCreationDate(LocalDateTime.now());
+            accountRepository.save(account);
+        }
+    }
+
+    @Test
+    void parallelTransfersBetweenHotAccountsNeitherDeadlockNorLoseMoney() throws Exception {
+        BigDecimal[] expected = new BigDecimal[ACCOUNTS];
+        java.util.Arrays.fill(expected, INITIAL_BALANCE);
+
+        ExecutorService pool = Executors.newFixedThreadPool(PARALLEL);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            int from = ThreadLocalRandom.current().nextInt(ACCOUNTS);
+            int to = (from + 1 + ThreadLocalRandom.current().nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+            int amount = 1 + ThreadLocalRandom.current().nextInt(300);
+            results.add(pool.submit(() -> {
+                go.await();
+                try {
+                    accountService.transfer(cpf(from), number(to), BigDecimal.valueOf(amount));
+                    return new int[] { from, to, amount };
+                } catch (ResponseStatusException ex) {
+                    // Saldo insuficiente é esperado; qualquer outra falha derruba o teste.
+                    assertEquals(400, ex.getStatusCode().value(), ex.getMessage());
+                    return null;
+                }
+            }));
+        }
+
+        go.countDown();
+        for (Future<int[]> result : results) {
+            int[] done = result.get(60, TimeUnit.SECONDS);
+            if (done != null) {
+                expected[done[0]] = expected[done[0]].subtract(BigDecimal.valueOf(done[2]));
+                expected[done[1]] = expected[done[1]].add(BigDecimal.valueOf(done[2]));
+            }
+        }
+        pool.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            BigDecimal balance = accountRepository.findByClientId(cpf(i)).orElseThrow().getBalance();
+            assertEquals(0, expected[i].compareTo(balance), "conta " + number(i));
+            assertTrue(balance.signum() >= 0, "conta " + number(i) + " ficou negativa");
+            total = total.add(balance);
+        }
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)).compareTo(total));
+    }
+
+    @Test
+    void concurrentDepositsOnOneAccountAreRetriedInsteadOfLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(PARALLEL);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < PARALLEL; i++) {
+            results.add(pool.submit(() -> {
+                go.await();
+                try {
+                    accountService.deposit(cpf(0), BigDecimal.ONE);
+                    succeeded.incrementAndGet();
+                } catch (ResponseStatusException ex) {
+                    // Tentativas esgotadas: a operação falhou inteira, nada foi gravado.
+                    assertEquals(409, ex.getStatusCode().value(), ex.getMessage());
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        BigDecimal balance = accountRepository.findByClientId(cpf(0)).orElseThrow().getBalance();
+        assertTrue(succeeded.get() > 0);
+        assertEquals(0, INITIAL_BALANCE.add(BigDecimal.valueOf(succeeded.get())).compareTo(balance));
+        assertEquals(succeeded.get(), transactionRepository.count());
+    }
+
+    private static String cpf(int i) {
+        return String.format("%011d", i + 1);
+    }
+
+    private static String number(int i) {
+        return String.format("%04d", i + 1);
+    }
+}
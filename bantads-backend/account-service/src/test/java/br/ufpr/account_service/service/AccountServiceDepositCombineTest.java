@@ -0,0 +1,214 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.OutboxEventRepository;
+import br.ufpr.account_service.repository.TransactionRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Depósitos agrupados ({@code account.deposit.combine.enabled}) sem medir
+ * tempo: nenhum depósito se perde, cada chamada recebe o próprio saldo e cada
+ * grupo descarregado grava o saldo da conta uma única vez.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:deposit_combine;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "account.deposit.combine.enabled=true" })
+@ActiveProfiles("h2")
+class AccountServiceDepositCombineTest {
+
+    private static final String CPF = "00000000001";
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Account account;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+
+        account = new Account();
+        account.setClientId(CPF);
+        account.setAccountNumber("0001");
+        account.setBalance(BigDecimal.ZERO);
+        account.setAccountLimit(BigDecimal.ZERO);
+        account.setManager("98574307084");
+        account.setCreationDate(LocalDateTime.now());
+        account = accountRepository.save(account);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void depositsQueuedBehindTheRowLockAreWrittenAsOneGroup() throws Exception {
+        int callers = 32;
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            // Segura a linha da conta: o primeiro grupo espera a trava e os
+            // depósitos seguintes se acumulam na fila.
+            Future<?> lock = holder.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                accountRepository.findByIdForUpdate(account.getId()).orElseThrow();
+                locked.countDown();
+                await(release);
+            }));
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            List<Thread> threads = new ArrayList<>();
+            List<Future<Account>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> {
+                    synchronized (threads) {
+                        threads.add(Thread.currentThread());
+                    }
+                    return accountService.deposit(CPF, BigDecimal.ONE);
+                }));
+            }
+            // Cada chamada estaciona no join depois de enfileirar o depósito.
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!allWaiting(threads, callers) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(allWaiting(threads, callers), "depósitos não chegaram à fila");
+            release.countDown();
+            lock.get(10, TimeUnit.SECONDS);
+
+            Set<BigDecimal> balances = new HashSet<>();
+            Set<Long> groups = new HashSet<>();
+            for (Future<Account> result : results) {
+                Account after = result.get(30, TimeUnit.SECONDS);
+                balances.add(after.getBalance());
+                groups.add(after.getVersion());
+            }
+
+            assertEquals(callers, balances.size());
+            // O primeiro grupo pegou o que estava na fila ao começar; o resto foi num segundo.
+            assertTrue(groups.size() <= 2, "grupos: " + groups);
+            assertOneBalanceUpdatePerGroup(groups.size(), callers);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+            holder.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentCallersSeeTheirOwnIncreasingBalances() throws Exception {
+        int callers = 8;
+        int depositsEach = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<List<Account>>> results = new ArrayList<>();
+            for (int c = 0; c < callers; c++) {
+                BigDecimal amount = BigDecimal.valueOf(c + 1);
+                results.add(pool.submit(() -> {
+                    go.await();
+                    List<Account> seen = new ArrayList<>();
+                    for (int i = 0; i < depositsEach; i++) {
+                        seen.add(accountService.deposit(CPF, amount));
+                    }
+                    return seen;
+                }));
+            }
+            go.countDown();
+
+            Set<BigDecimal> balances = new HashSet<>();
+            Set<Long> groups = new HashSet<>();
+            for (Future<List<Account>> result : results) {
+                BigDecimal previous = BigDecimal.ZERO;
+                for (Account after : result.get(60, TimeUnit.SECONDS)) {
+                    assertTrue(after.getBalance().compareTo(previous) > 0,
+                            after.getBalance() + " depois de " + previous);
+                    previous = after.getBalance();
+                    balances.add(after.getBalance());
+                    groups.add(after.getVersion());
+                }
+            }
+
+            int deposits = callers * depositsEach;
+            assertEquals(deposits, balances.size());
+            // Soma de (1 + ... + 8) * 25.
+            assertEquals(0, new BigDecimal("900").compareTo(
+                    accountRepository.findById(account.getId()).orElseThrow().getBalance()));
+            assertOneBalanceUpdatePerGroup(groups.size(), deposits);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void assertOneBalanceUpdatePerGroup(int groups, int deposits) {
+        Account stored = accountRepository.findById(account.getId()).orElseThrow();
+        assertEquals(deposits, transactionRepository.count());
+        assertEquals(account.getVersion() + groups, stored.getVersion());
+        assertEquals(groups, statistics.getEntityStatistics(Account.class.getName()).getUpdateCount());
+    }
+
+    private static boolean allWaiting(List<Thread> threads, int expected) {
+        synchronized (threads) {
+            return threads.size() == expected
+                    && threads.stream().allMatch(t -> t.getState() == Thread.State.WAITING);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
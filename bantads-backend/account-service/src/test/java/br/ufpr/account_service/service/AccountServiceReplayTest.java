@@ -0,0 +1,125 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import br.ufpr.account_events.AccountEvent;
+import br.ufpr.account_events.ReplayPage;
+import br.ufpr.account_events.TransactionEvent;
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.model.OutboxEvent;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.OutboxEventRepository;
+import br.ufpr.account_service.repository.TransactionRepository;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:replay;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema")
+@ActiveProfiles("h2")
+class AccountServiceReplayTest {
+
+    private static final int ACCOUNTS = 25;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            Account account = new Account();
+            account.setClientId(String.format("%011d", i));
+            account.setAccountNumber(String.format("%04d", i));
+            account.setBalance(BigDecimal.ZERO);
+            account.setAccountLimit(BigDecimal.ZERO);
+            account.setManager("98574307084");
+            account.setCreationDate(LocalDateTime.now());
+            accountRepository.save(account);
+        }
+        // Contas com 0 a 4 depósitos, para que as páginas cruzem contas vazias.
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            for (int d = 0; d < i % 5; d++) {
+                accountService.deposit(String.format("%011d", i), new BigDecimal("10.00"));
+            }
+        }
+    }
+
+    @Test
+    void pagesEveryAccountOnceInIdOrder() {
+        List<AccountEvent> replayed = new ArrayList<>();
+        long after = 0;
+        ReplayPage<AccountEvent> page;
+        do {
+            page = accountService.replayAccounts(after, 7);
+            replayed.addAll(page.itens());
+            after = page.proximo() == null ? after : Long.parseLong(page.proximo());
+        } while (page.proximo() != null);
+
+        assertEquals(ACCOUNTS, replayed.size());
+        for (int i = 1; i < replayed.size(); i++) {
+            assertTrue(replayed.get(i - 1).id() < replayed.get(i).id());
+        }
+        AccountEvent first = replayed.get(0);
+        Account stored = accountRepository.findById(first.id()).orElseThrow();
+        assertEquals(stored.getVersion(), first.sequence());
+        assertEquals(0, stored.getBalance().compareTo(first.saldo()));
+    }
+
+    @Test
+    void pagesEveryTransactionOnceWithThePublishedEventIds() {
+        List<Long> ids = accountRepository.findAllIds();
+        List<TransactionEvent> replayed = new ArrayList<>();
+        String cursor = null;
+        ReplayPage<TransactionEvent> page;
+        do {
+            page = accountService.replayTransactions(ids.get(0), ids.get(ids.size() - 1), cursor, 4);
+            replayed.addAll(page.itens());
+            cursor = page.proximo();
+        } while (cursor != null);
+
+        Set<String> replayedIds = replayed.stream().map(TransactionEvent::eventId).collect(Collectors.toSet());
+        Set<String> publishedIds = new HashSet<>();
+        for (OutboxEvent event : outboxRepository.findAll()) {
+            if ("transaction.created".equals(event.getRoutingKey())) {
+                publishedIds.add(event.getEventId());
+            }
+        }
+        assertEquals(transactionRepository.count(), replayed.size());
+        assertEquals(publishedIds, replayedIds);
+
+        // Um intervalo de contas devolve só as transações delas.
+        ReplayPage<TransactionEvent> single = accountService.replayTransactions(ids.get(3), ids.get(3), null, 100);
+        assertEquals(4, single.itens().size());
+        assertNull(single.proximo());
+    }
+}
@@ -0,0 +1,164 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.ufpr.account_service.dto.BalanceAsOfDTO;
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.model.Record;
+import br.ufpr.account_service.model.Transaction;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.OutboxEventRepository;
+import br.ufpr.account_service.repository.RecordRepository;
+import br.ufpr.account_service.repository.TransactionRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:consolidation;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema",
+        "account.consolidation.chunk-size=2" })
+@ActiveProfiles("h2")
+class DailyConsolidationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private DailyConsolidation consolidation;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private RecordRepository recordRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    private Account busy;
+
+    @BeforeEach
+    void setUp() {
+        recordRepository.deleteAll();
+        outboxRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+
+        // Saldo atual 350 = 100 (antes) + 200 - 50 (no dia) + 100 (depois).
+        busy = seed("11111111111", "1111", "350.00", LocalDateTime.of(2025, 1, 1, 0, 0));
+        transaction(busy, "100.00", LocalDateTime.of(2025, 3, 1, 9, 0));
+        transaction(busy, "200.00", LocalDateTime.of(2025, 3, 10, 9, 0));
+        transaction(busy, "-50.00", LocalDateTime.of(2025, 3, 10, 23, 59));
+        transaction(busy, "100.00", LocalDateTime.of(2025, 3, 12, 8, 0));
+
+        seed("22222222222", "2222", "40.00", LocalDateTime.of(2025, 1, 1, 0, 0));
+        seed("33333333333", "3333", "70.00", LocalDateTime.of(2025, 2, 1, 0, 0));
+        // Aberta depois do dia fechado: não entra no fechamento.
+        seed("44444444444", "4444", "10.00", LocalDateTime.of(2025, 3, 11, 10, 0));
+    }
+
+    @Test
+    void writesOneClosingRecordPerAccountAcrossChunks() {
+        assertEquals(3, consolidation.consolidate(DAY));
+
+        List<Record> records = recordRepository.findAll();
+        assertEquals(3, records.size());
+        Record closing = recordRepository
+                .findFirstByAccountIdAndDateLessThanEqualOrderByDateDesc(busy.getId(), DAY).orElseThrow();
+        assertEquals(0, new BigDecimal("250.00").compareTo(closing.getConsolidatedBalance()));
+        assertEquals(2, closing.getTransactionIds().size());
+
+        // Rodar de novo não duplica o fechamento.
+        assertEquals(0, consolidation.consolidate(DAY));
+        assertEquals(3, recordRepository.count());
+    }
+
+    @Test
+    void balanceAsOfStartsFromTheNearestClosingRecord() {
+        consolidation.consolidate(DAY);
+
+        BalanceAsOfDTO sameDay = accountService.getBalanceAsOf("1111", DAY);
+        assertEquals(0, new BigDecimal("250.00").compareTo(sameDay.getSaldo()));
+        assertEquals(DAY, sameDay.getFechamento());
+
+        BalanceAsOfDTO later = accountService.getBalanceAsOf("1111", LocalDate.of(2025, 3, 12));
+        assertEquals(0, new BigDecimal("350.00").compareTo(later.getSaldo()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(later.getMovimentacao()));
+    }
+
+    @Test
+    void balanceAsOfBeforeAnyClosingRecordUndoesLaterMovements() {
+        BalanceAsOfDTO early = accountService.getBalanceAsOf("1111", LocalDate.of(2025, 3, 5));
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(early.getSaldo()));
+        assertNull(early.getFechamento());
+    }
+
+    @Test
+    void movementsAfterTheClosedDayDoNotHideTheAccount() {
+        // Depósito e saque hoje mudam a data da última movimentação, não a abertura.
+        accountService.deposit("22222222222", new BigDecimal("30.00"));
+        accountService.withdraw("22222222222", new BigDecimal("5.00"));
+
+        assertEquals(3, consolidation.consolidate(DAY));
+        Record closing = recordRepository.findFirstByAccountIdAndDateLessThanEqualOrderByDateDesc(
+                accountRepository.findByClientId("22222222222").orElseThrow().getId(), DAY).orElseThrow();
+        assertEquals(0, new BigDecimal("40.00").compareTo(closing.getConsolidatedBalance()));
+
+        BalanceAsOfDTO asOf = accountService.getBalanceAsOf("2222", DAY);
+        assertEquals(0, new BigDecimal("40.00").compareTo(asOf.getSaldo()));
+        assertEquals(0, new BigDecimal("65.00").compareTo(accountService.getBalanceAsOf("2222", LocalDate.now())
+                .getSaldo()));
+    }
+
+    @Test
+    void accountOpenedAfterTheDayHasNoBalanceAsOf() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> accountService.getBalanceAsOf("4444", DAY));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode());
+    }
+
+    private Account seed(String cpf, String number, String balance, LocalDateTime creation) {
+        Account account = new Account();
+        account.setClientId(cpf);
+        account.setAccountNumber(number);
+        account.setBalance(new BigDecimal(balance));
+        account.setAccountLimit(BigDecimal.ZERO);
+        account.setManager("98574307084");
+        account.setCreationDate(creation);
+        return accountRepository.save(account);
+    }
+
+    private void transaction(Account account, String amount, LocalDateTime timestamp) {
+        Transaction tx = new Transaction();
+        tx.setAccount(account);
+        tx.setType(amount.startsWith("-") ? "saque" : "depósito");
+        tx.setAmount(new BigDecimal(amount));
+        tx.setTimestamp(timestamp);
+        tx.setOriginClientId(account.getClientId());
+        transactionRepository.save(tx);
+    }
+}
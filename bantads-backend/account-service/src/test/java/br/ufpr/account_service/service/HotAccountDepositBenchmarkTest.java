@@ -0,0 +1,160 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.TransactionRepository;
+
+/**
+ * Rajada de depósitos concorrentes numa única conta, com e sem
+ * {@code account.deposit.combine.enabled}. Compara os depósitos confirmados
+ * por segundo e confere que nenhum depósito se perdeu.
+ *
+ * Fica fora do build normal; rode com {@code mvn test -Pbenchmark}.
+ * {@link AccountServiceDepositCombineTest} cobre o agrupamento sem medir tempo.
+ */
+@Tag("benchmark")
+class HotAccountDepositBenchmarkTest {
+
+    private static final String CPF = "00000000001";
+    private static final int THREADS = 64;
+    private static final int DEPOSITS_PER_THREAD = 50;
+
+    private static double plainRate;
+    private static double combinedRate;
+
+    @Nested
+    @TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:bench_deposit_plain;MODE=PostgreSQL;"
+            + "DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000;INIT=CREATE SCHEMA IF NOT EXISTS account_schema")
+    class Plain extends Scenario {
+
+        @Test
+        void measure() throws Exception {
+            plainRate = run("um a um", false);
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "spring.datasource.url=jdbc:h2:mem:bench_deposit_combined;MODE=PostgreSQL;"
+                    + "DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000;INIT=CREATE SCHEMA IF NOT EXISTS account_schema",
+            "account.deposit.combine.enabled=true" })
+    class Combined extends Scenario {
+
+        @Test
+        void measure() throws Exception {
+            combinedRate = run("agrupados", true);
+        }
+    }
+
+    @AfterAll
+    static void compare() {
+        if (plainRate > 0 && combinedRate > 0) {
+            assertTrue(combinedRate > plainRate,
+                    "agrupados: " + combinedRate + " depósitos/s, um a um: " + plainRate);
+        }
+    }
+
+    @SpringBootTest
+    @ActiveProfiles("h2")
+    abstract static class Scenario {
+
+        @MockitoBean
+        private RabbitTemplate rabbitTemplate;
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private TransactionRepository transactionRepository;
+
+        double run(String label, boolean everyDepositSucceeds) throws Exception {
+            seed();
+            AtomicInteger succeeded = new AtomicInteger();
+            Set<BigDecimal> balances = ConcurrentHashMap.newKeySet();
+            ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+            CountDownLatch go = new CountDownLatch(1);
+            long start;
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    workers.add(pool.submit(() -> {
+                        go.await();
+                        for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                            try {
+                                balances.add(accountService.deposit(CPF, BigDecimal.ONE).getBalance());
+                                succeeded.incrementAndGet();
+                            } catch (ResponseStatusException ex) {
+                                // Conflitos esgotaram as tentativas; nada foi gravado.
+                                assertEquals(409, ex.getStatusCode().value());
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start = System.nanoTime();
+                go.countDown();
+                for (Future<?> worker : workers) {
+                    worker.get(120, TimeUnit.SECONDS);
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double rate = succeeded.get() / seconds;
+            System.out.printf("Depósitos %s numa conta: %d de %d confirmados, %.0f depósitos/s%n", label,
+                    succeeded.get(), THREADS * DEPOSITS_PER_THREAD, rate);
+
+            Account account = accountRepository.findByClientId(CPF).orElseThrow();
+            assertEquals(0, BigDecimal.valueOf(succeeded.get()).compareTo(account.getBalance()));
+            assertEquals(succeeded.get(), transactionRepository.count());
+            if (everyDepositSucceeds) {
+                assertEquals(THREADS * DEPOSITS_PER_THREAD, succeeded.get());
+                // Cada depósito recebeu o saldo logo depois dele.
+                assertEquals(succeeded.get(), balances.size());
+            }
+            return rate;
+        }
+
+        private void seed() {
+            Account account = new Account();
+            account.setClientId(CPF);
+            account.setAccountNumber("0001");
+            account.setBalance(BigDecimal.ZERO);
+            account.setAccountLimit(BigDecimal.ZERO);
+            account.setManager("98574307084");
+            account.setCreationDate(LocalDateTime.now());
+            accountRepository.save(account);
+        }
+    }
+}
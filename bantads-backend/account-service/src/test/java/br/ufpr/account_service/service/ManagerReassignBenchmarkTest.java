@@ -0,0 +1,122 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.repository.ManagerLoadRepository;
+
+/**
+ * Escolha da conta a repassar para um gerente novo com 1M de contas
+ * ({@code -Dbench.accounts} muda o tamanho): a consulta antiga, que agrupa a
+ * tabela de contas inteira, contra manager_load e o índice (manager, balance).
+ * Fica fora do build normal; rode com {@code mvn test -Pbenchmark}. A
+ * manutenção de manager_load é coberta por {@link AccountLifecycleTest}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bench_reassign;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+        + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema")
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ManagerReassignBenchmarkTest {
+
+    private static final int ACCOUNTS = Integer.getInteger("bench.accounts", 1_000_000);
+    private static final int RUNS = 5;
+
+    /** Consulta que findAccountToReassign fazia antes de manager_load. */
+    private static final String LEGACY_SQL = """
+            SELECT a.id FROM account_schema.account a
+            WHERE a.manager IN (
+                SELECT manager_counts.manager
+                FROM (SELECT manager, COUNT(*) as cnt FROM account_schema.account GROUP BY manager) manager_counts
+                WHERE manager_counts.cnt = (
+                    SELECT MAX(cnt_inner)
+                    FROM (SELECT COUNT(*) as cnt_inner FROM account_schema.account GROUP BY manager) max_counts
+                )
+            )
+            AND a.balance > 0
+            ORDER BY a.balance ASC
+            LIMIT 1
+            """;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ManagerLoadRepository managerLoadRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void populate() {
+        // 500 gerentes; o G0007 recebe uma conta a mais a cada mil e fica com a maior carteira.
+        jdbc.update("""
+                INSERT INTO account_schema.account
+                    (id, client_id, account_number, creation_date, balance, account_limit, manager, version)
+                SELECT X, LPAD(CAST(X AS VARCHAR), 11, '0'), LPAD(CAST(X AS VARCHAR), 8, '0'), CURRENT_TIMESTAMP,
+                       CAST(MOD(X * 7919, 100000) AS DECIMAL(38, 2)) / 100 - 100, 0,
+                       CASE WHEN MOD(X, 1000) = 0 THEN 'G0007'
+                            ELSE 'G' || LPAD(CAST(MOD(X, 500) AS VARCHAR), 4, '0') END,
+                       0
+                FROM SYSTEM_RANGE(1, ?)
+                """, ACCOUNTS);
+        transactionTemplate.executeWithoutResult(status -> {
+            managerLoadRepository.clear();
+            managerLoadRepository.rebuildFromAccounts();
+        });
+    }
+
+    @Test
+    void picksTheSameAccountWithoutAggregatingTheAccountTable() {
+        long legacyNanos = 0;
+        Long expected = null;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            jdbc.queryForObject("SELECT COUNT(DISTINCT manager) FROM account_schema.account", Long.class);
+            jdbc.queryForObject("SELECT COUNT(*) FROM account_schema.account", Long.class);
+            expected = jdbc.queryForObject(LEGACY_SQL, Long.class);
+            legacyNanos += System.nanoTime() - start;
+        }
+
+        long loadBefore = managerLoadRepository.findById("G0007").orElseThrow().getAccountCount();
+        long start = System.nanoTime();
+        Account moved = accountService.reassignAccountToNewManager("NOVO-0");
+        long firstNanos = System.nanoTime() - start;
+        assertEquals(expected, moved.getId());
+        assertEquals("NOVO-0", moved.getManager());
+        assertEquals(loadBefore - 1, managerLoadRepository.findById("G0007").orElseThrow().getAccountCount());
+        assertEquals(1, managerLoadRepository.findById("NOVO-0").orElseThrow().getAccountCount());
+
+        long indexedNanos = firstNanos;
+        for (int i = 1; i < RUNS; i++) {
+            start = System.nanoTime();
+            accountService.reassignAccountToNewManager("NOVO-" + i);
+            indexedNanos += System.nanoTime() - start;
+        }
+
+        double legacyMillis = legacyNanos / 1e6 / RUNS;
+        double indexedMillis = indexedNanos / 1e6 / RUNS;
+        System.out.printf("Repasse de conta com %d contas: consulta agregada %.2f ms, manager_load %.2f ms "
+                + "(incluindo a gravação)%n", ACCOUNTS, legacyMillis, indexedMillis);
+        assertTrue(indexedMillis < legacyMillis);
+    }
+}
@@ -0,0 +1,119 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import br.ufpr.account_service.model.OutboxEvent;
+import br.ufpr.account_service.repository.AccountRepository;
+import br.ufpr.account_service.repository.ManagerLoadRepository;
+import br.ufpr.account_service.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox_relay;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema",
+        "outbox.relay.max-attempts=2" })
+@ActiveProfiles("h2")
+class OutboxRelayTest {
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ManagerLoadRepository managerLoadRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+        accountRepository.deleteAll();
+        managerLoadRepository.deleteAll();
+    }
+
+    @Test
+    void parksAnEventTheBrokerKeepsRefusing() {
+        // O broker recusa (nack) todo envio.
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(false, "recusado"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        accountService.openAccount(AccountLifecycleTest.account("11111111111", "1111", "98574307084", "0.00"));
+        double parkedBefore = meterRegistry.counter("outbox.events.parked").count();
+
+        outboxRelay.relay();
+        OutboxEvent retried = single();
+        assertEquals(1, retried.getAttempts());
+        assertNull(retried.getFailedAt());
+
+        outboxRelay.relay();
+        OutboxEvent parked = single();
+        assertEquals(2, parked.getAttempts());
+        assertNotNull(parked.getFailedAt());
+        assertNull(parked.getPublishedAt());
+        assertEquals(parkedBefore + 1, meterRegistry.counter("outbox.events.parked").count());
+
+        // Estacionado, não é mais reenviado nem removido pela limpeza.
+        outboxRelay.relay();
+        verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(Message.class),
+                any(CorrelationData.class));
+        outboxRelay.purgePublished();
+        assertNotNull(single().getFailedAt());
+    }
+
+    @Test
+    void confirmedEventsArePublishedOnce() {
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(true, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        accountService.openAccount(AccountLifecycleTest.account("22222222222", "2222", "98574307084", "0.00"));
+
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        OutboxEvent published = single();
+        assertNotNull(published.getPublishedAt());
+        assertEquals(0, published.getAttempts());
+        verify(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private OutboxEvent single() {
+        List<OutboxEvent> events = outboxRepository.findAll();
+        assertEquals(1, events.size());
+        return events.get(0);
+    }
+}
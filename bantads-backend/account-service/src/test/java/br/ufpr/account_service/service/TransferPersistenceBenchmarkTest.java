@@ -0,0 +1,132 @@
+package br.ufpr.account_service.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import br.ufpr.account_service.model.Account;
+import br.ufpr.account_service.repository.AccountRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Compara o custo de persistência de uma transferência sem lotes JDBC (um
+ * comando por linha, como com ids IDENTITY) e com ids por sequence e lotes.
+ * Conta os comandos preparados pelo Hibernate, que equivalem às idas ao banco.
+ *
+ * Fica fora do build normal; rode com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class TransferPersistenceBenchmarkTest {
+
+    private static final int WARMUP = 500;
+    private static final int TRANSFERS = 1000;
+
+    private static double unbatchedStatements;
+    private static double batchedStatements;
+
+    @Nested
+    @TestPropertySource(properties = {
+            "spring.datasource.url=jdbc:h2:mem:bench_unbatched;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+                    + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=1",
+            "spring.jpa.properties.hibernate.order_inserts=false",
+            "spring.jpa.properties.hibernate.order_updates=false" })
+    class Unbatched extends Scenario {
+
+        @Test
+        void measure() {
+            unbatchedStatements = run("sem lotes");
+        }
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "spring.datasource.url=jdbc:h2:mem:bench_batched;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;"
+                    + "INIT=CREATE SCHEMA IF NOT EXISTS account_schema" })
+    class Batched extends Scenario {
+
+        @Test
+        void measure() {
+            batchedStatements = run("com lotes");
+        }
+    }
+
+    @AfterAll
+    static void compare() {
+        if (unbatchedStatements > 0 && batchedStatements > 0) {
+            assertTrue(batchedStatements < unbatchedStatements,
+                    "lotes: " + batchedStatements + " comandos/transferência, sem lotes: " + unbatchedStatements);
+        }
+    }
+
+    @SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+    @ActiveProfiles("h2")
+    abstract static class Scenario {
+
+        @MockitoBean
+        private RabbitTemplate rabbitTemplate;
+
+        @Autowired
+        private AccountService accountService;
+
+        @Autowired
+        private AccountRepository accountRepository;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        double run(String label) {
+            seed("00000000001", "0001");
+            seed("00000000002", "0002");
+            for (int i = 0; i < WARMUP; i++) {
+                transfer(i);
+            }
+
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            long start = System.nanoTime();
+            for (int i = 0; i < TRANSFERS; i++) {
+                transfer(i);
+            }
+            double micros = (System.nanoTime() - start) / 1_000.0 / TRANSFERS;
+            double statements = (double) statistics.getPrepareStatementCount() / TRANSFERS;
+
+            System.out.printf("Transferência %s: %.1f comandos ao banco, %.0f µs em média%n", label, statements,
+                    micros);
+            return statements;
+        }
+
+        private void transfer(int i) {
+            if (i % 2 == 0) {
+                accountService.transfer("00000000001", "0002", BigDecimal.ONE);
+            } else {
+                accountService.transfer("00000000002", "0001", BigDecimal.ONE);
+            }
+        }
+
+        private void seed(String cpf, String number) {
+            Account account = new Account();
+            account.setClientId(cpf);
+            account.setAccountNumber(number);
+            account.setBalance(new BigDecimal("1000.00"));
+            account.setAccountLimit(BigDecimal.ZERO);
+            account.setManager("98574307084");
+            account.setCreationDate(LocalDateTime.now());
+            accountRepository.save(account);
+        }
+    }
+}
@@ -1,14 +1,44 @@
 package br.ufpr.saga_orchestrator;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
 @Configuration
 public class WebClientConfig {
 
+    /**
+     * Pool de conexões compartilhado pelas consultas aos outros serviços. As
+     * conexões são reaproveitadas entre requisições e o tempo de espera por uma
+     * conexão livre é limitado, para que um serviço lento não segure o pool.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider webClientConnectionProvider(
+            @Value("${http.client.pool.max-connections:200}") int maxConnections,
+            @Value("${http.client.pool.acquire-timeout-millis:2000}") long acquireTimeoutMillis,
+            @Value("${http.client.pool.max-idle-millis:30000}") long maxIdleMillis) {
+        return ConnectionProvider.builder("saga-http")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(acquireTimeoutMillis))
+                .maxIdleTime(Duration.ofMillis(maxIdleMillis))
+                .build();
+    }
+
     @Bean
-    public WebClient webClient(WebClient.Builder builder) {
-        return builder.build();
+    public WebClient webClient(WebClient.Builder builder, ConnectionProvider webClientConnectionProvider,
+            @Value("${http.client.connect-timeout-millis:1000}") int connectTimeoutMillis,
+            @Value("${http.client.response-timeout-millis:3000}") long responseTimeoutMillis) {
+        HttpClient httpClient = HttpClient.create(webClientConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMillis));
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
     }
-}
\ No newline at end of file
+}
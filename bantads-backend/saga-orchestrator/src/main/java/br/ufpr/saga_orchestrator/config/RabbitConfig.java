@@ -8,6 +8,8 @@ import org.springframework.context.annotation.Configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import br.ufpr.saga_orchestrator.engine.SagaInstance;
+
 @Configuration
 public class RabbitConfig {
 
@@ -285,4 +287,30 @@ public class RabbitConfig {
                 .with("saga.manager.account.failed");
     }
 
-}
\ No newline at end of file
+    // Roteamento entre réplicas do orquestrador
+    @Bean
+    public DirectExchange sagaInstancesExchange(
+            @Value("${saga.instance.exchange:saga.instances}") String name) {
+        return new DirectExchange(name, true, false);
+    }
+
+    /**
+     * Fila desta réplica para respostas encaminhadas por outras. Expira se a
+     * instância ficar fora do ar, e a partir daí o encaminhamento volta como
+     * não roteável e quem recebeu a resposta assume a saga.
+     */
+    @Bean
+    public Queue instanceReplyQueue(SagaInstance instance,
+            @Value("${saga.instance.queue-expires-millis:600000}") long expiresMillis) {
+        return QueueBuilder.durable("saga.instance." + instance.getId())
+                .expires((int) expiresMillis)
+                .build();
+    }
+
+    @Bean
+    public Binding bindInstanceReplyQueue(Queue instanceReplyQueue, DirectExchange sagaInstancesExchange,
+            SagaInstance instance) {
+        return BindingBuilder.bind(instanceReplyQueue).to(sagaInstancesExchange).with(instance.getId());
+    }
+
+}
@@ -0,0 +1,285 @@
+package br.ufpr.saga_orchestrator.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.amqp.core.Queue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.ufpr.saga_orchestrator.engine.SagaContext;
+import br.ufpr.saga_orchestrator.engine.SagaFlow;
+import br.ufpr.saga_orchestrator.engine.SagaStep;
+
+/**
+ * Declaração dos fluxos de saga. Cada passo diz qual comando publicar, em
+ * quais filas esperar a resposta e como se desfazer; o {@code SagaEngine}
+ * cuida do roteamento, do estado e das compensações.
+ */
+@Configuration
+public class SagaFlowConfig {
+
+    public static final String CREATE_MANAGER = "create-manager";
+    public static final String UPDATE_MANAGER = "update-manager";
+    public static final String DELETE_MANAGER = "delete-manager";
+    public static final String APPROVE_CLIENT = "approve-client";
+    public static final String UPDATE_CLIENT = "update-client";
+
+    @Value("${rabbit.managers.exchange:managers.exchange}")
+    private String managersExchange;
+
+    @Value("${rabbit.managers.create-key:manager.create}")
+    private String managersCreateKey;
+
+    @Value("${rabbit.managers.delete-key:manager.delete}")
+    private String managersDeleteKey;
+
+    @Value("${rabbit.managers.update-key:manager.update}")
+    private String managersUpdateKey;
+
+    @Value("${rabbit.managers.assign-key:manager.assign}")
+    private String managersAssignKey;
+
+    @Value("${rabbit.auth.exchange:auth.exchange}")
+    private String authExchange;
+
+    @Value("${rabbit.auth.create-key:auth.create-user}")
+    private String authCreateKey;
+
+    @Value("${rabbit.auth.update-key:auth.update-user}")
+    private String authUpdateKey;
+
+    @Value("${rabbit.auth.delete-key:auth.delete-user}")
+    private String authDeleteKey;
+
+    @Value("${rabbit.clients.exchange:clients.exchange}")
+    private String clientsExchange;
+
+    @Value("${rabbit.clients.approve-key:client.approve}")
+    private String clientsApproveKey;
+
+    @Value("${rabbit.clients.update-key:client.update}")
+    private String clientsUpdateKey;
+
+    @Value("${rabbit.saga.exchange:saga.exchange}")
+    private String sagaExchange;
+
+    @Value("${rabbit.account.create-key:saga.account.create}")
+    private String accountCreateKey;
+
+    @Value("${rabbit.account.updatelimit-key:saga.account.updatelimit}")
+    private String accountUpdateLimitKey;
+
+    @Value("${rabbit.account.delete-key:saga.account.delete}")
+    private String accountDeleteKey;
+
+    @Value("${rabbit.account.manager-created-key:account.crud-manager.created}")
+    private String accountManagerCreatedKey;
+
+    @Bean
+    public SagaFlow createManagerFlow(Queue managerCreatedQueue, Queue managerFailedQueue, Queue authCreatedQueue,
+            Queue authFailedQueue, Queue sagaManagerProcessedQueue, Queue sagaManagerAccountFailedQueue) {
+        return SagaFlow.define(CREATE_MANAGER)
+                .step(SagaStep.named("pending")
+                        .message("Aguardando criação")
+                        .command(managersExchange, managersCreateKey, (ctx, input) -> input)
+                        .awaiting(managerCreatedQueue.getName(), managerFailedQueue.getName())
+                        .compensateWith(ctx -> {
+                            if (ctx.getManagerId() != null) {
+                                ctx.publish(managersExchange, managersDeleteKey, Map.of("id", ctx.getManagerId()));
+                            }
+                        })
+                        .build())
+                .step(SagaStep.named("pending-auth")
+                        .message("Aguardando auth")
+                        .command(authExchange, authCreateKey, (ctx, manager) -> {
+                            String managerId = firstNonNull(getString(manager, "id"), getString(manager, "managerId"));
+                            if (managerId != null) {
+                                ctx.setManagerId(managerId);
+                            }
+                            Map<String, Object> auth = new HashMap<>();
+                            auth.put("cpf", getString(manager, "cpf"));
+                            auth.put("nome", getString(manager, "name"));
+                            auth.put("email", getString(manager, "email"));
+                            auth.put("senha", getString(manager, "password"));
+                            auth.put("tipo", "GERENTE");
+                            auth.put("managerId", managerId);
+                            return auth;
+                        })
+                        .awaiting(authCreatedQueue.getName(), authFailedQueue.getName())
+                        .build())
+                .step(SagaStep.named("pending-account")
+                        .message("Aguardando vínculo de contas")
+                        .command(sagaExchange, accountManagerCreatedKey, (ctx, auth) -> auth)
+                        .awaiting(sagaManagerProcessedQueue.getName(), sagaManagerAccountFailedQueue.getName())
+                        .build())
+                .completeWith(201, "Manager criado com sucesso", (ctx, processed) -> Map.of(
+                        "cpf", orEmpty(getString(processed, "cpf")),
+                        "nome", orEmpty(getString(processed, "nome")),
+                        "conta", orEmpty(getString(processed, "transferredAccount")),
+                        "limite", ""))
+                .build();
+    }
+
+    @Bean
+    public SagaFlow updateManagerFlow(Queue managerUpdatedQueue, Queue managerFailedQueue, Queue authUpdatedQueue,
+            Queue authUpdateFailedQueue) {
+        return SagaFlow.define(UPDATE_MANAGER)
+                .step(SagaStep.named("pending")
+                        .message("Aguardando atualização")
+                        .command(managersExchange, managersUpdateKey, (ctx, input) -> {
+                            ctx.setManagerId(getString(input, "id"));
+                            return input;
+                        })
+                        .awaiting(managerUpdatedQueue.getName(), managerFailedQueue.getName())
+                        .build())
+                .step(SagaStep.named("pending-auth")
+                        .message("Aguardando auth")
+                        .command(authExchange, authUpdateKey, (ctx, manager) -> {
+                            Map<String, Object> auth = new HashMap<>();
+                            auth.put("cpf", getString(manager, "cpf"));
+                            auth.put("nome", getString(manager, "name"));
+                            auth.put("email", getString(manager, "email"));
+                            auth.put("senha", getString(manager, "password"));
+                            auth.put("tipo", "MANAGER");
+                            auth.put("managerId",
+                                    firstNonNull(getString(manager, "id"), getString(manager, "managerId")));
+                            return auth;
+                        })
+                        .awaiting(authUpdatedQueue.getName(), authUpdateFailedQueue.getName())
+                        .build())
+                .completeWith(200, "Manager atualizado com sucesso", (ctx, auth) -> auth)
+                .build();
+    }
+
+    @Bean
+    public SagaFlow deleteManagerFlow(Queue managerDeletedQueue, Queue managerFailedQueue, Queue authDeletedQueue,
+            Queue authDeleteFailedQueue) {
+        return SagaFlow.define(DELETE_MANAGER)
+                .step(SagaStep.named("pending")
+                        .message("Aguardando deleção")
+                        .command(managersExchange, managersDeleteKey, (ctx, input) -> input)
+                        .awaiting(managerDeletedQueue.getName(), managerFailedQueue.getName())
+                        .build())
+                .step(SagaStep.named("pending-auth")
+                        .message("Aguardando auth")
+                        .command(authExchange, authDeleteKey,
+                                (ctx, manager) -> Map.of("cpf", getString(manager, "cpf")))
+                        .awaiting(authDeletedQueue.getName(), authDeleteFailedQueue.getName())
+                        .build())
+                .completeWith(200, "Manager deletado com sucesso",
+                        (ctx, auth) -> Map.of("correlationId", ctx.getCorrelationId()))
+                .build();
+    }
+
+    @Bean
+    public SagaFlow approveClientFlow(Queue clientApprovedQueue, Queue clientApproveFailedQueue,
+            Queue managerAssignedQueue, Queue managerAssignFailedQueue, Queue managerFailedQueue,
+            Queue accountCreatedForApprovalQueue, Queue accountCreateFailedForApprovalQueue,
+            Queue authCreatedQueue, Queue authFailedQueue) {
+        return SagaFlow.define(APPROVE_CLIENT)
+                .step(SagaStep.named("pending")
+                        .message("Aguardando aprovação")
+                        .command(clientsExchange, clientsApproveKey, (ctx, input) -> input)
+                        .awaiting(clientApprovedQueue.getName(), clientApproveFailedQueue.getName())
+                        .build())
+                .step(SagaStep.named("pending-manager")
+                        .message("Aguardando atribuição de gerente")
+                        .command(managersExchange, managersAssignKey, (ctx, client) -> {
+                            Map<String, Object> data = new HashMap<>();
+                            data.put("cpf", getString(client, "cpf"));
+                            data.put("nome", getString(client, "nome"));
+                            data.put("email", getString(client, "email"));
+                            data.put("salario", client.get("salario"));
+                            ctx.setClientData(data);
+                            return new HashMap<>(data);
+                        })
+                        .awaiting(managerAssignedQueue.getName(), managerAssignFailedQueue.getName(),
+                                managerFailedQueue.getName())
+                        .build())
+                .step(SagaStep.named("pending-account")
+                        .message("Aguardando criação de conta")
+                        .command(sagaExchange, accountCreateKey, (ctx, assignment) -> {
+                            Map<String, Object> account = new HashMap<>();
+                            account.put("clientId", getString(assignment, "cpf"));
+                            account.put("managerId", getString(assignment, "managerId"));
+                            account.put("salary", assignment.get("salario"));
+                            return account;
+                        })
+                        .awaiting(accountCreatedForApprovalQueue.getName(),
+                                accountCreateFailedForApprovalQueue.getName())
+                        .compensateWith(ctx -> {
+                            Object cpf = clientData(ctx).get("cpf");
+                            if (cpf != null) {
+                                ctx.publish(sagaExchange, accountDeleteKey, Map.of("clientId", cpf));
+                            }
+                        })
+                        .build())
+                .step(SagaStep.named("pending-auth")
+                        .message("Aguardando criação de autenticação")
+                        .command(authExchange, authCreateKey, (ctx, account) -> {
+                            Map<String, Object> client = clientData(ctx);
+                            Map<String, Object> auth = new HashMap<>();
+                            auth.put("cpf", getString(account, "clientId"));
+                            auth.put("nome", client.get("nome"));
+                            auth.put("email", client.get("email"));
+                            auth.put("tipo", "CLIENTE");
+                            auth.put("generatePassword", true);
+                            auth.put("accountNumber", getString(account, "accountNumber"));
+                            auth.put("limit", getString(account, "limit"));
+                            return auth;
+                        })
+                        .awaiting(authCreatedQueue.getName(), authFailedQueue.getName())
+                        .build())
+                .completeWith(201, "Cliente aprovado com sucesso", (ctx, auth) -> Map.of(
+                        "cpf", orEmpty(getString(auth, "cpf")),
+                        "nome", orEmpty(getString(auth, "nome")),
+                        "conta", orEmpty(getString(auth, "accountNumber")),
+                        "limite", orEmpty(getString(auth, "limit"))))
+                .build();
+    }
+
+    @Bean
+    public SagaFlow updateClientFlow(Queue clientUpdatedQueue, Queue clientUpdateFailedQueue,
+            Queue accountLimitUpdatedQueue, Queue accountLimitUpdateFailedQueue) {
+        return SagaFlow.define(UPDATE_CLIENT)
+                .step(SagaStep.named("pending")
+                        .message("Aguardando atualização")
+                        .command(clientsExchange, clientsUpdateKey, (ctx, input) -> input)
+                        .awaiting(clientUpdatedQueue.getName(), clientUpdateFailedQueue.getName())
+                        .build())
+                .step(SagaStep.named("pending-limit")
+                        .message("Aguardando atualização de limite")
+                        .onlyIf((ctx, client) -> client.get("salario") != null && client.get("oldSalario") != null
+                                && !client.get("salario").equals(client.get("oldSalario")))
+                        .command(sagaExchange, accountUpdateLimitKey, (ctx, client) -> {
+                            Map<String, Object> limit = new HashMap<>();
+                            limit.put("clientId", getString(client, "cpf"));
+                            limit.put("newSalary", client.get("salario"));
+                            return limit;
+                        })
+                        .awaiting(accountLimitUpdatedQueue.getName(), accountLimitUpdateFailedQueue.getName())
+                        .build())
+                .completeWith(200, "Cliente atualizado com sucesso", (ctx, reply) -> reply)
+                .build();
+    }
+
+    private static Map<String, Object> clientData(SagaContext ctx) {
+        Map<String, Object> data = ctx.getClientData();
+        return data != null ? data : Map.of();
+    }
+
+    private static String getString(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        return value != null ? String.valueOf(value) : null;
+    }
+
+    private static String firstNonNull(String first, String second) {
+        return first != null ? first : second;
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,83 @@
+package br.ufpr.saga_orchestrator.consumer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.ufpr.saga_orchestrator.engine.SagaEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Repassa para a instância dona uma resposta consumida por outra réplica. A
+ * mensagem segue intacta, com a fila de origem no header
+ * {@value #REPLY_QUEUE_HEADER}.
+ *
+ * A publicação é {@code mandatory}: se a fila da dona não existe mais, o broker
+ * devolve a mensagem e ela é processada aqui mesmo, assumindo a saga.
+ */
+@Component
+public class SagaReplyForwarder {
+
+    public static final String REPLY_QUEUE_HEADER = "x-saga-reply-queue";
+
+    private static final Logger log = LoggerFactory.getLogger(SagaReplyForwarder.class);
+
+    private final RabbitTemplate template;
+    private final SagaEngine engine;
+    private final String exchange;
+    private final Counter forwarded;
+    private final Counter returned;
+    // Os retornos chegam na thread da conexão; o processamento sai dela.
+    private final ExecutorService returnsExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "saga-forward-returns");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SagaReplyForwarder(ConnectionFactory connectionFactory, SagaEngine engine, MeterRegistry meters,
+            @Value("${saga.instance.exchange:saga.instances}") String exchange) {
+        this.engine = engine;
+        this.exchange = exchange;
+        this.template = new RabbitTemplate(connectionFactory);
+        this.template.setMandatory(true);
+        this.template.setReturnsCallback(r -> returnsExecutor.execute(() -> onReturned(r.getMessage())));
+        this.forwarded = Counter.builder("saga.replies.forwarded")
+                .description("Respostas repassadas para a instância dona da saga")
+                .register(meters);
+        this.returned = Counter.builder("saga.replies.unroutable")
+                .description("Respostas cuja instância dona não estava mais no ar")
+                .register(meters);
+    }
+
+    public void forward(String owner, String queue, Message message) {
+        message.getMessageProperties().setHeader(REPLY_QUEUE_HEADER, queue);
+        template.send(exchange, owner, message);
+        forwarded.increment();
+    }
+
+    private void onReturned(Message message) {
+        returned.increment();
+        String queue = message.getMessageProperties().getHeader(REPLY_QUEUE_HEADER);
+        log.warn("[SAGA] Instância dona indisponível, processando localmente correlationId={}",
+                message.getMessageProperties().getCorrelationId());
+        try {
+            engine.onReply(queue, message);
+        } catch (Exception ex) {
+            log.error("[SAGA] Erro ao processar resposta devolvida: {}", ex.getMessage(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        returnsExecutor.shutdown();
+    }
+}
@@ -0,0 +1,48 @@
+package br.ufpr.saga_orchestrator.consumer;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import br.ufpr.saga_orchestrator.engine.SagaEngine;
+import br.ufpr.saga_orchestrator.engine.SagaInstance;
+
+/**
+ * Listener único das respostas de saga. Escuta todas as filas declaradas nos
+ * fluxos e entrega cada mensagem ao engine junto com a fila de origem, que é o
+ * que decide o próximo passo.
+ *
+ * As filas de resposta são compartilhadas entre as réplicas; uma resposta de
+ * saga iniciada por outra instância é repassada para a fila da dona.
+ */
+@Component
+public class SagaReplyListener {
+
+    private final SagaEngine engine;
+    private final SagaInstance instance;
+    private final SagaReplyForwarder forwarder;
+
+    public SagaReplyListener(SagaEngine engine, SagaInstance instance, SagaReplyForwarder forwarder) {
+        this.engine = engine;
+        this.instance = instance;
+        this.forwarder = forwarder;
+    }
+
+    @RabbitListener(queues = "#{sagaEngine.replyQueues()}", concurrency = "${saga.listener.concurrency:4-16}")
+    public void onReply(Message message) {
+        String queue = message.getMessageProperties().getConsumerQueue();
+        String correlationId = message.getMessageProperties().getCorrelationId();
+
+        if (instance.owns(correlationId) || engine.isTracking(correlationId)) {
+            engine.onReply(queue, message);
+        } else {
+            forwarder.forward(instance.ownerOf(correlationId), queue, message);
+        }
+    }
+
+    @RabbitListener(queues = "#{instanceReplyQueue.name}")
+    public void onForwardedReply(Message message) {
+        String queue = message.getMessageProperties().getHeader(SagaReplyForwarder.REPLY_QUEUE_HEADER);
+        engine.onReply(queue, message);
+    }
+}
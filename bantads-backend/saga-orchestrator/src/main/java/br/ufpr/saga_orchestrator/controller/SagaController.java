@@ -1,11 +1,18 @@
 package br.ufpr.saga_orchestrator.controller;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import br.ufpr.saga_orchestrator.result.SagaResult;
 import br.ufpr.saga_orchestrator.service.SagaService;
 import jakarta.validation.constraints.NotBlank;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 public class SagaController {
@@ -23,12 +30,14 @@ public class SagaController {
 
     // Criar gerente (e fluxos correlatos)
     @PostMapping("/gerentes")
-    public ResponseEntity<?> criarGerenteSaga(
+    public CompletableFuture<ResponseEntity<?>> criarGerenteSaga(
             @RequestBody Map<String, Object> managerDto,
             @RequestHeader(name = "Authorization", required = false) String authorization) {
 
-        SagaResult result = sagaService.createManagerSaga(managerDto);
+        return sagaService.createManagerSaga(managerDto).thenApply(this::toPendingAwareResponse);
+    }
 
+    private ResponseEntity<?> toPendingAwareResponse(SagaResult result) {
         // Respect the SagaResult statusCode so caller can act accordingly.
         if (!result.isSuccess()) {
             return ResponseEntity.status(result.getStatusCode()).body(Map.of("erro", result.getMessage()));
@@ -54,8 +63,24 @@ public class SagaController {
     }
 
     @GetMapping("/saga/result/{correlationId}")
-    public ResponseEntity<?> getSagaResult(@PathVariable String correlationId) {
-        SagaResult r = sagaService.getSagaResult(correlationId);
+    public CompletableFuture<ResponseEntity<?>> getSagaResult(@PathVariable String correlationId,
+            @RequestParam(name = "waitMs", required = false) Long waitMs) {
+        if (waitMs == null) {
+            return CompletableFuture.completedFuture(toResultResponse(sagaService.getSagaResult(correlationId)));
+        }
+        // Long-poll: responde no estado final ou, vencido o prazo, com o estado atual.
+        return sagaService.awaitSagaResult(correlationId, waitMs).thenApply(this::toResultResponse);
+    }
+
+    @GetMapping(path = "/saga/result/{correlationId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSagaResult(@PathVariable String correlationId) {
+        SseEmitter emitter = sagaService.streamSagaResult(correlationId);
+        if (emitter == null)
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Saga não encontrada");
+        return emitter;
+    }
+
+    private ResponseEntity<?> toResultResponse(SagaResult r) {
         if (r == null)
             return ResponseEntity.notFound().build();
         if (!r.isSuccess()) {
@@ -66,62 +91,34 @@ public class SagaController {
     }
 
     @PutMapping("/gerentes/{cpf}")
-    public ResponseEntity<?> atualizarGerenteSaga(
+    public CompletableFuture<ResponseEntity<?>> atualizarGerenteSaga(
             @PathVariable @NotBlank String cpf,
             @RequestBody Map<String, Object> managerDto,
             @RequestHeader(name = "Authorization", required = false) String authorization) {
 
         managerDto.put("cpf", cpf);
-        SagaResult result = sagaService.updateManagerSaga(cpf, managerDto, authorization);
-
-        if (!result.isSuccess()) {
-            return ResponseEntity.status(result.getStatusCode()).body(Map.of("erro", result.getMessage()));
-        }
-
-        int code = result.getStatusCode();
-        if (code == 202) {
-            Object detail = result.getDetail();
-            String cid = null;
-            if (detail instanceof Map) {
-                Object c = ((Map<?, ?>) detail).get("correlationId");
-                if (c != null)
-                    cid = String.valueOf(c);
-            }
-            return ResponseEntity.status(202).body(Map.of("correlationId", cid, "status", "pending"));
-        }
-
-        return ResponseEntity.status(code).body(result.getDetail());
+        return sagaService.updateManagerSaga(cpf, managerDto, authorization).thenApply(this::toPendingAwareResponse);
     }
 
     @DeleteMapping("/gerentes/{cpf}")
-    public ResponseEntity<?> deletarGerenteSaga(@PathVariable @NotBlank String cpf) {
-
-        SagaResult result = sagaService.deleteManagerSaga(cpf);
+    public CompletableFuture<ResponseEntity<?>> deletarGerenteSaga(@PathVariable @NotBlank String cpf) {
 
-        if (!result.isSuccess()) {
-            return ResponseEntity.status(result.getStatusCode()).body(Map.of("erro", result.getMessage()));
-        }
+        return sagaService.deleteManagerSaga(cpf).thenApply(this::toPendingAwareResponse);
+    }
 
-        int code = result.getStatusCode();
-        if (code == 202) {
-            Object detail = result.getDetail();
-            String cid = null;
-            if (detail instanceof Map) {
-                Object c = ((Map<?, ?>) detail).get("correlationId");
-                if (c != null)
-                    cid = String.valueOf(c);
-            }
-            return ResponseEntity.status(202).body(Map.of("correlationId", cid, "status", "pending"));
-        }
+    @PostMapping("/clientes/{cpf}/aprovar")
+    public CompletableFuture<ResponseEntity<?>> aprovarClienteSaga(@PathVariable @NotBlank String cpf) {
 
-        return ResponseEntity.status(code).body(result.getDetail());
+        return sagaService.approveClientSaga(cpf).thenApply(this::toApproveClientResponse);
     }
 
-    @PostMapping("/clientes/{cpf}/aprovar")
-    public ResponseEntity<?> aprovarClienteSaga(@PathVariable @NotBlank String cpf) {
+    @PostMapping("/clientes/aprovar-lote")
+    public CompletableFuture<ResponseEntity<?>> aprovarClientesEmLote(@RequestBody List<String> cpfs) {
 
-        SagaResult result = sagaService.approveClientSaga(cpf);
+        return sagaService.approveClientSagaBatch(cpfs).thenApply(ResponseEntity::ok);
+    }
 
+    private ResponseEntity<?> toApproveClientResponse(SagaResult result) {
         if (!result.isSuccess()) {
             return ResponseEntity.status(result.getStatusCode()).body(Map.of("erro", result.getMessage()));
         }
@@ -142,22 +139,34 @@ public class SagaController {
     }
 
     @PutMapping("/clientes/{cpf}")
-    public ResponseEntity<?> updateClienteSaga(@PathVariable @NotBlank String cpf,
+    public CompletableFuture<ResponseEntity<?>> updateClienteSaga(@PathVariable @NotBlank String cpf,
             @RequestBody Map<String, Object> clientDto) {
 
-        SagaResult result = sagaService.updateClientSaga(cpf, clientDto);
+        return sagaService.updateClientSaga(cpf, clientDto).thenCompose(result -> {
+            if (!result.isSuccess()) {
+                return CompletableFuture.completedFuture(
+                        ResponseEntity.status(result.getStatusCode()).body(Map.of("erro", result.getMessage())));
+            }
+
+            // Depois da saga, compõe os dados completos do cliente sem bloquear
+            // a thread do listener que completou a saga.
+            return sagaService.composeClientData(cpf)
+                    .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                    .exceptionally(this::toComposeErrorResponse);
+        });
+    }
 
-        if (!result.isSuccess()) {
-            return ResponseEntity.status(result.getStatusCode()).body(Map.of("erro", result.getMessage()));
-        }
+    @PostMapping("/clientes/dados-compostos")
+    public CompletableFuture<ResponseEntity<?>> composeClientes(@RequestBody List<String> cpfs) {
+        return sagaService.composeClientDataBatch(cpfs).thenApply(ResponseEntity::ok);
+    }
 
-        // After SAGA completes, compose complete client data
-        try {
-            Map<String, Object> composedData = sagaService.composeClientData(cpf);
-            return ResponseEntity.ok(composedData);
-        } catch (Exception ex) {
-            return ResponseEntity.status(500)
-                    .body(Map.of("erro", "Erro ao compor dados do cliente: " + ex.getMessage()));
+    private ResponseEntity<?> toComposeErrorResponse(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof ResponseStatusException rse) {
+            return ResponseEntity.status(rse.getStatusCode()).body(Map.of("erro", String.valueOf(rse.getReason())));
         }
+        return ResponseEntity.status(500)
+                .body(Map.of("erro", "Erro ao compor dados do cliente: " + cause.getMessage()));
     }
-}
\ No newline at end of file
+}
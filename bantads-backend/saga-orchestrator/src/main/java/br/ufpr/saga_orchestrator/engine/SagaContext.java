@@ -0,0 +1,46 @@
+package br.ufpr.saga_orchestrator.engine;
+
+import java.util.Map;
+
+import br.ufpr.saga_orchestrator.store.SagaStateStore;
+
+/**
+ * Visão de uma saga em andamento para os passos declarados: dá acesso aos
+ * dados coletados e permite publicar comandos com o mesmo correlationId.
+ */
+public class SagaContext {
+
+    private final String correlationId;
+    private final SagaStateStore states;
+    private final SagaEngine engine;
+
+    SagaContext(String correlationId, SagaStateStore states, SagaEngine engine) {
+        this.correlationId = correlationId;
+        this.states = states;
+        this.engine = engine;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public String getManagerId() {
+        return states.getManagerId(correlationId);
+    }
+
+    public void setManagerId(String managerId) {
+        states.putManagerId(correlationId, managerId);
+    }
+
+    public Map<String, Object> getClientData() {
+        return states.getClientData(correlationId);
+    }
+
+    public void setClientData(Map<String, Object> clientData) {
+        states.putClientData(correlationId, clientData);
+    }
+
+    public void publish(String exchange, String routingKey, Object payload) {
+        engine.publish(exchange, routingKey, payload, correlationId);
+    }
+}
@@ -0,0 +1,486 @@
+package br.ufpr.saga_orchestrator.engine;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.DelayQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.ufpr.saga_orchestrator.result.SagaResult;
+import br.ufpr.saga_orchestrator.service.SagaCompletionRegistry;
+import br.ufpr.saga_orchestrator.store.SagaState;
+import br.ufpr.saga_orchestrator.store.SagaStateRepository;
+import br.ufpr.saga_orchestrator.store.SagaStateStore;
+import br.ufpr.saga_orchestrator.store.SagaTransition;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Executa os fluxos declarados como {@link SagaFlow}.
+ *
+ * Na criação monta uma tabela fila → fluxo → passo, então cada resposta é
+ * roteada com duas buscas em mapa a partir da fila em que chegou e do fluxo
+ * da saga, sem comparar strings de status. Respostas que não correspondem ao
+ * passo atual (atrasadas ou duplicadas) são ignoradas.
+ *
+ * Cada passo tem um prazo de resposta. Os prazos ficam em uma
+ * {@link DelayQueue}; uma varredura agendada retira os vencidos e falha a
+ * saga com 504, executando as compensações, em vez de deixá-la pendente.
+ */
+@Component("sagaEngine")
+public class SagaEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaEngine.class);
+
+    private final RabbitTemplate rabbit;
+    private final ObjectMapper mapper;
+    private final SagaStateStore states;
+    private final SagaCompletionRegistry completions;
+    private final SagaStateRepository repository;
+    private final SagaInstance instance;
+    private final SagaMetrics metrics;
+
+    private final Map<String, SagaFlow> flows = new HashMap<>();
+    private final Map<String, Map<String, Route>> routes = new HashMap<>();
+    private final DelayQueue<StepDeadline> deadlines = new DelayQueue<>();
+
+    @Value("${saga.wait-millis:3000}")
+    private long waitMillis;
+
+    @Value("${saga.step.timeout-millis:30000}")
+    private long defaultStepTimeoutMillis;
+
+    public SagaEngine(RabbitTemplate rabbit, ObjectMapper mapper, SagaStateStore states,
+            SagaCompletionRegistry completions, SagaStateRepository repository, MeterRegistry meters,
+            SagaInstance instance, List<SagaFlow> declaredFlows) {
+        this.rabbit = rabbit;
+        this.mapper = mapper;
+        this.states = states;
+        this.completions = completions;
+        this.repository = repository;
+        this.instance = instance;
+        this.metrics = new SagaMetrics(meters);
+        declaredFlows.forEach(this::compile);
+    }
+
+    private void compile(SagaFlow flow) {
+        if (flows.putIfAbsent(flow.getName(), flow) != null) {
+            throw new IllegalStateException("Fluxo de saga duplicado: " + flow.getName());
+        }
+        for (int i = 0; i < flow.getSteps().size(); i++) {
+            SagaStep step = flow.step(i);
+            addRoute(flow, step.getSuccessQueue(), new Route(i, true));
+            for (String failureQueue : step.getFailureQueues()) {
+                addRoute(flow, failureQueue, new Route(i, false));
+            }
+        }
+        metrics.register(flow);
+    }
+
+    private void addRoute(SagaFlow flow, String queue, Route route) {
+        Route previous = routes.computeIfAbsent(queue, q -> new HashMap<>()).putIfAbsent(flow.getName(), route);
+        if (previous != null) {
+            throw new IllegalStateException(
+                    "Fila " + queue + " usada em mais de um passo do fluxo " + flow.getName());
+        }
+    }
+
+    /**
+     * Filas de resposta de todos os fluxos, usadas pelo listener único.
+     */
+    public String[] replyQueues() {
+        Set<String> queues = new LinkedHashSet<>(routes.keySet());
+        return queues.toArray(String[]::new);
+    }
+
+    public boolean hasFlow(String flowName) {
+        return flows.containsKey(flowName);
+    }
+
+    /**
+     * Inicia uma saga. O futuro completa com o resultado terminal, ou com o
+     * resultado pendente (202) se a saga não terminar em {@code saga.wait-millis}.
+     * Com o store cheio de sagas em andamento, completa com 503 sem iniciar.
+     */
+    public CompletableFuture<SagaResult> start(String flowName, Map<String, Object> input) {
+        SagaFlow flow = flows.get(flowName);
+        if (flow == null) {
+            throw new IllegalArgumentException("Fluxo de saga desconhecido: " + flowName);
+        }
+        if (!states.admit()) {
+            log.warn("[SAGA] Store cheio de sagas em andamento, recusando {}", flowName);
+            return CompletableFuture.completedFuture(
+                    failure(flowName, "Orquestrador sobrecarregado, tente novamente", 503));
+        }
+
+        String correlationId = instance.newCorrelationId();
+        SagaContext context = new SagaContext(correlationId, states, this);
+        SagaStep first = flow.step(0);
+        metrics.started(flowName, correlationId);
+
+        try {
+            Object command = first.buildCommand(context, input);
+            SagaResult pending = enterStep(context, flow, 0);
+            CompletableFuture<SagaResult> future = completions.register(correlationId, pending, waitMillis);
+            publish(first.getExchange(), first.getRoutingKey(), command, correlationId);
+            return future;
+        } catch (Exception ex) {
+            log.error("[SAGA] Erro ao iniciar {}: {}", flowName, ex.getMessage(), ex);
+            completions.cancel(correlationId);
+            SagaResult failure = failure(flowName, "Erro ao publicar evento: " + ex.getMessage(), 500);
+            // Grava o 500 por cima do 202 que enterStep já persistiu, senão a
+            // recuperação retomaria uma saga que nunca começou.
+            updateResult(correlationId, failure);
+            return CompletableFuture.completedFuture(failure);
+        }
+    }
+
+    public void onReply(String queue, Message message) {
+        String correlationId = message.getMessageProperties().getCorrelationId();
+        Map<String, Object> payload;
+        try {
+            payload = mapper.readValue(message.getBody(), new TypeReference<Map<String, Object>>() {
+            });
+        } catch (Exception ex) {
+            log.error("[SAGA] Resposta ilegível na fila {} correlationId={}: {}", queue, correlationId,
+                    ex.getMessage());
+            payload = null;
+        }
+        onReply(queue, correlationId, payload);
+    }
+
+    /**
+     * Avança a saga com a resposta recebida em {@code queue}. Um payload nulo
+     * indica resposta ilegível e falha a saga.
+     */
+    public void onReply(String queue, String correlationId, Map<String, Object> payload) {
+        if (correlationId == null)
+            return;
+
+        SagaState state = states.get(correlationId);
+        if (state == null || state.getFlow() == null) {
+            state = adopt(correlationId);
+        }
+        if (state == null || state.getFlow() == null) {
+            log.debug("[SAGA] Resposta em {} sem saga ativa correlationId={}", queue, correlationId);
+            return;
+        }
+
+        synchronized (state) {
+            SagaResult current = state.getResult();
+            if (current != null && current.getStatusCode() != 202) {
+                log.debug("[SAGA] Resposta em {} para saga já terminada correlationId={}", queue, correlationId);
+                return;
+            }
+
+            SagaFlow flow = flows.get(state.getFlow());
+            Map<String, Route> byFlow = routes.get(queue);
+            Route route = byFlow != null ? byFlow.get(flow.getName()) : null;
+            if (route == null || route.stepIndex != state.getStepIndex()) {
+                log.debug("[SAGA] Resposta fora de ordem em {} correlationId={} fluxo={} passo={}", queue,
+                        correlationId, flow.getName(), state.getStepIndex());
+                return;
+            }
+
+            SagaStep step = flow.step(route.stepIndex);
+            boolean success = route.success && payload != null;
+            metrics.stepCompleted(flow.getName(), step.getStatus(), success, state.getStepStartedAt());
+
+            SagaContext context = new SagaContext(correlationId, states, this);
+            if (payload == null) {
+                fail(context, flow, route.stepIndex, false, "Erro ao processar resposta de " + step.getStatus(),
+                        500);
+            } else if (!route.success) {
+                log.warn("[SAGA] Passo {} falhou correlationId={} payload={}", step.getStatus(), correlationId,
+                        payload);
+                fail(context, flow, route.stepIndex, false, getErrorMessage(payload), getStatusCode(payload));
+            } else {
+                log.info("[SAGA] Passo {} concluído correlationId={} fluxo={}", step.getStatus(), correlationId,
+                        flow.getName());
+                advance(context, flow, route.stepIndex + 1, payload);
+            }
+        }
+    }
+
+    private void advance(SagaContext context, SagaFlow flow, int from, Map<String, Object> reply) {
+        for (int i = from; i < flow.getSteps().size(); i++) {
+            SagaStep step = flow.step(i);
+            if (!step.appliesTo(context, reply)) {
+                log.debug("[SAGA] Passo {} pulado correlationId={}", step.getStatus(), context.getCorrelationId());
+                continue;
+            }
+            try {
+                Object command = step.buildCommand(context, reply);
+                enterStep(context, flow, i);
+                publish(step.getExchange(), step.getRoutingKey(), command, context.getCorrelationId());
+            } catch (Exception ex) {
+                log.error("[SAGA] Erro ao publicar {}: {}", step.getRoutingKey(), ex.getMessage(), ex);
+                fail(context, flow, i, false, "Erro ao publicar evento: " + ex.getMessage(), 500);
+            }
+            return;
+        }
+
+        updateResult(context.getCorrelationId(), new SagaResult(true, flow.getName(), flow.getCompletionMessage(),
+                flow.completionDetail(context, reply), flow.getCompletionStatus()));
+    }
+
+    private SagaResult enterStep(SagaContext context, SagaFlow flow, int index) {
+        String correlationId = context.getCorrelationId();
+        SagaStep step = flow.step(index);
+        scheduleDeadline(correlationId, flow, index);
+        SagaResult pending = new SagaResult(true, flow.getName(), step.getMessage(),
+                Map.of("correlationId", correlationId, "status", step.getStatus()), 202);
+        updateResult(correlationId, pending);
+        return pending;
+    }
+
+    private void scheduleDeadline(String correlationId, SagaFlow flow, int index) {
+        long startedAt = System.currentTimeMillis();
+        long timeout = flow.step(index).getTimeoutMillis() > 0 ? flow.step(index).getTimeoutMillis()
+                : defaultStepTimeoutMillis;
+        states.getOrCreate(correlationId).enterStep(flow.getName(), index, startedAt);
+        deadlines.add(new StepDeadline(correlationId, index, startedAt, timeout));
+    }
+
+    /**
+     * Retira da fila os prazos vencidos e falha as sagas que continuam paradas
+     * no passo correspondente.
+     */
+    @Scheduled(fixedDelayString = "${saga.step.timeout-sweep-millis:250}")
+    public void expireOverdueSteps() {
+        StepDeadline deadline;
+        while ((deadline = deadlines.poll()) != null) {
+            try {
+                expire(deadline);
+            } catch (Exception ex) {
+                log.error("[SAGA] Erro ao expirar saga correlationId={}: {}", deadline.getCorrelationId(),
+                        ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private void expire(StepDeadline deadline) {
+        SagaState state = states.get(deadline.getCorrelationId());
+        if (state == null)
+            return;
+
+        synchronized (state) {
+            SagaResult current = state.getResult();
+            if (current == null || current.getStatusCode() != 202 || state.getStepIndex() != deadline.getStepIndex()
+                    || state.getStepStartedAt() != deadline.getStepStartedAt()) {
+                return;
+            }
+
+            SagaFlow flow = flows.get(state.getFlow());
+            SagaStep step = flow.step(state.getStepIndex());
+            metrics.stepTimedOut(flow.getName(), step.getStatus(), state.getStepStartedAt());
+
+            log.warn("[SAGA] Prazo esgotado correlationId={} fluxo={} passo={}", deadline.getCorrelationId(),
+                    flow.getName(), step.getStatus());
+            fail(new SagaContext(deadline.getCorrelationId(), states, this), flow, state.getStepIndex(), true,
+                    "Tempo esgotado aguardando " + step.getStatus(), 504);
+        }
+    }
+
+    public int pendingDeadlines() {
+        return deadlines.size();
+    }
+
+    /**
+     * Falha a saga que estava em {@code failedIndex}: desfaz, na ordem inversa,
+     * os passos já concluídos e grava o resultado de erro. Quando não se sabe se
+     * o passo atual chegou a ser executado (prazo vencido, reinício), ele também
+     * é compensado.
+     */
+    private void fail(SagaContext context, SagaFlow flow, int failedIndex, boolean compensateFailedStep,
+            String reason, int statusCode) {
+        for (int i = compensateFailedStep ? failedIndex : failedIndex - 1; i >= 0; i--) {
+            try {
+                flow.step(i).compensate(context);
+            } catch (Exception ex) {
+                log.error("[SAGA] Falha ao compensar {} correlationId={}: {}", flow.step(i).getStatus(),
+                        context.getCorrelationId(), ex.getMessage(), ex);
+            }
+        }
+        int code = statusCode > 0 ? statusCode : 400;
+        updateResult(context.getCorrelationId(), failure(flow.getName(), reason, code));
+    }
+
+    /**
+     * Recarrega em memória uma saga recuperada do repositório, para que as
+     * respostas que ainda estão nas filas continuem o fluxo normalmente.
+     */
+    public void restore(SagaTransition transition) {
+        String correlationId = transition.getCorrelationId();
+        SagaFlow flow = flows.get(transition.getFlow());
+        int index = flow != null ? flow.indexOf(transition.getStatus()) : -1;
+
+        if (transition.getManagerId() != null) {
+            states.putManagerId(correlationId, transition.getManagerId());
+        }
+        if (transition.getClientData() != null) {
+            states.putClientData(correlationId, transition.getClientData());
+        }
+        states.putResult(correlationId, new SagaResult(true, transition.getFlow(), transition.getMessage(),
+                Map.of("correlationId", correlationId, "status", transition.getStatus()), 202));
+        if (index >= 0) {
+            scheduleDeadline(correlationId, flow, index);
+            metrics.resumed(flow.getName(), correlationId);
+        }
+        log.info("[SAGA] Saga retomada correlationId={} fluxo={} status={}", correlationId, transition.getFlow(),
+                transition.getStatus());
+    }
+
+    /**
+     * Desfaz o que já foi feito por uma saga que não vai mais terminar e grava o
+     * resultado como falha.
+     */
+    public void abort(SagaTransition transition, String reason, int statusCode) {
+        String correlationId = transition.getCorrelationId();
+        log.warn("[SAGA] Abortando saga correlationId={} fluxo={} status={} motivo={}", correlationId,
+                transition.getFlow(), transition.getStatus(), reason);
+
+        if (transition.getManagerId() != null) {
+            states.putManagerId(correlationId, transition.getManagerId());
+        }
+        if (transition.getClientData() != null) {
+            states.putClientData(correlationId, transition.getClientData());
+        }
+
+        SagaFlow flow = flows.get(transition.getFlow());
+        int index = flow != null ? flow.indexOf(transition.getStatus()) : -1;
+        if (index < 0) {
+            updateResult(correlationId, failure(transition.getFlow(), reason, statusCode));
+            return;
+        }
+        fail(new SagaContext(correlationId, states, this), flow, index, true, reason, statusCode);
+    }
+
+    /**
+     * Indica se esta instância tem a saga em memória, em andamento ou já
+     * encerrada.
+     */
+    public boolean isTracked(String correlationId) {
+        return states.get(correlationId) != null;
+    }
+
+    /**
+     * Resultado da saga: o estado em memória desta instância ou, para sagas de
+     * outra réplica, a última transição do repositório compartilhado.
+     */
+    public SagaResult getResult(String correlationId) {
+        SagaResult local = states.getResult(correlationId);
+        if (local != null)
+            return local;
+        try {
+            return repository.findLatest(correlationId).map(SagaTransition::toResult).orElse(null);
+        } catch (Exception ex) {
+            log.warn("[SAGA] Falha ao consultar resultado correlationId={}: {}", correlationId, ex.getMessage());
+            return null;
+        }
+    }
+
+    public boolean isTracking(String correlationId) {
+        SagaState state = states.get(correlationId);
+        return state != null && state.getFlow() != null;
+    }
+
+    /**
+     * Assume uma saga pendente que esta instância não conhece, carregando a
+     * última transição do repositório compartilhado. Acontece quando a resposta
+     * não pôde ser entregue à instância dona (ela saiu do ar).
+     */
+    private SagaState adopt(String correlationId) {
+        SagaTransition latest;
+        try {
+            latest = repository.findLatest(correlationId).orElse(null);
+        } catch (Exception ex) {
+            log.warn("[SAGA] Falha ao buscar saga correlationId={}: {}", correlationId, ex.getMessage());
+            return null;
+        }
+        if (latest == null || latest.isTerminal() || !flows.containsKey(latest.getFlow()))
+            return null;
+
+        restore(latest);
+        metrics.adopted();
+        log.info("[SAGA] Saga de {} assumida por {} correlationId={}", instance.ownerOf(correlationId),
+                instance.getId(), correlationId);
+        return states.get(correlationId);
+    }
+
+    void publish(String exchange, String routingKey, Object payload, String correlationId) {
+        rabbit.convertAndSend(exchange, routingKey, payload, message -> {
+            message.getMessageProperties().setCorrelationId(correlationId);
+            return message;
+        });
+    }
+
+    /**
+     * Atualiza o estado da saga e, se o status for terminal (diferente de 202),
+     * libera quem estiver aguardando o resultado.
+     */
+    private void updateResult(String correlationId, SagaResult result) {
+        states.putResult(correlationId, result);
+        repository.append(SagaTransition.of(correlationId, result,
+                states.getManagerId(correlationId), states.getClientData(correlationId)));
+        if (result.getStatusCode() != 202) {
+            metrics.finished(result.getStep(), correlationId, outcomeOf(result));
+        }
+        completions.transition(correlationId, result);
+    }
+
+    private static String outcomeOf(SagaResult result) {
+        if (result.isSuccess())
+            return SagaMetrics.SUCCEEDED;
+        return result.getStatusCode() == 504 ? SagaMetrics.TIMED_OUT : SagaMetrics.FAILED;
+    }
+
+    private SagaResult failure(String flow, String reason, int code) {
+        return new SagaResult(false, flow, reason, Map.of("erro", reason, "statusCode", code), code);
+    }
+
+    private String getErrorMessage(Map<String, Object> payload) {
+        if (payload.containsKey("reason"))
+            return String.valueOf(payload.get("reason"));
+        if (payload.containsKey("error"))
+            return String.valueOf(payload.get("error"));
+        if (payload.containsKey("message"))
+            return String.valueOf(payload.get("message"));
+        return "Erro desconhecido";
+    }
+
+    private int getStatusCode(Map<String, Object> payload) {
+        try {
+            if (payload.containsKey("statusCode")) {
+                return Integer.parseInt(String.valueOf(payload.get("statusCode")));
+            }
+            if (payload.containsKey("status")) {
+                return Integer.parseInt(String.valueOf(payload.get("status")));
+            }
+        } catch (Exception ignore) {
+        }
+        return 400;
+    }
+
+    private static final class Route {
+        private final int stepIndex;
+        private final boolean success;
+
+        private Route(int stepIndex, boolean success) {
+            this.stepIndex = stepIndex;
+            this.success = success;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package br.ufpr.saga_orchestrator.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Declaração de um fluxo de saga: passos em ordem e o resultado produzido a
+ * partir da resposta do último passo executado.
+ */
+public final class SagaFlow {
+
+    private final String name;
+    private final List<SagaStep> steps;
+    private final int completionStatus;
+    private final String completionMessage;
+    private final BiFunction<SagaContext, Map<String, Object>, Object> completionDetail;
+
+    private SagaFlow(Builder b) {
+        this.name = b.name;
+        this.steps = List.copyOf(b.steps);
+        this.completionStatus = b.completionStatus;
+        this.completionMessage = b.completionMessage;
+        this.completionDetail = b.completionDetail;
+    }
+
+    public static Builder define(String name) {
+        return new Builder(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<SagaStep> getSteps() {
+        return steps;
+    }
+
+    public SagaStep step(int index) {
+        return steps.get(index);
+    }
+
+    public int indexOf(String status) {
+        for (int i = 0; i < steps.size(); i++) {
+            if (steps.get(i).getStatus().equals(status))
+                return i;
+        }
+        return -1;
+    }
+
+    public int getCompletionStatus() {
+        return completionStatus;
+    }
+
+    public String getCompletionMessage() {
+        return completionMessage;
+    }
+
+    Object completionDetail(SagaContext context, Map<String, Object> lastReply) {
+        return completionDetail.apply(context, lastReply);
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final List<SagaStep> steps = new ArrayList<>();
+        private int completionStatus = 200;
+        private String completionMessage;
+        private BiFunction<SagaContext, Map<String, Object>, Object> completionDetail = (ctx, reply) -> reply;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder step(SagaStep step) {
+            steps.add(step);
+            return this;
+        }
+
+        public Builder completeWith(int statusCode, String message,
+                BiFunction<SagaContext, Map<String, Object>, Object> detail) {
+            this.completionStatus = statusCode;
+            this.completionMessage = message;
+            this.completionDetail = detail;
+            return this;
+        }
+
+        public SagaFlow build() {
+            if (steps.isEmpty()) {
+                throw new IllegalStateException("Fluxo " + name + " sem passos");
+            }
+            return new SagaFlow(this);
+        }
+    }
+}
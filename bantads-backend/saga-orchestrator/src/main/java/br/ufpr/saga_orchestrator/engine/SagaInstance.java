@@ -0,0 +1,53 @@
+package br.ufpr.saga_orchestrator.engine;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identidade desta réplica do orquestrador. O id vai como prefixo de todo
+ * correlationId gerado aqui ({@code <instancia>.<uuid>}), então qualquer réplica
+ * que consumir uma resposta sabe a qual instância a saga pertence.
+ *
+ * O id vem de {@code saga.instance.id}, depois de {@code HOSTNAME} (o id do
+ * container no Docker) e, na falta dos dois, é gerado na subida.
+ */
+@Component
+public class SagaInstance {
+
+    private static final char SEPARATOR = '.';
+
+    private final String id;
+
+    public SagaInstance(@Value("${saga.instance.id:${HOSTNAME:}}") String configuredId) {
+        String raw = configuredId == null || configuredId.isBlank()
+                ? UUID.randomUUID().toString().substring(0, 8)
+                : configuredId;
+        this.id = raw.replaceAll("[^A-Za-z0-9-]", "-");
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String newCorrelationId() {
+        return id + SEPARATOR + UUID.randomUUID();
+    }
+
+    /**
+     * Instância dona da saga, ou {@code null} para correlationIds sem prefixo
+     * (gerados antes do roteamento por instância).
+     */
+    public String ownerOf(String correlationId) {
+        if (correlationId == null)
+            return null;
+        int separator = correlationId.indexOf(SEPARATOR);
+        return separator > 0 ? correlationId.substring(0, separator) : null;
+    }
+
+    public boolean owns(String correlationId) {
+        String owner = ownerOf(correlationId);
+        return owner == null || owner.equals(id);
+    }
+}
@@ -0,0 +1,133 @@
+package br.ufpr.saga_orchestrator.engine;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Métricas da engine, expostas em {@code /actuator/metrics}:
+ * <ul>
+ * <li>{@code saga.step.duration} (flow, step, outcome): do comando do passo até
+ * a resposta consumida, com histograma para percentis;</li>
+ * <li>{@code saga.step.timeouts} (flow, step): passos que venceram o prazo;</li>
+ * <li>{@code saga.started} e {@code saga.finished} (flow, outcome =
+ * succeeded|failed|timed-out): sagas iniciadas e terminadas;</li>
+ * <li>{@code saga.in-flight} (flow): sagas pendentes nesta instância;</li>
+ * <li>{@code saga.adoptions}: sagas de outra instância assumidas.</li>
+ * </ul>
+ * Os medidores são criados na compilação dos fluxos, então o caminho de cada
+ * resposta só faz buscas em mapa.
+ */
+class SagaMetrics {
+
+    static final String SUCCEEDED = "succeeded";
+    static final String FAILED = "failed";
+    static final String TIMED_OUT = "timed-out";
+
+    private final MeterRegistry meters;
+    private final Counter adoptions;
+    private final Map<String, Timer> stepTimers = new HashMap<>();
+    private final Map<String, Counter> timeoutCounters = new HashMap<>();
+    private final Map<String, Counter> startedCounters = new HashMap<>();
+    private final Map<String, Counter> finishedCounters = new HashMap<>();
+    private final Map<String, Set<String>> inFlight = new HashMap<>();
+
+    SagaMetrics(MeterRegistry meters) {
+        this.meters = meters;
+        this.adoptions = Counter.builder("saga.adoptions")
+                .description("Sagas de outra instância assumidas a partir do repositório compartilhado")
+                .register(meters);
+    }
+
+    void register(SagaFlow flow) {
+        String name = flow.getName();
+        startedCounters.put(name, Counter.builder("saga.started")
+                .description("Sagas iniciadas")
+                .tag("flow", name)
+                .register(meters));
+        for (String outcome : List.of(SUCCEEDED, FAILED, TIMED_OUT)) {
+            finishedCounters.put(key(name, outcome), Counter.builder("saga.finished")
+                    .description("Sagas terminadas, por resultado")
+                    .tag("flow", name)
+                    .tag("outcome", outcome)
+                    .register(meters));
+        }
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        inFlight.put(name, pending);
+        Gauge.builder("saga.in-flight", pending, Set::size)
+                .description("Sagas pendentes nesta instância")
+                .tag("flow", name)
+                .register(meters);
+
+        for (SagaStep step : flow.getSteps()) {
+            timeoutCounters.put(key(name, step.getStatus()), Counter.builder("saga.step.timeouts")
+                    .description("Passos que não responderam dentro do prazo")
+                    .tag("flow", name)
+                    .tag("step", step.getStatus())
+                    .register(meters));
+            for (String outcome : List.of("success", "failure", "timeout")) {
+                stepTimers.put(key(name, step.getStatus(), outcome), Timer.builder("saga.step.duration")
+                        .description("Tempo entre o comando de um passo e a sua resposta")
+                        .tag("flow", name)
+                        .tag("step", step.getStatus())
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meters));
+            }
+        }
+    }
+
+    void started(String flow, String correlationId) {
+        startedCounters.get(flow).increment();
+        inFlight.get(flow).add(correlationId);
+    }
+
+    /**
+     * Saga recarregada do repositório (recuperação ou adoção): volta a contar
+     * como pendente, mas não como iniciada de novo.
+     */
+    void resumed(String flow, String correlationId) {
+        Set<String> pending = inFlight.get(flow);
+        if (pending != null) {
+            pending.add(correlationId);
+        }
+    }
+
+    void finished(String flow, String correlationId, String outcome) {
+        Set<String> pending = inFlight.get(flow);
+        if (pending != null) {
+            pending.remove(correlationId);
+        }
+        Counter counter = finishedCounters.get(key(flow, outcome));
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    void stepCompleted(String flow, String step, boolean success, long startedAt) {
+        stepTimers.get(key(flow, step, success ? "success" : "failure"))
+                .record(System.currentTimeMillis() - startedAt, TimeUnit.MILLISECONDS);
+    }
+
+    void stepTimedOut(String flow, String step, long startedAt) {
+        timeoutCounters.get(key(flow, step)).increment();
+        stepTimers.get(key(flow, step, "timeout"))
+                .record(System.currentTimeMillis() - startedAt, TimeUnit.MILLISECONDS);
+    }
+
+    void adopted() {
+        adoptions.increment();
+    }
+
+    private static String key(String... parts) {
+        return String.join("/", parts);
+    }
+}
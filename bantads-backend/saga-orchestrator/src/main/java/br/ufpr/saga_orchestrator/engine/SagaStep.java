@@ -0,0 +1,155 @@
+package br.ufpr.saga_orchestrator.engine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * Um passo declarativo de uma saga: o comando publicado ao entrar no passo,
+ * as filas de resposta de sucesso e falha e a compensação que desfaz o passo
+ * caso um passo posterior falhe.
+ */
+public final class SagaStep {
+
+    private final String status;
+    private final String message;
+    private final String exchange;
+    private final String routingKey;
+    private final BiFunction<SagaContext, Map<String, Object>, Object> command;
+    private final BiPredicate<SagaContext, Map<String, Object>> condition;
+    private final String successQueue;
+    private final List<String> failureQueues;
+    private final Consumer<SagaContext> compensation;
+    private final long timeoutMillis;
+
+    private SagaStep(Builder b) {
+        this.status = b.status;
+        this.message = b.message;
+        this.exchange = b.exchange;
+        this.routingKey = b.routingKey;
+        this.command = b.command;
+        this.condition = b.condition;
+        this.successQueue = b.successQueue;
+        this.failureQueues = b.failureQueues;
+        this.compensation = b.compensation;
+        this.timeoutMillis = b.timeoutMillis;
+    }
+
+    public static Builder named(String status) {
+        return new Builder(status);
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getExchange() {
+        return exchange;
+    }
+
+    public String getRoutingKey() {
+        return routingKey;
+    }
+
+    public String getSuccessQueue() {
+        return successQueue;
+    }
+
+    public List<String> getFailureQueues() {
+        return failureQueues;
+    }
+
+    /**
+     * Prazo para a resposta do passo; zero usa o padrão do engine.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Monta o comando a partir da resposta do passo anterior (ou da entrada da
+     * saga, no primeiro passo).
+     */
+    Object buildCommand(SagaContext context, Map<String, Object> previous) {
+        return command.apply(context, previous);
+    }
+
+    boolean appliesTo(SagaContext context, Map<String, Object> previous) {
+        return condition == null || condition.test(context, previous);
+    }
+
+    void compensate(SagaContext context) {
+        if (compensation != null) {
+            compensation.accept(context);
+        }
+    }
+
+    public static final class Builder {
+        private final String status;
+        private String message;
+        private String exchange;
+        private String routingKey;
+        private BiFunction<SagaContext, Map<String, Object>, Object> command;
+        private BiPredicate<SagaContext, Map<String, Object>> condition;
+        private String successQueue;
+        private List<String> failureQueues;
+        private Consumer<SagaContext> compensation;
+        private long timeoutMillis;
+
+        private Builder(String status) {
+            this.status = status;
+        }
+
+        public Builder message(String message) {
+            this.message = message;
+            return this;
+        }
+
+        public Builder command(String exchange, String routingKey,
+                BiFunction<SagaContext, Map<String, Object>, Object> command) {
+            this.exchange = exchange;
+            this.routingKey = routingKey;
+            this.command = command;
+            return this;
+        }
+
+        /**
+         * Quando a condição é falsa o passo é pulado e o próximo recebe a resposta
+         * do passo anterior; se for o último, a saga termina com ela.
+         */
+        public Builder onlyIf(BiPredicate<SagaContext, Map<String, Object>> condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        public Builder awaiting(String successQueue, String... failureQueues) {
+            this.successQueue = successQueue;
+            this.failureQueues = List.of(failureQueues);
+            return this;
+        }
+
+        public Builder compensateWith(Consumer<SagaContext> compensation) {
+            this.compensation = compensation;
+            return this;
+        }
+
+        public Builder timeout(Duration timeout) {
+            this.timeoutMillis = timeout.toMillis();
+            return this;
+        }
+
+        public SagaStep build() {
+            if (command == null || successQueue == null || failureQueues == null) {
+                throw new IllegalStateException("Passo " + status + " precisa de comando e filas de resposta");
+            }
+            return new SagaStep(this);
+        }
+    }
+}
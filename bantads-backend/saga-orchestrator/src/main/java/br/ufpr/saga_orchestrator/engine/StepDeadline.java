@@ -0,0 +1,49 @@
+package br.ufpr.saga_orchestrator.engine;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prazo de resposta de um passo, guardado na {@code DelayQueue} do engine. Não
+ * é removido quando a resposta chega: ao vencer, só tem efeito se a saga ainda
+ * estiver no mesmo passo em que o prazo foi criado.
+ */
+final class StepDeadline implements Delayed {
+
+    private final String correlationId;
+    private final int stepIndex;
+    private final long stepStartedAt;
+    private final long deadlineNanos;
+
+    StepDeadline(String correlationId, int stepIndex, long stepStartedAt, long timeoutMillis) {
+        this.correlationId = correlationId;
+        this.stepIndex = stepIndex;
+        this.stepStartedAt = stepStartedAt;
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    String getCorrelationId() {
+        return correlationId;
+    }
+
+    int getStepIndex() {
+        return stepIndex;
+    }
+
+    long getStepStartedAt() {
+        return stepStartedAt;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        if (other instanceof StepDeadline deadline) {
+            return Long.compare(deadlineNanos, deadline.deadlineNanos);
+        }
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
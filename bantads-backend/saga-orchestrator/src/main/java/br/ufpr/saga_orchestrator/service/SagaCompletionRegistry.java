@@ -0,0 +1,119 @@
+package br.ufpr.saga_orchestrator.service;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import br.ufpr.saga_orchestrator.result.SagaResult;
+
+/**
+ * Mantém um future por correlationId aguardando o estado final da saga.
+ * Os handlers completam o future assim que o evento terminal chega, então
+ * nenhuma thread fica parada esperando pelo resultado.
+ *
+ * Também guarda os observadores de cada saga (long-poll e SSE), avisados a
+ * cada transição registrada pela engine.
+ */
+@Component
+public class SagaCompletionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaCompletionRegistry.class);
+
+    private final Map<String, CompletableFuture<SagaResult>> waiting = new ConcurrentHashMap<>();
+    private final Map<String, Set<Consumer<SagaResult>>> watchers = new ConcurrentHashMap<>();
+
+    /**
+     * Registra a espera antes de publicar o comando, para não perder uma resposta
+     * que chegue antes do registro. O future completa com o resultado final ou
+     * com {@code pending} quando {@code waitMillis} expira.
+     */
+    public CompletableFuture<SagaResult> register(String correlationId, SagaResult pending, long waitMillis) {
+        CompletableFuture<SagaResult> future = new CompletableFuture<>();
+        waiting.put(correlationId, future);
+        return future
+                .completeOnTimeout(pending, waitMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((result, ex) -> waiting.remove(correlationId, future));
+    }
+
+    /**
+     * Avisa os observadores da saga sobre uma nova transição. Num estado final
+     * também completa a espera de quem iniciou a saga e descarta os observadores.
+     */
+    public void transition(String correlationId, SagaResult result) {
+        if (correlationId == null)
+            return;
+        boolean terminal = result.getStatusCode() != 202;
+        Set<Consumer<SagaResult>> observers = terminal ? watchers.remove(correlationId) : watchers.get(correlationId);
+        if (observers != null) {
+            for (Consumer<SagaResult> observer : observers) {
+                try {
+                    observer.accept(result);
+                } catch (Exception ex) {
+                    log.warn("[SAGA] Observador falhou correlationId={}: {}", correlationId, ex.getMessage());
+                }
+            }
+        }
+        if (terminal) {
+            complete(correlationId, result);
+        }
+    }
+
+    /**
+     * Observa as transições da saga. O retorno cancela a inscrição; depois do
+     * estado final ela é descartada sozinha.
+     */
+    public Runnable watch(String correlationId, Consumer<SagaResult> observer) {
+        watchers.computeIfAbsent(correlationId, id -> ConcurrentHashMap.newKeySet()).add(observer);
+        return () -> watchers.computeIfPresent(correlationId, (id, observers) -> {
+            observers.remove(observer);
+            return observers.isEmpty() ? null : observers;
+        });
+    }
+
+    /**
+     * Future que completa no primeiro estado final da saga ou, sem ele, com
+     * {@code null} depois de {@code waitMillis}. Serve ao long-poll sem prender
+     * thread; completar o future antes disso encerra a espera.
+     */
+    public CompletableFuture<SagaResult> awaitTerminal(String correlationId, long waitMillis) {
+        CompletableFuture<SagaResult> future = new CompletableFuture<>();
+        Runnable unwatch = watch(correlationId, result -> {
+            if (result.getStatusCode() != 202) {
+                future.complete(result);
+            }
+        });
+        future.completeOnTimeout(null, waitMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((result, ex) -> unwatch.run());
+        return future;
+    }
+
+    public void complete(String correlationId, SagaResult result) {
+        if (correlationId == null)
+            return;
+        CompletableFuture<SagaResult> future = waiting.remove(correlationId);
+        if (future != null) {
+            future.complete(result);
+        }
+    }
+
+    public void cancel(String correlationId) {
+        if (correlationId == null)
+            return;
+        waiting.remove(correlationId);
+    }
+
+    public int size() {
+        return waiting.size();
+    }
+
+    public int watching() {
+        return watchers.size();
+    }
+}
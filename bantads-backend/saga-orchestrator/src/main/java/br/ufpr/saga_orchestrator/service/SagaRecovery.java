@@ -0,0 +1,122 @@
+package br.ufpr.saga_orchestrator.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.ufpr.saga_orchestrator.engine.SagaEngine;
+import br.ufpr.saga_orchestrator.engine.SagaInstance;
+import br.ufpr.saga_orchestrator.store.SagaStateRepository;
+import br.ufpr.saga_orchestrator.store.SagaTransition;
+
+/**
+ * Na subida do orquestrador, lê as sagas que ficaram sem estado terminal.
+ * As recentes são retomadas (as respostas continuam nas filas duráveis); as
+ * paradas há mais de {@code saga.recovery.stale-millis} são compensadas.
+ *
+ * Roda antes dos listeners do RabbitMQ começarem a consumir, para que nenhuma
+ * resposta chegue a uma saga ainda não recarregada.
+ *
+ * Com várias réplicas, cada uma retoma só as próprias sagas. As de outras
+ * instâncias só são compensadas quando já estão paradas há mais de
+ * {@code saga.recovery.stale-millis}: como esse valor é maior que o prazo de um
+ * passo, uma dona viva já as teria encerrado.
+ *
+ * A mesma varredura das paradas roda a cada {@code saga.recovery.scan-millis},
+ * para que a saga de uma réplica que caiu e não voltou (ou voltou com outro
+ * {@code saga.instance.id}) não fique pendente até a próxima subida.
+ */
+@Component
+public class SagaRecovery implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaRecovery.class);
+
+    private final SagaStateRepository repository;
+    private final SagaEngine engine;
+    private final SagaInstance instance;
+
+    @Value("${saga.recovery.stale-millis:60000}")
+    private long staleMillis;
+
+    public SagaRecovery(SagaStateRepository repository, SagaEngine engine, SagaInstance instance) {
+        this.repository = repository;
+        this.engine = engine;
+        this.instance = instance;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        recover();
+    }
+
+    public void recover() {
+        List<SagaTransition> unfinished;
+        try {
+            unfinished = repository.findUnfinished();
+        } catch (Exception ex) {
+            log.error("[SAGA] Não foi possível ler as sagas pendentes: {}", ex.getMessage(), ex);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        int resumed = 0;
+        int compensated = 0;
+        for (SagaTransition transition : unfinished) {
+            boolean stale = now - transition.getRecordedAt() >= staleMillis;
+            if (!instance.owns(transition.getCorrelationId()) && !stale) {
+                continue;
+            }
+            if (!stale) {
+                engine.restore(transition);
+                resumed++;
+            } else {
+                engine.abort(transition, "Saga interrompida pelo reinício do orquestrador", 500);
+                compensated++;
+            }
+        }
+        log.info("[SAGA] Recuperação concluída: {} retomadas, {} compensadas", resumed, compensated);
+    }
+
+    /**
+     * Assume e compensa as sagas paradas há mais de {@code saga.recovery.stale-millis}
+     * que nenhuma instância viva está acompanhando. As que esta instância tem
+     * em memória ficam com o prazo de passo do engine.
+     */
+    @Scheduled(initialDelayString = "${saga.recovery.scan-millis:30000}",
+            fixedDelayString = "${saga.recovery.scan-millis:30000}")
+    public void abortStale() {
+        List<SagaTransition> unfinished;
+        try {
+            unfinished = repository.findUnfinished();
+        } catch (Exception ex) {
+            log.warn("[SAGA] Não foi possível varrer as sagas paradas: {}", ex.getMessage());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        int compensated = 0;
+        for (SagaTransition transition : unfinished) {
+            String correlationId = transition.getCorrelationId();
+            if (now - transition.getRecordedAt() < staleMillis || engine.isTracked(correlationId)) {
+                continue;
+            }
+            // Outra réplica pode ter encerrado a saga desde a leitura do lote.
+            boolean stillPending = repository.findLatest(correlationId)
+                    .map(latest -> !latest.isTerminal())
+                    .orElse(false);
+            if (!stillPending) {
+                continue;
+            }
+            engine.abort(transition, "Saga abandonada pela instância " + instance.ownerOf(correlationId), 500);
+            compensated++;
+        }
+        if (compensated > 0) {
+            log.info("[SAGA] Varredura de sagas paradas: {} compensadas", compensated);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package br.ufpr.saga_orchestrator.service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.ufpr.saga_orchestrator.engine.SagaEngine;
+import br.ufpr.saga_orchestrator.result.SagaResult;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Entrega o resultado de uma saga a quem recebeu 202: por long-poll, que
+ * responde no estado final ou quando o prazo vence, ou por SSE, que envia cada
+ * transição registrada pela engine. Nos dois casos a espera fica num future ou
+ * num emitter, sem thread parada.
+ */
+@Component
+public class SagaResultWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaResultWatcher.class);
+
+    private final SagaEngine engine;
+    private final SagaCompletionRegistry completions;
+    private final ExecutorService senders;
+
+    @Value("${saga.result.max-wait-millis:30000}")
+    private long maxWaitMillis;
+
+    @Value("${saga.result.stream-timeout-millis:120000}")
+    private long streamTimeoutMillis;
+
+    public SagaResultWatcher(SagaEngine engine, SagaCompletionRegistry completions,
+            @Value("${saga.result.stream-sender-threads:4}") int senderThreads) {
+        this.engine = engine;
+        this.completions = completions;
+        AtomicInteger counter = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "saga-sse-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Resultado da saga assim que ela terminar, ou o estado atual depois de
+     * {@code waitMillis} (limitado a {@code saga.result.max-wait-millis}).
+     * Completa com {@code null} se a saga não existir.
+     */
+    public CompletableFuture<SagaResult> await(String correlationId, long waitMillis) {
+        long wait = Math.min(Math.max(waitMillis, 0), maxWaitMillis);
+        // Observa antes de ler o estado atual para não perder um término entre os dois.
+        CompletableFuture<SagaResult> terminal = completions.awaitTerminal(correlationId, wait);
+        SagaResult current = engine.getResult(correlationId);
+        if (current == null || current.getStatusCode() != 202 || wait == 0) {
+            terminal.complete(current);
+            return terminal;
+        }
+        // Sagas de outra instância não passam por aqui; no prazo relê o repositório.
+        return terminal.thenApplyAsync(result -> result != null ? result : engine.getResult(correlationId),
+                senders);
+    }
+
+    /**
+     * Abre um stream SSE com o estado atual da saga seguido de cada transição.
+     * O stream fecha no estado final. Devolve {@code null} se a saga não existir.
+     */
+    public SseEmitter stream(String correlationId) {
+        if (engine.getResult(correlationId) == null)
+            return null;
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        TransitionSink sink = new TransitionSink(correlationId, emitter);
+        Runnable unwatch = completions.watch(correlationId, sink::offer);
+        emitter.onCompletion(unwatch);
+        emitter.onTimeout(unwatch);
+        emitter.onError(ex -> unwatch.run());
+
+        SagaResult current = sink.offerCurrent(() -> engine.getResult(correlationId));
+        if (current == null) {
+            unwatch.run();
+        }
+        return emitter;
+    }
+
+    static Map<String, Object> toEvent(String correlationId, SagaResult result) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("correlationId", correlationId);
+        event.put("statusCode", result.getStatusCode());
+        event.put("message", result.getMessage());
+        if (result.getStatusCode() == 202) {
+            Object status = result.getDetail() instanceof Map<?, ?> detail ? detail.get("status") : null;
+            event.put("status", status != null ? status : "pending");
+        } else {
+            event.put("status", result.isSuccess() ? "completed" : "failed");
+            event.put("detail", result.getDetail());
+        }
+        return event;
+    }
+
+    @PreDestroy
+    public void stop() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Serializa os envios de um emitter: as transições chegam na thread do
+     * listener, mas são escritas no executor, na ordem, sem repetir estado.
+     */
+    private final class TransitionSink {
+
+        private final String correlationId;
+        private final SseEmitter emitter;
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private Map<String, Object> last;
+        private boolean closed;
+
+        TransitionSink(String correlationId, SseEmitter emitter) {
+            this.correlationId = correlationId;
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(SagaResult result) {
+            if (closed)
+                return;
+            Map<String, Object> event = toEvent(correlationId, result);
+            if (last != null && Objects.equals(last.get("status"), event.get("status"))
+                    && Objects.equals(last.get("statusCode"), event.get("statusCode")))
+                return;
+            last = event;
+            boolean terminal = result.getStatusCode() != 202;
+            closed = terminal;
+            tail = tail.thenRunAsync(() -> send(event, terminal), senders);
+        }
+
+        /**
+         * Lê e envia o estado atual sob o mesmo lock das transições, para que
+         * uma transição concorrente nunca seja enviada antes de um estado mais antigo.
+         */
+        synchronized SagaResult offerCurrent(Supplier<SagaResult> current) {
+            SagaResult result = current.get();
+            if (result != null) {
+                offer(result);
+            } else {
+                closed = true;
+                emitter.complete();
+            }
+            return result;
+        }
+
+        private void send(Map<String, Object> event, boolean terminal) {
+            try {
+                emitter.send(SseEmitter.event().name("transition").data(event));
+                if (terminal) {
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("[SAGA] Cliente SSE desconectado correlationId={}: {}", correlationId, ex.getMessage());
+                emitter.completeWithError(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package br.ufpr.saga_orchestrator.store;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Implementação em memória, usada nos testes e quando
+ * {@code saga.persistence.type=memory}. Não sobrevive a reinícios.
+ */
+@Component
+@ConditionalOnProperty(name = "saga.persistence.type", havingValue = "memory")
+public class InMemorySagaStateRepository implements SagaStateRepository {
+
+    private final List<SagaTransition> log = new ArrayList<>();
+
+    @Override
+    public synchronized void append(SagaTransition transition) {
+        log.add(transition);
+    }
+
+    @Override
+    public synchronized List<SagaTransition> findUnfinished() {
+        Map<String, SagaTransition> latest = new LinkedHashMap<>();
+        for (SagaTransition transition : log) {
+            latest.put(transition.getCorrelationId(), transition);
+        }
+        return latest.values().stream()
+                .filter(transition -> !transition.isTerminal())
+                .toList();
+    }
+
+    @Override
+    public synchronized Optional<SagaTransition> findLatest(String correlationId) {
+        for (int i = log.size() - 1; i >= 0; i--) {
+            if (log.get(i).getCorrelationId().equals(correlationId))
+                return Optional.of(log.get(i));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,295 @@
+package br.ufpr.saga_orchestrator.store;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Grava as transições em {@code saga_schema.saga_transition}.
+ *
+ * Os passos da saga só enfileiram a transição; uma thread dedicada agrupa o
+ * que chegou em até {@code saga.persistence.flush-millis} e grava com um único
+ * batch INSERT, então a persistência não entra no caminho de cada passo.
+ * Um lote que falha {@code saga.persistence.max-attempts} vezes é regravado
+ * linha a linha; as linhas que ainda falham são descartadas e contadas em
+ * {@code saga.persistence.dropped}, para não travar as transições seguintes.
+ */
+@Component
+@ConditionalOnProperty(name = "saga.persistence.type", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcSagaStateRepository implements SagaStateRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcSagaStateRepository.class);
+
+    private static final String INSERT_SQL = """
+            INSERT INTO saga_schema.saga_transition
+                (correlation_id, flow, status, status_code, message, manager_id, client_data, recorded_at, detail)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UNFINISHED_SQL = """
+            SELECT * FROM (
+                SELECT DISTINCT ON (correlation_id) *
+                FROM saga_schema.saga_transition
+                ORDER BY correlation_id, id DESC
+            ) latest
+            WHERE latest.status_code = 202
+            """;
+
+    private static final String LATEST_SQL = """
+            SELECT * FROM saga_schema.saga_transition
+            WHERE correlation_id = ?
+            ORDER BY id DESC
+            LIMIT 1
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final ObjectMapper mapper;
+    private final BlockingQueue<SagaTransition> buffer;
+    private final int batchSize;
+    private final long flushMillis;
+    private final long retentionMillis;
+    private final int maxAttempts;
+    private final Counter dropped;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public JdbcSagaStateRepository(JdbcTemplate jdbc, ObjectMapper mapper,
+            @Value("${saga.persistence.batch-size:200}") int batchSize,
+            @Value("${saga.persistence.flush-millis:5}") long flushMillis,
+            @Value("${saga.persistence.max-buffered:100000}") int maxBuffered,
+            @Value("${saga.persistence.retention-millis:604800000}") long retentionMillis,
+            @Value("${saga.persistence.max-attempts:3}") int maxAttempts,
+            MeterRegistry registry) {
+        this.jdbc = jdbc;
+        this.mapper = mapper;
+        this.batchSize = batchSize;
+        this.flushMillis = flushMillis;
+        this.retentionMillis = retentionMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.dropped = Counter.builder("saga.persistence.dropped")
+                .description("Transições de saga descartadas sem gravar")
+                .register(registry);
+        this.buffer = new LinkedBlockingQueue<>(maxBuffered);
+    }
+
+    @PostConstruct
+    public void start() {
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS saga_schema");
+        jdbc.execute("""
+                CREATE TABLE IF NOT EXISTS saga_schema.saga_transition (
+                    id BIGSERIAL PRIMARY KEY,
+                    correlation_id VARCHAR(64) NOT NULL,
+                    flow VARCHAR(40),
+                    status VARCHAR(40),
+                    status_code INT NOT NULL,
+                    message TEXT,
+                    manager_id VARCHAR(64),
+                    client_data TEXT,
+                    recorded_at TIMESTAMP NOT NULL
+                )
+                """);
+        jdbc.execute("ALTER TABLE saga_schema.saga_transition ADD COLUMN IF NOT EXISTS detail TEXT");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_saga_transition_correlation "
+                + "ON saga_schema.saga_transition (correlation_id, id)");
+        jdbc.execute("CREATE INDEX IF NOT EXISTS idx_saga_transition_recorded_at "
+                + "ON saga_schema.saga_transition (recorded_at)");
+
+        writer = new Thread(this::writeLoop, "saga-state-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void append(SagaTransition transition) {
+        if (!buffer.offer(transition)) {
+            dropped.increment();
+            log.error("[SAGA] Buffer de persistência cheio, transição descartada correlationId={} status={}",
+                    transition.getCorrelationId(), transition.getStatus());
+        }
+    }
+
+    @Override
+    public List<SagaTransition> findUnfinished() {
+        return jdbc.query(UNFINISHED_SQL, (rs, rowNum) -> toTransition(rs));
+    }
+
+    @Override
+    public Optional<SagaTransition> findLatest(String correlationId) {
+        return jdbc.query(LATEST_SQL, (rs, rowNum) -> toTransition(rs), correlationId).stream().findFirst();
+    }
+
+    private void writeLoop() {
+        List<SagaTransition> batch = new ArrayList<>(batchSize);
+        int attempts = 0;
+        while (running || !buffer.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    SagaTransition first = buffer.poll(flushMillis, TimeUnit.MILLISECONDS);
+                    if (first == null)
+                        continue;
+                    batch.add(first);
+                }
+                buffer.drainTo(batch, batchSize - batch.size());
+                write(batch);
+                batch.clear();
+                attempts = 0;
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (Exception ex) {
+                attempts++;
+                log.error("[SAGA] Falha ao gravar {} transições (tentativa {}/{}): {}", batch.size(), attempts,
+                        maxAttempts, ex.getMessage());
+                if (attempts < maxAttempts) {
+                    // Mantém o lote para tentar de novo; o estado em memória continua valendo.
+                    sleepQuietly(1000);
+                } else {
+                    writeOneByOne(batch);
+                    batch.clear();
+                    attempts = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Último recurso para um lote que não grava: isola a linha com problema
+     * (dado inválido, por exemplo) e deixa as demais seguirem.
+     */
+    void writeOneByOne(List<SagaTransition> batch) {
+        for (SagaTransition transition : batch) {
+            try {
+                write(List.of(transition));
+            } catch (Exception ex) {
+                dropped.increment();
+                log.error("[SAGA] Transição descartada após {} tentativas correlationId={} status={}", maxAttempts,
+                        transition.getCorrelationId(), transition.getStatus(), ex);
+            }
+        }
+    }
+
+    private void write(List<SagaTransition> batch) {
+        jdbc.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, t) -> {
+            ps.setString(1, t.getCorrelationId());
+            ps.setString(2, t.getFlow());
+            ps.setString(3, t.getStatus());
+            ps.setInt(4, t.getStatusCode());
+            ps.setString(5, t.getMessage());
+            ps.setString(6, t.getManagerId());
+            if (t.getClientData() != null) {
+                ps.setString(7, toJson(t.getClientData()));
+            } else {
+                ps.setNull(7, Types.VARCHAR);
+            }
+            ps.setTimestamp(8, new Timestamp(t.getRecordedAt()));
+            if (t.getDetail() != null) {
+                ps.setString(9, toJson(t.getDetail()));
+            } else {
+                ps.setNull(9, Types.VARCHAR);
+            }
+        });
+    }
+
+    /**
+     * Remove o histórico antigo para que a varredura de recuperação continue
+     * barata. Só apaga linhas mais antigas que {@code saga.persistence.retention-millis}.
+     */
+    @Scheduled(fixedDelayString = "${saga.persistence.purge-millis:3600000}")
+    public void purgeOldTransitions() {
+        try {
+            int removed = jdbc.update("DELETE FROM saga_schema.saga_transition WHERE recorded_at < ?",
+                    new Timestamp(System.currentTimeMillis() - retentionMillis));
+            if (removed > 0) {
+                log.info("[SAGA] {} transições antigas removidas", removed);
+            }
+        } catch (Exception ex) {
+            log.warn("[SAGA] Falha ao limpar transições antigas: {}", ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private SagaTransition toTransition(ResultSet rs) throws SQLException {
+        return new SagaTransition(
+                rs.getString("correlation_id"),
+                rs.getString("flow"),
+                rs.getString("status"),
+                rs.getInt("status_code"),
+                rs.getString("message"),
+                rs.getString("manager_id"),
+                fromJson(rs.getString("client_data")),
+                rs.getTimestamp("recorded_at").getTime(),
+                readDetail(rs.getString("detail")));
+    }
+
+    private String toJson(Object data) {
+        try {
+            return mapper.writeValueAsString(data);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Erro ao serializar dados da saga", ex);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        if (json == null)
+            return null;
+        try {
+            return mapper.readValue(json, new TypeReference<Map<String, Object>>() {
+            });
+        } catch (Exception ex) {
+            log.warn("[SAGA] Dados de cliente ilegíveis na recuperação: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private Object readDetail(String json) {
+        if (json == null)
+            return null;
+        try {
+            return mapper.readValue(json, Object.class);
+        } catch (Exception ex) {
+            log.warn("[SAGA] Detalhe de resultado ilegível: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package br.ufpr.saga_orchestrator.store;
+
+import java.util.Map;
+
+import br.ufpr.saga_orchestrator.result.SagaResult;
+
+/**
+ * Tudo que o orquestrador guarda sobre uma saga: o último resultado, o passo
+ * em que ela está e os dados coletados nos passos anteriores.
+ */
+public class SagaState {
+
+    private final long createdAt;
+    private volatile long terminalAt;
+    private volatile SagaResult result;
+    private volatile String managerId;
+    private volatile Map<String, Object> clientData;
+    private volatile String flow;
+    private volatile int stepIndex;
+    private volatile long stepStartedAt;
+
+    public SagaState(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getTerminalAt() {
+        return terminalAt;
+    }
+
+    public void markTerminal(long terminalAt) {
+        this.terminalAt = terminalAt;
+    }
+
+    public SagaResult getResult() {
+        return result;
+    }
+
+    public void setResult(SagaResult result) {
+        this.result = result;
+    }
+
+    public String getManagerId() {
+        return managerId;
+    }
+
+    public void setManagerId(String managerId) {
+        this.managerId = managerId;
+    }
+
+    public Map<String, Object> getClientData() {
+        return clientData;
+    }
+
+    public void setClientData(Map<String, Object> clientData) {
+        this.clientData = clientData;
+    }
+
+    public String getFlow() {
+        return flow;
+    }
+
+    public int getStepIndex() {
+        return stepIndex;
+    }
+
+    public long getStepStartedAt() {
+        return stepStartedAt;
+    }
+
+    /**
+     * Marca a entrada da saga em um passo do fluxo; a duração do passo é medida
+     * a partir daqui até a resposta correspondente.
+     */
+    public void enterStep(String flow, int stepIndex, long startedAt) {
+        this.flow = flow;
+        this.stepIndex = stepIndex;
+        this.stepStartedAt = startedAt;
+    }
+}
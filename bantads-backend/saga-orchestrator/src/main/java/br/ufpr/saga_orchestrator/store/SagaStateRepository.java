@@ -0,0 +1,23 @@
+package br.ufpr.saga_orchestrator.store;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistência durável das transições de saga. As gravações são append-only;
+ * o estado atual de uma saga é a sua última transição.
+ */
+public interface SagaStateRepository {
+
+    void append(SagaTransition transition);
+
+    /**
+     * Última transição de cada saga que ainda não chegou a um estado terminal.
+     */
+    List<SagaTransition> findUnfinished();
+
+    /**
+     * Última transição gravada de uma saga, terminal ou não.
+     */
+    Optional<SagaTransition> findLatest(String correlationId);
+}
@@ -0,0 +1,187 @@
+package br.ufpr.saga_orchestrator.store;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.ufpr.saga_orchestrator.result.SagaResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Estado das sagas em memória, limitado por capacidade e com expiração.
+ *
+ * Entradas terminais ficam disponíveis para {@code /saga/result/{id}} por
+ * {@code saga.store.ttl-millis}; entradas que nunca terminam expiram depois de
+ * {@code saga.store.pending-ttl-millis}. Quando {@code saga.store.max-entries}
+ * é ultrapassado, as entradas terminais mais antigas são descartadas primeiro.
+ * Sagas em andamento nunca são descartadas por capacidade: descartá-las faria
+ * respostas e prazos serem ignorados sem compensação. Com o store cheio delas,
+ * {@link #admit()} recusa sagas novas.
+ */
+@Component
+public class SagaStateStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SagaStateStore.class);
+
+    private final Map<String, SagaState> states = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    private final long ttlMillis;
+    private final long pendingTtlMillis;
+    private final int maxEntries;
+
+    private final Counter ttlEvictions;
+    private final Counter capacityEvictions;
+    private final Counter rejections;
+
+    public SagaStateStore(
+            @Value("${saga.store.ttl-millis:300000}") long ttlMillis,
+            @Value("${saga.store.pending-ttl-millis:1800000}") long pendingTtlMillis,
+            @Value("${saga.store.max-entries:100000}") int maxEntries,
+            MeterRegistry registry) {
+        this.ttlMillis = ttlMillis;
+        this.pendingTtlMillis = pendingTtlMillis;
+        this.maxEntries = maxEntries;
+
+        Gauge.builder("saga.store.size", states, Map::size)
+                .description("Sagas mantidas em memória")
+                .register(registry);
+        this.ttlEvictions = Counter.builder("saga.store.evictions")
+                .description("Sagas removidas do store")
+                .tag("reason", "ttl")
+                .register(registry);
+        this.capacityEvictions = Counter.builder("saga.store.evictions")
+                .description("Sagas removidas do store")
+                .tag("reason", "capacity")
+                .register(registry);
+        this.rejections = Counter.builder("saga.store.rejections")
+                .description("Sagas novas recusadas com o store cheio de sagas em andamento")
+                .register(registry);
+    }
+
+    /**
+     * Se cabe mais uma saga nova, descartando terminais se preciso. O limite é
+     * aproximado: inícios simultâneos podem passar um pouco dele.
+     */
+    public boolean admit() {
+        if (states.size() < maxEntries)
+            return true;
+        enforceCapacity(maxEntries - 1);
+        if (states.size() < maxEntries)
+            return true;
+        rejections.increment();
+        return false;
+    }
+
+    public SagaState get(String correlationId) {
+        return states.get(correlationId);
+    }
+
+    public SagaState getOrCreate(String correlationId) {
+        return stateFor(correlationId);
+    }
+
+    public SagaResult getResult(String correlationId) {
+        SagaState state = states.get(correlationId);
+        return state != null ? state.getResult() : null;
+    }
+
+    public void putResult(String correlationId, SagaResult result) {
+        SagaState state = stateFor(correlationId);
+        state.setResult(result);
+        if (result.getStatusCode() != 202) {
+            state.markTerminal(System.currentTimeMillis());
+        }
+    }
+
+    public String getManagerId(String correlationId) {
+        SagaState state = states.get(correlationId);
+        return state != null ? state.getManagerId() : null;
+    }
+
+    public void putManagerId(String correlationId, String managerId) {
+        stateFor(correlationId).setManagerId(managerId);
+    }
+
+    public Map<String, Object> getClientData(String correlationId) {
+        SagaState state = states.get(correlationId);
+        return state != null ? state.getClientData() : null;
+    }
+
+    public void putClientData(String correlationId, Map<String, Object> clientData) {
+        stateFor(correlationId).setClientData(clientData);
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    private SagaState stateFor(String correlationId) {
+        SagaState existing = states.get(correlationId);
+        if (existing != null)
+            return existing;
+
+        SagaState created = new SagaState(System.currentTimeMillis());
+        SagaState previous = states.putIfAbsent(correlationId, created);
+        if (previous != null)
+            return previous;
+
+        insertionOrder.add(correlationId);
+        enforceCapacity(maxEntries);
+        return created;
+    }
+
+    private void enforceCapacity(int limit) {
+        if (states.size() <= limit)
+            return;
+        Iterator<String> it = insertionOrder.iterator();
+        while (states.size() > limit && it.hasNext()) {
+            String correlationId = it.next();
+            SagaState state = states.get(correlationId);
+            if (state == null) {
+                it.remove();
+                continue;
+            }
+            if (state.getTerminalAt() > 0 && states.remove(correlationId, state)) {
+                it.remove();
+                capacityEvictions.increment();
+                log.debug("[SAGA] Store cheio, descartando saga terminada correlationId={}", correlationId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${saga.store.sweep-millis:5000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<String> it = insertionOrder.iterator();
+        while (it.hasNext()) {
+            String correlationId = it.next();
+            SagaState state = states.get(correlationId);
+            if (state == null) {
+                it.remove();
+                continue;
+            }
+            if (isExpired(state, now) && states.remove(correlationId, state)) {
+                it.remove();
+                ttlEvictions.increment();
+            }
+        }
+    }
+
+    private boolean isExpired(SagaState state, long now) {
+        long terminalAt = state.getTerminalAt();
+        if (terminalAt > 0)
+            return now - terminalAt >= ttlMillis;
+        return now - state.getCreatedAt() >= pendingTtlMillis;
+    }
+}
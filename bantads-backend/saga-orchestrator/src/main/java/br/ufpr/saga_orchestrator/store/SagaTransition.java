@@ -0,0 +1,106 @@
+package br.ufpr.saga_orchestrator.store;
+
+import java.util.Map;
+
+import br.ufpr.saga_orchestrator.result.SagaResult;
+
+/**
+ * Uma transição de passo da saga, gravada de forma append-only para permitir
+ * a recuperação depois de um reinício do orquestrador.
+ */
+public class SagaTransition {
+
+    private final String correlationId;
+    private final String flow;
+    private final String status;
+    private final int statusCode;
+    private final String message;
+    private final String managerId;
+    private final Map<String, Object> clientData;
+    private final long recordedAt;
+    private final Object detail;
+
+    public SagaTransition(String correlationId, String flow, String status, int statusCode, String message,
+            String managerId, Map<String, Object> clientData, long recordedAt) {
+        this(correlationId, flow, status, statusCode, message, managerId, clientData, recordedAt, null);
+    }
+
+    public SagaTransition(String correlationId, String flow, String status, int statusCode, String message,
+            String managerId, Map<String, Object> clientData, long recordedAt, Object detail) {
+        this.correlationId = correlationId;
+        this.flow = flow;
+        this.status = status;
+        this.statusCode = statusCode;
+        this.message = message;
+        this.managerId = managerId;
+        this.clientData = clientData;
+        this.recordedAt = recordedAt;
+        this.detail = detail;
+    }
+
+    public static SagaTransition of(String correlationId, SagaResult result, String managerId,
+            Map<String, Object> clientData) {
+        return new SagaTransition(correlationId, result.getStep(), statusOf(result), result.getStatusCode(),
+                result.getMessage(), managerId, clientData, System.currentTimeMillis(), result.getDetail());
+    }
+
+    /**
+     * Reconstrói o resultado a partir da transição, para responder por sagas
+     * conduzidas por outra instância do orquestrador.
+     */
+    public SagaResult toResult() {
+        return new SagaResult(!"failed".equals(status), flow, message, detail, statusCode);
+    }
+
+    /**
+     * Para resultados pendentes usa o status do detalhe ("pending-manager",
+     * "pending-account"...); para os terminais, "completed" ou "failed".
+     */
+    private static String statusOf(SagaResult result) {
+        if (result.getStatusCode() == 202 && result.getDetail() instanceof Map<?, ?> detail
+                && detail.get("status") != null) {
+            return String.valueOf(detail.get("status"));
+        }
+        return result.isSuccess() ? "completed" : "failed";
+    }
+
+    public boolean isTerminal() {
+        return statusCode != 202;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public String getFlow() {
+        return flow;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getManagerId() {
+        return managerId;
+    }
+
+    public Map<String, Object> getClientData() {
+        return clientData;
+    }
+
+    public long getRecordedAt() {
+        return recordedAt;
+    }
+
+    public Object getDetail() {
+        return detail;
+    }
+}
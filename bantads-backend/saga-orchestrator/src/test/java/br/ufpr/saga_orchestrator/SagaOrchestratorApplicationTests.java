@@ -3,7 +3,7 @@ package br.ufpr.saga_orchestrator;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "saga.persistence.type=memory")
 class SagaOrchestratorApplicationTests {
 
 	@Test
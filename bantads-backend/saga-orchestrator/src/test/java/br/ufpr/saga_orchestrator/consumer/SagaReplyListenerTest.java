@@ -0,0 +1,67 @@
+package br.ufpr.saga_orchestrator.consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import br.ufpr.saga_orchestrator.engine.SagaEngine;
+import br.ufpr.saga_orchestrator.engine.SagaInstance;
+
+class SagaReplyListenerTest {
+
+    private SagaEngine engine;
+    private SagaReplyForwarder forwarder;
+    private SagaReplyListener listener;
+
+    @BeforeEach
+    void setUp() {
+        engine = mock(SagaEngine.class);
+        forwarder = mock(SagaReplyForwarder.class);
+        listener = new SagaReplyListener(engine, new SagaInstance("replica-a"), forwarder);
+    }
+
+    @Test
+    void handlesRepliesForItsOwnSagas() {
+        Message message = reply("replica-a.123");
+
+        listener.onReply(message);
+
+        verify(engine).onReply("auth.created.queue", message);
+        verify(forwarder, never()).forward(anyString(), anyString(), any(Message.class));
+    }
+
+    @Test
+    void forwardsRepliesToTheOwningInstance() {
+        Message message = reply("replica-b.456");
+
+        listener.onReply(message);
+
+        verify(forwarder).forward("replica-b", "auth.created.queue", message);
+        verify(engine, never()).onReply(anyString(), any(Message.class));
+    }
+
+    @Test
+    void keepsHandlingSagasItHasAlreadyAdopted() {
+        Message message = reply("replica-b.789");
+        when(engine.isTracking("replica-b.789")).thenReturn(true);
+
+        listener.onReply(message);
+
+        verify(engine).onReply("auth.created.queue", message);
+    }
+
+    private Message reply(String correlationId) {
+        MessageProperties properties = new MessageProperties();
+        properties.setCorrelationId(correlationId);
+        properties.setConsumerQueue("auth.created.queue");
+        return new Message("{}".getBytes(), properties);
+    }
+}
@@ -0,0 +1,286 @@
+package br.ufpr.saga_orchestrator.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.ufpr.saga_orchestrator.engine.SagaEngine;
+import br.ufpr.saga_orchestrator.engine.SagaEngineTestConfig;
+import br.ufpr.saga_orchestrator.service.SagaCompletionRegistry;
+import br.ufpr.saga_orchestrator.service.SagaService;
+
+/**
+ * Sagas de aprovação contra {@code POST /clientes/{cpf}/aprovar}. Os serviços
+ * downstream são simulados respondendo cada comando com alguns milissegundos
+ * de atraso, ou segurando as respostas até o teste liberá-las. Os testes com
+ * centenas (ou milhares) de sagas e prazo medido são benchmarks
+ * ({@code -Pbenchmark}).
+ */
+@SpringJUnitConfig(SagaEngineTestConfig.class)
+@TestPropertySource(properties = { "saga.persistence.type=memory", "saga.wait-millis=10000" })
+class SagaControllerLoadTest {
+
+    private static final int CONCURRENT_SAGAS = 500;
+    private static final long HOP_DELAY_MILLIS = 5;
+
+    @Autowired
+    private SagaService sagaService;
+
+    @Autowired
+    private SagaEngine engine;
+
+    @Autowired
+    private SagaCompletionRegistry completions;
+
+    @Autowired
+    private RabbitTemplate rabbit;
+
+    private ScheduledExecutorService downstream;
+    private MockMvc mockMvc;
+
+    /** Respostas seguradas enquanto não nulo; {@link #releaseReplies()} entrega. */
+    private volatile List<Runnable> heldReplies;
+
+    @BeforeEach
+    void setUp() {
+        downstream = Executors.newScheduledThreadPool(8);
+        reset(rabbit);
+
+        doAnswer(invocation -> {
+            String routingKey = invocation.getArgument(1);
+            @SuppressWarnings("unchecked")
+            Map<String, Object> payload = (Map<String, Object>) invocation.getArgument(2);
+            MessagePostProcessor postProcessor = invocation.getArgument(3);
+            String correlationId = postProcessor
+                    .postProcessMessage(new Message(new byte[0], new MessageProperties()))
+                    .getMessageProperties().getCorrelationId();
+            Runnable reply = () -> reply(routingKey, correlationId, payload);
+            List<Runnable> held = heldReplies;
+            if (held != null) {
+                held.add(reply);
+            } else {
+                downstream.schedule(reply, HOP_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            return null;
+        }).when(rabbit).convertAndSend(anyString(), anyString(), any(Object.class), any(MessagePostProcessor.class));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new SagaController(sagaService)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        heldReplies = null;
+        downstream.shutdownNow();
+    }
+
+    private void holdReplies() {
+        heldReplies = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    private void releaseReplies() {
+        List<Runnable> held = heldReplies;
+        heldReplies = null;
+        synchronized (held) {
+            held.forEach(downstream::execute);
+        }
+    }
+
+    private void reply(String routingKey, String correlationId, Map<String, Object> payload) {
+        switch (routingKey) {
+            case "client.approve" -> engine.onReply("client.approved.queue", correlationId, Map.of(
+                    "cpf", payload.get("cpf"), "nome", "Cliente", "email", "cliente@bantads.com",
+                    "salario", 5000));
+            case "manager.assign" -> engine.onReply("manager.assigned.queue", correlationId, Map.of(
+                    "cpf", payload.get("cpf"), "managerId", "98574307084", "salario", 5000));
+            case "saga.account.create" -> engine.onReply("saga.account.created.queue", correlationId, Map.of(
+                    "clientId", payload.get("clientId"), "accountNumber", "1234", "limit", "2500.00"));
+            case "auth.create-user" -> engine.onReply("auth.created.queue", correlationId, Map.of(
+                    "cpf", payload.get("cpf"), "nome", payload.get("nome"),
+                    "accountNumber", payload.get("accountNumber"), "limit", payload.get("limit")));
+            default -> {
+            }
+        }
+    }
+
+    @Test
+    void requestThreadsAreReleasedBeforeTheRepliesArrive() throws Exception {
+        int sagas = 20;
+        holdReplies();
+
+        // Cada perform() volta na thread do teste com a saga só iniciada: o
+        // primeiro comando foi publicado e nenhuma resposta chegou ainda.
+        List<MvcResult> inFlight = new ArrayList<>();
+        for (int i = 0; i < sagas; i++) {
+            inFlight.add(mockMvc.perform(post("/clientes/{cpf}/aprovar", String.format("%011d", i)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn());
+        }
+        assertEquals(sagas, heldReplies.size());
+        assertEquals(sagas, completions.size());
+
+        releaseReplies();
+        for (MvcResult result : inFlight) {
+            result.getAsyncResult(TimeUnit.SECONDS.toMillis(30));
+            MockHttpServletResponse response = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse();
+            assertEquals(200, response.getStatus());
+            assertTrue(response.getContentAsString().contains("\"conta\":\"1234\""));
+        }
+        assertEquals(0, completions.size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void approvesHundredsOfConcurrentSagasWithoutHoldingRequestThreads() throws Exception {
+        long start = System.nanoTime();
+
+        // Cada requisição retorna assim que a saga é iniciada; nenhuma thread fica
+        // presa aguardando o resultado.
+        List<MvcResult> inFlight = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_SAGAS; i++) {
+            String cpf = String.format("%011d", i);
+            inFlight.add(mockMvc.perform(post("/clientes/{cpf}/aprovar", cpf))
+                    .andExpect(request().asyncStarted())
+                    .andReturn());
+        }
+
+        int approved = 0;
+        for (MvcResult result : inFlight) {
+            result.getAsyncResult(TimeUnit.SECONDS.toMillis(30));
+            MockHttpServletResponse response = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse();
+            // A resposta pendente também é 200, então confere a conta criada no corpo.
+            if (response.getStatus() == 200 && response.getContentAsString().contains("\"conta\":\"1234\"")) {
+                approved++;
+            }
+        }
+
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        double throughput = CONCURRENT_SAGAS * 1000.0 / elapsedMillis;
+        System.out.printf("%d sagas de aprovação concluídas em %d ms (%.1f sagas/s)%n",
+                approved, elapsedMillis, throughput);
+
+        assertEquals(CONCURRENT_SAGAS, approved);
+        assertEquals(0, completions.size());
+        // Quatro saltos de 5 ms por saga; com o polling antigo cada requisição
+        // segurava uma thread por no mínimo 200 ms.
+        assertTrue(elapsedMillis < 10_000, "sagas demoraram " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void batchAnswersInRequestOrderAndStartsOneSagaPerCpf() throws Exception {
+        List<String> cpfs = List.of("00000000003", "00000000001", "00000000002");
+        holdReplies();
+
+        MvcResult result = mockMvc.perform(post("/clientes/aprovar-lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"00000000003\",\"00000000001\",\"00000000003\",\"00000000002\",\"00000000001\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(cpfs.size(), heldReplies.size());
+
+        // As sagas terminam na ordem inversa; a resposta segue a ordem do pedido.
+        List<Runnable> held = new ArrayList<>(heldReplies);
+        heldReplies = null;
+        Collections.reverse(held);
+        held.forEach(downstream::execute);
+
+        result.getAsyncResult(TimeUnit.SECONDS.toMillis(30));
+        String response = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse().getContentAsString();
+        List<Map<String, Object>> entries = new ObjectMapper().readValue(response,
+                new TypeReference<List<Map<String, Object>>>() {
+                });
+        assertEquals(cpfs, entries.stream().map(e -> e.get("cpf")).toList());
+        assertTrue(entries.stream().allMatch(e -> Integer.valueOf(201).equals(e.get("status"))));
+        for (String cpf : cpfs) {
+            verify(rabbit).convertAndSend(anyString(), eq("client.approve"), eq(Map.of("cpf", cpf)),
+                    any(MessagePostProcessor.class));
+        }
+    }
+
+    @Test
+    void rejectsABatchAboveTheMaximumBeforeStartingAnySaga() throws Exception {
+        // saga.approve.batch-max-size padrão: 5000 CPFs distintos.
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 5001; i++) {
+            body.append(i == 0 ? "" : ",").append('"').append(String.format("%011d", i)).append('"');
+        }
+        body.append(']');
+
+        mockMvc.perform(post("/clientes/aprovar-lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body.toString()))
+                .andExpect(status().isBadRequest());
+        verify(rabbit, never()).convertAndSend(anyString(), anyString(), any(Object.class),
+                any(MessagePostProcessor.class));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void approvesABacklogOfClientsInASingleBatchRequest() throws Exception {
+        int backlog = 2000;
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < backlog; i++) {
+            body.append(i == 0 ? "" : ",").append('"').append(String.format("%011d", i)).append('"');
+        }
+        // CPF repetido no lote não dispara uma segunda saga.
+        body.append(",\"00000000000\"]");
+
+        long start = System.nanoTime();
+        MvcResult result = mockMvc.perform(post("/clientes/aprovar-lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(TimeUnit.SECONDS.toMillis(30));
+        String response = mockMvc.perform(asyncDispatch(result)).andReturn().getResponse().getContentAsString();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        System.out.printf("lote de %d aprovações concluído em %d ms%n", backlog, elapsedMillis);
+
+        List<Map<String, Object>> entries = new ObjectMapper().readValue(response,
+                new TypeReference<List<Map<String, Object>>>() {
+                });
+        assertEquals(backlog, entries.size());
+        assertEquals("00000000000", entries.get(0).get("cpf"));
+        assertTrue(entries.stream().allMatch(e -> Integer.valueOf(201).equals(e.get("status"))
+                && "1234".equals(e.get("conta"))));
+        assertEquals(0, completions.size());
+        assertTrue(elapsedMillis < 10_000, "lote demorou " + elapsedMillis + " ms");
+    }
+}
@@ -0,0 +1,206 @@
+package br.ufpr.saga_orchestrator.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import br.ufpr.saga_orchestrator.config.SagaFlowConfig;
+import br.ufpr.saga_orchestrator.result.SagaResult;
+import br.ufpr.saga_orchestrator.store.InMemorySagaStateRepository;
+import br.ufpr.saga_orchestrator.store.SagaStateStore;
+import br.ufpr.saga_orchestrator.store.SagaTransition;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringJUnitConfig(SagaEngineTestConfig.class)
+@TestPropertySource(properties = { "saga.persistence.type=memory", "saga.step.timeout-millis=100" })
+class SagaEngineTest {
+
+    @Autowired
+    private SagaEngine engine;
+
+    @Autowired
+    private SagaStateStore states;
+
+    @Autowired
+    private RabbitTemplate rabbit;
+
+    @Autowired
+    private MeterRegistry meters;
+
+    @Autowired
+    private InMemorySagaStateRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        reset(rabbit);
+    }
+
+    @Test
+    void rollsBackTheManagerWhenAuthFails() {
+        CompletableFuture<SagaResult> future = engine.start(SagaFlowConfig.CREATE_MANAGER,
+                Map.of("cpf", "11122233344", "name", "Gerente"));
+        String cid = correlationIdOf(future);
+
+        engine.onReply("manager.created.queue", cid, Map.of("id", "7", "cpf", "11122233344", "name", "Gerente"));
+        engine.onReply("auth.failed.queue", cid, Map.of("reason", "E-mail já cadastrado", "statusCode", 409));
+
+        SagaResult result = future.join();
+        assertFalse(result.isSuccess());
+        assertEquals(409, result.getStatusCode());
+        assertEquals("E-mail já cadastrado", result.getMessage());
+        verify(rabbit).convertAndSend(eq("managers.exchange"), eq("manager.delete"), eq(Map.of("id", "7")),
+                any(MessagePostProcessor.class));
+        assertEquals(1, meters.get("saga.step.duration").tag("flow", "create-manager")
+                .tag("step", "pending-auth").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void skipsTheLimitStepWhenSalaryIsUnchanged() {
+        CompletableFuture<SagaResult> future = engine.start(SagaFlowConfig.UPDATE_CLIENT,
+                Map.of("cpf", "11122233344", "salario", 3000));
+        String cid = correlationIdOf(future);
+
+        engine.onReply("client.updated.queue", cid,
+                Map.of("cpf", "11122233344", "salario", 3000, "oldSalario", 3000));
+
+        SagaResult result = future.join();
+        assertTrue(result.isSuccess());
+        assertEquals(200, result.getStatusCode());
+        verify(rabbit, never()).convertAndSend(eq("saga.exchange"), eq("saga.account.updatelimit"), any(Object.class),
+                any(MessagePostProcessor.class));
+        assertEquals(1, meters.get("saga.started").tag("flow", "update-client").counter().count());
+        assertEquals(1, meters.get("saga.finished").tag("flow", "update-client").tag("outcome", "succeeded")
+                .counter().count());
+        assertEquals(0, meters.get("saga.in-flight").tag("flow", "update-client").gauge().value());
+    }
+
+    @Test
+    void ignoresRepliesThatDoNotMatchTheCurrentStep() {
+        CompletableFuture<SagaResult> future = engine.start(SagaFlowConfig.APPROVE_CLIENT,
+                Map.of("cpf", "11122233344"));
+        String cid = correlationIdOf(future);
+
+        // auth.created pertence ao último passo; chegando agora não deve avançar a saga.
+        engine.onReply("auth.created.queue", cid, Map.of("cpf", "11122233344"));
+
+        assertFalse(future.isDone());
+        assertEquals("pending", ((Map<?, ?>) states.getResult(cid).getDetail()).get("status"));
+    }
+
+    @Test
+    void timesOutAStuckStepAndDeletesTheCreatedAccount() throws InterruptedException {
+        CompletableFuture<SagaResult> future = engine.start(SagaFlowConfig.APPROVE_CLIENT,
+                Map.of("cpf", "55566677788"));
+        String cid = correlationIdOf(future);
+
+        engine.onReply("client.approved.queue", cid, Map.of("cpf", "55566677788", "nome", "Cliente",
+                "email", "cliente@bantads.com", "salario", 5000));
+        engine.onReply("manager.assigned.queue", cid, Map.of("cpf", "55566677788", "managerId", "1",
+                "salario", 5000));
+        engine.onReply("saga.account.created.queue", cid, Map.of("clientId", "55566677788",
+                "accountNumber", "9999", "limit", "2500.00"));
+
+        // auth-service nunca responde.
+        Thread.sleep(150);
+        engine.expireOverdueSteps();
+
+        SagaResult result = future.join();
+        assertFalse(result.isSuccess());
+        assertEquals(504, result.getStatusCode());
+        verify(rabbit).convertAndSend(eq("saga.exchange"), eq("saga.account.delete"),
+                eq(Map.of("clientId", "55566677788")), any(MessagePostProcessor.class));
+        assertEquals(1, meters.get("saga.step.timeouts").tag("flow", "approve-client")
+                .tag("step", "pending-auth").counter().count());
+        assertEquals(1, meters.get("saga.finished").tag("flow", "approve-client").tag("outcome", "timed-out")
+                .counter().count());
+
+        // A resposta atrasada não reabre a saga.
+        engine.onReply("auth.created.queue", cid, Map.of("cpf", "55566677788"));
+        assertEquals(504, states.getResult(cid).getStatusCode());
+    }
+
+    @Test
+    void persistsTheFailureWhenTheFirstCommandCannotBePublished() {
+        ArgumentCaptor<MessagePostProcessor> captor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        doThrow(new AmqpException("broker fora do ar")).when(rabbit)
+                .convertAndSend(any(String.class), any(String.class), any(Object.class), captor.capture());
+        double failedBefore = failedApprovals();
+
+        SagaResult result = engine.start(SagaFlowConfig.APPROVE_CLIENT, Map.of("cpf", "12312312312")).join();
+        String cid = captor.getValue()
+                .postProcessMessage(new Message(new byte[0], new MessageProperties()))
+                .getMessageProperties().getCorrelationId();
+
+        assertEquals(500, result.getStatusCode());
+        // O 202 gravado ao entrar no passo não pode ficar como a última palavra.
+        assertEquals(500, repository.findLatest(cid).orElseThrow().getStatusCode());
+        assertTrue(repository.findUnfinished().stream().noneMatch(t -> t.getCorrelationId().equals(cid)));
+        assertEquals(failedBefore + 1, failedApprovals());
+    }
+
+    private double failedApprovals() {
+        return meters.get("saga.finished").tag("flow", "approve-client").tag("outcome", "failed").counter().count();
+    }
+
+    @Test
+    void adoptsASagaStartedByAnotherInstance() {
+        String cid = "replica-b.0f9c";
+        repository.append(new SagaTransition(cid, SagaFlowConfig.APPROVE_CLIENT, "pending-manager", 202,
+                "Aguardando atribuição de gerente", null,
+                Map.of("cpf", "99988877766", "nome", "Cliente", "email", "c@bantads.com"),
+                System.currentTimeMillis()));
+
+        engine.onReply("manager.assigned.queue", cid, Map.of("cpf", "99988877766", "managerId", "3",
+                "salario", 4000));
+
+        assertEquals("pending-account", ((Map<?, ?>) engine.getResult(cid).getDetail()).get("status"));
+        verify(rabbit).convertAndSend(eq("saga.exchange"), eq("saga.account.create"), any(Object.class),
+                any(MessagePostProcessor.class));
+    }
+
+    @Test
+    void answersForSagasOnlyKnownToTheSharedRepository() {
+        repository.append(new SagaTransition("replica-c.77aa", SagaFlowConfig.APPROVE_CLIENT, "completed", 201,
+                "Cliente aprovado com sucesso", null, null, System.currentTimeMillis(),
+                Map.of("conta", "4321")));
+
+        SagaResult result = engine.getResult("replica-c.77aa");
+
+        assertTrue(result.isSuccess());
+        assertEquals(201, result.getStatusCode());
+        assertEquals("4321", ((Map<?, ?>) result.getDetail()).get("conta"));
+    }
+
+    /**
+     * Recupera o correlationId que o engine colocou no comando inicial.
+     */
+    private String correlationIdOf(CompletableFuture<SagaResult> future) {
+        assertFalse(future.isDone());
+        ArgumentCaptor<MessagePostProcessor> captor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbit).convertAndSend(any(String.class), any(String.class), any(Object.class), captor.capture());
+        return captor.getValue()
+                .postProcessMessage(new Message(new byte[0], new MessageProperties()))
+                .getMessageProperties().getCorrelationId();
+    }
+}
@@ -0,0 +1,53 @@
+package br.ufpr.saga_orchestrator.engine;
+
+import static org.mockito.Mockito.mock;
+
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.ufpr.saga_orchestrator.config.RabbitConfig;
+import br.ufpr.saga_orchestrator.config.SagaFlowConfig;
+import br.ufpr.saga_orchestrator.service.SagaCompletionRegistry;
+import br.ufpr.saga_orchestrator.service.SagaResultWatcher;
+import br.ufpr.saga_orchestrator.service.SagaService;
+import br.ufpr.saga_orchestrator.store.InMemorySagaStateRepository;
+import br.ufpr.saga_orchestrator.store.SagaStateStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Engine com os fluxos reais, sem RabbitMQ nem banco: o {@link RabbitTemplate}
+ * é um mock e as transições ficam em memória. Exige
+ * {@code saga.persistence.type=memory}.
+ */
+@TestConfiguration
+@Import({ RabbitConfig.class, SagaFlowConfig.class, SagaEngine.class, SagaInstance.class, SagaStateStore.class,
+        SagaCompletionRegistry.class, SagaResultWatcher.class, InMemorySagaStateRepository.class,
+        SagaService.class })
+public class SagaEngineTestConfig {
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        return new ObjectMapper();
+    }
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate() {
+        return mock(RabbitTemplate.class);
+    }
+
+    @Bean
+    public WebClient webClient() {
+        return WebClient.create();
+    }
+}
@@ -0,0 +1,131 @@
+package br.ufpr.saga_orchestrator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import br.ufpr.saga_orchestrator.engine.SagaEngine;
+import br.ufpr.saga_orchestrator.engine.SagaEngineTestConfig;
+import br.ufpr.saga_orchestrator.engine.SagaInstance;
+import br.ufpr.saga_orchestrator.result.SagaResult;
+import br.ufpr.saga_orchestrator.store.InMemorySagaStateRepository;
+import br.ufpr.saga_orchestrator.store.SagaStateStore;
+import br.ufpr.saga_orchestrator.store.SagaTransition;
+
+@SpringJUnitConfig(SagaEngineTestConfig.class)
+@TestPropertySource(properties = "saga.persistence.type=memory")
+class SagaRecoveryTest {
+
+    @Autowired
+    private RabbitTemplate rabbit;
+
+    @Autowired
+    private SagaStateStore sagaStates;
+
+    @Autowired
+    private InMemorySagaStateRepository repository;
+
+    @Autowired
+    private SagaEngine engine;
+
+    @Autowired
+    private SagaInstance instance;
+
+    private SagaRecovery recovery;
+
+    @BeforeEach
+    void setUp() {
+        reset(rabbit);
+        recovery = new SagaRecovery(repository, engine, instance);
+        ReflectionTestUtils.setField(recovery, "staleMillis", 60_000L);
+    }
+
+    @Test
+    void resumesRecentSagasWithTheirCollectedData() {
+        repository.append(new SagaTransition("recent", "approve-client", "pending-account", 202,
+                "Aguardando criação de conta", null, Map.of("nome", "Cliente", "email", "c@bantads.com"),
+                System.currentTimeMillis()));
+
+        recovery.recover();
+
+        SagaResult result = sagaStates.getResult("recent");
+        assertEquals(202, result.getStatusCode());
+        assertEquals("Cliente", sagaStates.getClientData("recent").get("nome"));
+
+        // A resposta que estava na fila continua a saga do passo em que parou.
+        engine.onReply("saga.account.created.queue", "recent",
+                Map.of("clientId", "12345678900", "accountNumber", "4321", "limit", "0"));
+        assertEquals("pending-auth", ((Map<?, ?>) sagaStates.getResult("recent").getDetail()).get("status"));
+    }
+
+    @Test
+    void leavesRecentSagasOfOtherInstancesToTheirOwner() {
+        repository.append(new SagaTransition("other-replica.abc", "approve-client", "pending-manager", 202,
+                "Aguardando atribuição de gerente", null, null, System.currentTimeMillis()));
+
+        recovery.recover();
+
+        assertNull(sagaStates.getResult("other-replica.abc"));
+    }
+
+    @Test
+    void compensatesStaleSagasAndRecordsTheFailure() {
+        repository.append(new SagaTransition("stale", "create-manager", "pending-auth", 202, "Aguardando auth",
+                "manager-42", null, System.currentTimeMillis() - 120_000));
+
+        recovery.recover();
+
+        verify(rabbit).convertAndSend(eq("managers.exchange"), eq("manager.delete"), eq(Map.of("id", "manager-42")),
+                any(MessagePostProcessor.class));
+        assertFalse(sagaStates.getResult("stale").isSuccess());
+        assertTrue(repository.findUnfinished().stream().noneMatch(t -> t.getCorrelationId().equals("stale")));
+    }
+
+    @Test
+    void periodicScanCompensatesSagasAbandonedByAnotherInstance() {
+        repository.append(new SagaTransition("gone-replica.1", "create-manager", "pending-auth", 202,
+                "Aguardando auth", "manager-77", null, System.currentTimeMillis() - 120_000));
+        repository.append(new SagaTransition("live-replica.2", "create-manager", "pending-auth", 202,
+                "Aguardando auth", "manager-78", null, System.currentTimeMillis()));
+
+        recovery.abortStale();
+
+        verify(rabbit).convertAndSend(eq("managers.exchange"), eq("manager.delete"), eq(Map.of("id", "manager-77")),
+                any(MessagePostProcessor.class));
+        assertTrue(repository.findLatest("gone-replica.1").orElseThrow().isTerminal());
+        // A saga recente continua com a dona.
+        assertNull(sagaStates.getResult("live-replica.2"));
+        assertFalse(repository.findLatest("live-replica.2").orElseThrow().isTerminal());
+    }
+
+    @Test
+    void periodicScanLeavesSagasThisInstanceIsTracking() {
+        String cid = instance.getId() + ".tracked";
+        sagaStates.putResult(cid, new SagaResult(true, "create-manager", "Aguardando auth",
+                Map.of("correlationId", cid, "status", "pending-auth"), 202));
+        repository.append(new SagaTransition(cid, "create-manager", "pending-auth", 202, "Aguardando auth",
+                "manager-79", null, System.currentTimeMillis() - 120_000));
+
+        recovery.abortStale();
+
+        verifyNoInteractions(rabbit);
+        assertEquals(202, sagaStates.getResult(cid).getStatusCode());
+    }
+}
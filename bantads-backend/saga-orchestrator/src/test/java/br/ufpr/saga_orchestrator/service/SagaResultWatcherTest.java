@@ -0,0 +1,115 @@
+package br.ufpr.saga_orchestrator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.reset;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import br.ufpr.saga_orchestrator.config.SagaFlowConfig;
+import br.ufpr.saga_orchestrator.controller.SagaController;
+import br.ufpr.saga_orchestrator.engine.SagaEngine;
+import br.ufpr.saga_orchestrator.engine.SagaEngineTestConfig;
+import br.ufpr.saga_orchestrator.result.SagaResult;
+
+@SpringJUnitConfig(SagaEngineTestConfig.class)
+@TestPropertySource(properties = { "saga.persistence.type=memory", "saga.wait-millis=20" })
+class SagaResultWatcherTest {
+
+    @Autowired
+    private SagaEngine engine;
+
+    @Autowired
+    private SagaService sagaService;
+
+    @Autowired
+    private SagaCompletionRegistry completions;
+
+    @Autowired
+    private RabbitTemplate rabbit;
+
+    @BeforeEach
+    void setUp() {
+        reset(rabbit);
+    }
+
+    @Test
+    void longPollAnswersAsSoonAsTheSagaFinishes() throws Exception {
+        String cid = startApproval("11122233344");
+
+        CompletableFuture<SagaResult> poll = sagaService.awaitSagaResult(cid, 5_000);
+        assertFalse(poll.isDone());
+
+        long start = System.nanoTime();
+        runApprovalReplies(cid, "11122233344");
+        SagaResult result = poll.get(1, TimeUnit.SECONDS);
+
+        assertEquals(201, result.getStatusCode());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        assertEquals(0, completions.watching());
+    }
+
+    @Test
+    void longPollReturnsTheCurrentStepWhenTheWaitExpires() throws Exception {
+        String cid = startApproval("55566677788");
+
+        SagaResult result = sagaService.awaitSagaResult(cid, 50).get(1, TimeUnit.SECONDS);
+
+        assertEquals(202, result.getStatusCode());
+        assertEquals("pending", ((Map<?, ?>) result.getDetail()).get("status"));
+        assertEquals(0, completions.watching());
+    }
+
+    @Test
+    void streamPushesEveryStepTransitionAndClosesWhenDone() throws Exception {
+        String cid = startApproval("99900011122");
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new SagaController(sagaService)).build();
+
+        MvcResult stream = mockMvc.perform(get("/saga/result/{cid}/stream", cid))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        runApprovalReplies(cid, "99900011122");
+        stream.getAsyncResult(TimeUnit.SECONDS.toMillis(5));
+
+        String body = stream.getResponse().getContentAsString();
+        int pending = body.indexOf("\"status\":\"pending\"");
+        int manager = body.indexOf("\"status\":\"pending-manager\"");
+        int account = body.indexOf("\"status\":\"pending-account\"");
+        int auth = body.indexOf("\"status\":\"pending-auth\"");
+        int completed = body.indexOf("\"status\":\"completed\"");
+        assertTrue(pending >= 0 && pending < manager && manager < account && account < auth && auth < completed,
+                body);
+        assertEquals(0, completions.watching());
+    }
+
+    private String startApproval(String cpf) throws Exception {
+        SagaResult pending = engine.start(SagaFlowConfig.APPROVE_CLIENT, Map.of("cpf", cpf)).get(1, TimeUnit.SECONDS);
+        return String.valueOf(((Map<?, ?>) pending.getDetail()).get("correlationId"));
+    }
+
+    private void runApprovalReplies(String cid, String cpf) {
+        engine.onReply("client.approved.queue", cid, Map.of("cpf", cpf, "nome", "Cliente",
+                "email", "cliente@bantads.com", "salario", 5000));
+        engine.onReply("manager.assigned.queue", cid, Map.of("cpf", cpf, "managerId", "98574307084",
+                "salario", 5000));
+        engine.onReply("saga.account.created.queue", cid, Map.of("clientId", cpf, "accountNumber", "1234",
+                "limit", "2500.00"));
+        engine.onReply("auth.created.queue", cid, Map.of("cpf", cpf, "nome", "Cliente",
+                "accountNumber", "1234", "limit", "2500.00"));
+    }
+}
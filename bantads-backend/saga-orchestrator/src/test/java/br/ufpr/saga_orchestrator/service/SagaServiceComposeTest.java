@@ -0,0 +1,116 @@
+package br.ufpr.saga_orchestrator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import br.ufpr.saga_orchestrator.engine.SagaEngine;
+import reactor.core.publisher.Mono;
+
+/**
+ * Os serviços downstream são simulados e seguram cada resposta até o teste
+ * liberar. O paralelismo é provado pelo número de chamadas em andamento ao
+ * mesmo tempo, não pelo tempo total.
+ */
+class SagaServiceComposeTest {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final CompletableFuture<Void> release = new CompletableFuture<>();
+
+    private SagaService sagaService;
+
+    @BeforeEach
+    void setUp() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    String path = request.url().getPath();
+                    String cpf = path.substring(path.lastIndexOf('/') + 1);
+                    if (cpf.equals("00000000000")) {
+                        return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+                    }
+                    String body = path.startsWith("/query/")
+                            ? "{\"accountNumber\":\"1234\",\"balance\":10.5,\"limit\":500,\"managerId\":\"9\"}"
+                            : "{\"cpf\":\"" + cpf + "\",\"nome\":\"Cliente\"}";
+                    return Mono.defer(() -> {
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        return Mono.fromFuture(release);
+                    })
+                            .then(Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .body(body)
+                                    .build()))
+                            .doFinally(signal -> inFlight.decrementAndGet());
+                })
+                .build();
+
+        sagaService = new SagaService(mock(SagaEngine.class), mock(SagaResultWatcher.class), webClient);
+        ReflectionTestUtils.setField(sagaService, "clientServiceUrl", "http://client");
+        ReflectionTestUtils.setField(sagaService, "accountQueryServiceUrl", "http://account-query");
+        ReflectionTestUtils.setField(sagaService, "lookupTimeoutMillis", 10_000L);
+        ReflectionTestUtils.setField(sagaService, "batchConcurrency", 16);
+    }
+
+    @Test
+    void fetchesClientAndAccountConcurrently() throws InterruptedException {
+        CompletableFuture<Map<String, Object>> future = sagaService.composeClientData("12345678900");
+
+        // Em sequência a segunda chamada só sairia depois da primeira responder.
+        awaitInFlight(2);
+        assertFalse(future.isDone());
+        release.complete(null);
+        Map<String, Object> data = future.join();
+
+        assertEquals("Cliente", data.get("nome"));
+        assertEquals("1234", data.get("conta"));
+        assertEquals("9", data.get("idGerente"));
+        assertEquals(2, maxInFlight.get());
+    }
+
+    @Test
+    void composesABatchInOrderAndReportsMissingClients() throws InterruptedException {
+        List<String> cpfs = IntStream.range(1, 33).mapToObj(i -> String.format("%011d", i))
+                .collect(Collectors.toList());
+        cpfs.add(20, "00000000000");
+
+        CompletableFuture<List<Map<String, Object>>> future = sagaService.composeClientDataBatch(cpfs);
+
+        // Primeira onda: 16 CPFs em paralelo, cada um com as duas consultas ao mesmo tempo.
+        awaitInFlight(32);
+        assertFalse(future.isDone());
+        release.complete(null);
+        List<Map<String, Object>> batch = future.join();
+
+        assertEquals(cpfs.size(), batch.size());
+        assertEquals(cpfs.get(0), batch.get(0).get("cpf"));
+        assertEquals("Cliente não encontrado", batch.get(20).get("erro"));
+        assertEquals(cpfs.get(32), batch.get(32).get("cpf"));
+        // O limite de saga.compose.batch-concurrency vale.
+        assertEquals(32, maxInFlight.get());
+    }
+
+    private void awaitInFlight(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (inFlight.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(inFlight.get() >= expected, "chamadas em andamento: " + inFlight.get());
+    }
+}
@@ -0,0 +1,65 @@
+package br.ufpr.saga_orchestrator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JdbcSagaStateRepositoryTest {
+
+    @Test
+    void aBatchThatKeepsFailingIsWrittenRowByRowAndOnlyTheBadRowIsDropped() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        MeterRegistry meters = new SimpleMeterRegistry();
+        JdbcSagaStateRepository repository = new JdbcSagaStateRepository(jdbc, new ObjectMapper(), 200, 5, 100,
+                604800000, 3, meters);
+        SagaTransition good = transition("inst.1");
+        SagaTransition bad = transition("inst.2");
+        SagaTransition other = transition("inst.3");
+        when(jdbc.batchUpdate(anyString(), argThat((Collection<SagaTransition> rows) -> rows.contains(bad)),
+                anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("valor longo demais"));
+
+        repository.writeOneByOne(List.of(good, bad, other));
+
+        verify(jdbc, times(3)).batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(1, meters.get("saga.persistence.dropped").counter().count());
+    }
+
+    @Test
+    void countsTransitionsThatDoNotFitInTheBuffer() {
+        MeterRegistry meters = new SimpleMeterRegistry();
+        JdbcSagaStateRepository repository = new JdbcSagaStateRepository(mock(JdbcTemplate.class),
+                new ObjectMapper(), 200, 5, 1, 604800000, 3, meters);
+
+        // Sem start(), nada drena o buffer de uma posição.
+        repository.append(transition("inst.1"));
+        repository.append(transition("inst.2"));
+
+        assertEquals(1, meters.get("saga.persistence.dropped").counter().count());
+    }
+
+    private static SagaTransition transition(String correlationId) {
+        return new SagaTransition(correlationId, "approve-client", "pending-manager", 202, "Aguardando", null,
+                null, System.currentTimeMillis());
+    }
+}
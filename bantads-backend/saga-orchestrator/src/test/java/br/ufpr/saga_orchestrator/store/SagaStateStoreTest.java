@@ -0,0 +1,102 @@
+package br.ufpr.saga_orchestrator.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import br.ufpr.saga_orchestrator.result.SagaResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SagaStateStoreTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void staysBoundedUnderSustainedLoad() {
+        SagaStateStore store = new SagaStateStore(60_000, 60_000, 1_000, registry);
+
+        for (int i = 0; i < 50_000; i++) {
+            store.putResult("saga-" + i, done());
+        }
+
+        assertEquals(1_000, store.size());
+        assertNull(store.getResult("saga-0"));
+        assertNotNull(store.getResult("saga-49999"));
+        assertEquals(49_000, registry.get("saga.store.evictions").tag("reason", "capacity").counter().count());
+        assertEquals(1_000, registry.get("saga.store.size").gauge().value());
+    }
+
+    @Test
+    void capacityNeverEvictsSagasInFlight() {
+        SagaStateStore store = new SagaStateStore(60_000, 60_000, 1_000, registry);
+
+        for (int i = 0; i < 400; i++) {
+            store.putResult("running-" + i, pending());
+        }
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(store.admit());
+            store.putResult("done-" + i, done());
+        }
+
+        assertEquals(1_000, store.size());
+        for (int i = 0; i < 400; i++) {
+            assertEquals(202, store.getResult("running-" + i).getStatusCode());
+        }
+        assertNull(store.getResult("done-0"));
+        assertNotNull(store.getResult("done-4999"));
+    }
+
+    @Test
+    void refusesNewSagasWhenFullOfSagasInFlight() {
+        SagaStateStore store = new SagaStateStore(60_000, 60_000, 1_000, registry);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(store.admit());
+            store.putResult("running-" + i, pending());
+        }
+
+        assertFalse(store.admit());
+        assertEquals(1, registry.get("saga.store.rejections").counter().count());
+        // Saga retomada de outra réplica entra mesmo acima do limite.
+        store.putResult("adopted", pending());
+        assertEquals(1_001, store.size());
+        assertNotNull(store.getResult("running-0"));
+
+        // Com a adotada acima do limite, duas terminais saem antes de caber uma nova.
+        store.putResult("running-0", done());
+        assertFalse(store.admit());
+        store.putResult("running-1", done());
+        assertTrue(store.admit());
+        assertNull(store.getResult("running-0"));
+        assertNull(store.getResult("running-1"));
+    }
+
+    @Test
+    void evictsTerminalSagasAfterTtlAndKeepsPendingOnes() throws InterruptedException {
+        SagaStateStore store = new SagaStateStore(0, 60_000, 1_000, registry);
+
+        store.putResult("done", new SagaResult(true, "approve-client", "ok", Map.of(), 200));
+        store.putResult("running", pending());
+        store.putManagerId("running", "42");
+
+        store.evictExpired();
+
+        assertNull(store.getResult("done"));
+        assertEquals("42", store.getManagerId("running"));
+        assertEquals(1, registry.get("saga.store.evictions").tag("reason", "ttl").counter().count());
+    }
+
+    private SagaResult done() {
+        return new SagaResult(true, "approve-client", "ok", Map.of(), 200);
+    }
+
+    private SagaResult pending() {
+        return new SagaResult(true, "approve-client", "Aguardando", Map.of("status", "pending"), 202);
+    }
+}
@@ -10,7 +10,10 @@ Write-Host ""
 $baseDir = "bantads-backend"
 
 # Define all Java services to build
+# account-events goes first: it is installed into the local Maven repository
+# and used as a dependency by the account services
 $services = @(
+    "account-events",
     "account-query-service",
     "account-service",
     "auth-service",
@@ -31,7 +34,8 @@ foreach ($service in $services) {
         
         # Run Maven clean package, skip tests for faster builds
         # Remove -DskipTests if you want to run tests
-        $output = & ./mvnw.cmd clean package -DskipTests 2>&1
+        $goal = if ($service -eq "account-events") { "install" } else { "package" }
+        $output = & ./mvnw.cmd clean $goal -DskipTests 2>&1
         
         if ($LASTEXITCODE -eq 0) {
             Write-Host "✓ $service built successfully!" -ForegroundColor Green